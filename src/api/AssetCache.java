@@ -5,17 +5,23 @@ import com.google.gson.reflect.TypeToken;
 import exception.AssetNotFoundException;
 import exception.CoinAPIException;
 import logger.Logger;
+import metrics.MetricsRegistry;
 import model.Asset;
 import util.GsonProvider;
 
 import java.lang.reflect.Type;
 import java.net.http.HttpResponse;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -25,17 +31,27 @@ public class AssetCache implements AutoCloseable {
 
     private static final int CACHE_DURATION = 30;
     private static final int MAX_NUMBER_OF_ASSETS_IN_CACHE = 100;
+    private static final int SHUTDOWN_TIMEOUT_SECONDS = 5;
+    private static final int PRICE_TABLE_CHECK_SECONDS = 1;
+    private static final long PRICE_TABLE_NOT_LOADED = -1;
     private static final Type ASSET_LIST_TYPE = new TypeToken<List<Asset>>() { }.getType();
 
     private final Gson gson;
     private final ScheduledExecutorService scheduler;
 
-    private final Map<String, Asset> assetCache;
+    private volatile Map<String, Asset> assetCache;
+    private final Map<String, Long> changedAt;
+    private final Map<String, Long> removedAt;
+    private final List<PriceListener> priceListeners;
 
     private final ApiCall apiCall;
+    private final PriceTable priceTable;
     private LocalDateTime lastUpdated;
+    private volatile long generation;
+    private long loadedTableGeneration;
 
     private static final Logger LOGGER = Logger.getInstance();
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
 
     private static final String JSON_RESPONSE = """
             [
@@ -51,18 +67,47 @@ public class AssetCache implements AutoCloseable {
             ]
             """;
     public AssetCache(ApiCall apiCall) {
+        this(apiCall, null);
+    }
+
+    /**
+     * With a price table the cache shares one price feed with the other server processes of the host:
+     * while this process is the publisher it fetches the prices and publishes them, otherwise it follows
+     * the table, checking every second for a new generation and for a chance to take over. Generations
+     * are then those of the table, the same in every process. A null table keeps the cache to itself.
+     */
+    public AssetCache(ApiCall apiCall, PriceTable priceTable) {
         validateApiCall(apiCall);
 
         this.apiCall = apiCall;
+        this.priceTable = priceTable;
+        this.loadedTableGeneration = PRICE_TABLE_NOT_LOADED;
         gson = GsonProvider.getGson();
-        this.assetCache = new ConcurrentHashMap<>();
+        this.assetCache = Map.of();
+        this.changedAt = new ConcurrentHashMap<>();
+        this.removedAt = new ConcurrentHashMap<>();
+        this.priceListeners = new CopyOnWriteArrayList<>();
         this.scheduler = Executors.newSingleThreadScheduledExecutor();
 
         updateCache();
         scheduler.scheduleAtFixedRate(this::updateCache, CACHE_DURATION, CACHE_DURATION, TimeUnit.MINUTES);
+
+        if (priceTable != null) {
+            scheduler.scheduleWithFixedDelay(this::updateCache, PRICE_TABLE_CHECK_SECONDS, PRICE_TABLE_CHECK_SECONDS,
+                    TimeUnit.SECONDS);
+        }
     }
 
+    /**
+     * A cache following a price table expires as soon as the publisher publishes a new generation. While a publish
+     * keeps overlapping the read, the cache keeps the assets it loaded last.
+     */
     public synchronized boolean isCacheExpired() {
+        if (isFollowingPriceTable()) {
+            long tableGeneration = priceTable.getGeneration();
+            return tableGeneration != PriceTable.UNSETTLED && tableGeneration != loadedTableGeneration;
+        }
+
         return lastUpdated == null ||
                 lastUpdated.plusMinutes(CACHE_DURATION).isBefore(LocalDateTime.now());
     }
@@ -72,9 +117,7 @@ public class AssetCache implements AutoCloseable {
             return Collections.emptyList();
         }
 
-        if (isCacheExpired()) {
-            updateCache();
-        }
+        refreshIfExpired();
 
         return List.copyOf(assetCache.values());
     }
@@ -87,16 +130,27 @@ public class AssetCache implements AutoCloseable {
     public Asset getAssetById(String assetId) {
         validateAssetID(assetId);
 
-        if (isCacheExpired()) {
-            updateCache();
-        }
+        refreshIfExpired();
 
         return assetCache.get(assetId.toUpperCase());
     }
 
+    /**
+     * With a price table the price is read straight from the shared mapping, or from the assets loaded last
+     * while a publish keeps overlapping the read.
+     */
     public Double getAssetPrice(String assetId) {
         validateAssetID(assetId);
 
+        if (priceTable != null) {
+            refreshIfExpired();
+
+            Double price = priceTable.getPrice(assetId);
+            if (price != null) {
+                return price;
+            }
+        }
+
         Asset asset = getAssetById(assetId);
 
         return asset != null ? asset.price() : null;
@@ -105,31 +159,119 @@ public class AssetCache implements AutoCloseable {
     public boolean containsAsset(String assetId) {
         validateAssetID(assetId);
 
-        if (isCacheExpired()) {
-            updateCache();
-        }
+        refreshIfExpired();
 
         return assetCache.containsKey(assetId.toUpperCase());
     }
 
+    /**
+     * Grows with every successful refresh, so anything derived from the cached assets
+     * stays valid for as long as the generation it was built from.
+     */
+    public long getGeneration() {
+        refreshIfExpired();
+
+        return generation;
+    }
+
+    /**
+     * Returns the assets that were added or repriced, and the ids of those that were dropped, by the refreshes
+     * after {@code sinceGeneration}. The generation of the result is read first, so a refresh racing with
+     * the call can only add changes the caller will be told about again.
+     */
+    public Changes getChangesSince(long sinceGeneration) {
+        refreshIfExpired();
+
+        long current = generation;
+        Map<String, Asset> assets = assetCache;
+        List<Asset> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+
+        changedAt.forEach((assetId, changedGeneration) -> {
+            Asset asset = assets.get(assetId);
+            if (changedGeneration > sinceGeneration && asset != null) {
+                changed.add(asset);
+            }
+        });
+
+        removedAt.forEach((assetId, removedGeneration) -> {
+            if (removedGeneration > sinceGeneration && !assets.containsKey(assetId)) {
+                removed.add(assetId);
+            }
+        });
+
+        return new Changes(current, List.copyOf(changed), List.copyOf(removed));
+    }
+
     public int getAssetCount() {
         return assetCache.size();
     }
 
-    private synchronized void shutdown() {
-        this.scheduler.shutdown();
+    /**
+     * Registers a listener called after every refresh with the assets whose price changed.
+     */
+    public void addPriceListener(PriceListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Parameter 'listener' passed to AssetCache is null!");
+        }
+
+        priceListeners.add(listener);
     }
 
-    private synchronized void updateCache() {
-        if (!isCacheExpired()) {
-            return;
+    public void removePriceListener(PriceListener listener) {
+        priceListeners.remove(listener);
+    }
+
+    private void shutdown() {
+        scheduler.shutdown();
+
+        try {
+            if (!scheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            scheduler.shutdownNow();
         }
+    }
+
+    private void refreshIfExpired() {
+        if (isCacheExpired()) {
+            METRICS.cacheMiss();
+            updateCache();
+        } else {
+            METRICS.cacheHit();
+        }
+    }
+
+    private synchronized void updateCache() {
         try {
+            if (isFollowingPriceTable() && priceTable.tryBecomePublisher()) {
+                takeOverPriceTable();
+            }
+
+            if (!isCacheExpired()) {
+                return;
+            }
+
+            if (isFollowingPriceTable()) {
+                loadPriceTable();
+                return;
+            }
+
+            long startNanos = System.nanoTime();
             HttpResponse<String> response = apiCall.fetchAll();
             List<Asset> assets = parseResponse(response.body());
-            updateCacheMap(assets);
+            long nextGeneration = nextGeneration();
+            List<Asset> changedAssets = updateCacheMap(assets, nextGeneration);
             lastUpdated = LocalDateTime.now();
+            generation = nextGeneration;
+            if (priceTable != null) {
+                priceTable.publish(assets, nextGeneration);
+            }
+            METRICS.recordCacheRefresh(System.nanoTime() - startNanos);
             System.out.println("Cached assets: " + assetCache.keySet());
+            notifyPriceListeners(changedAssets);
         } catch (CoinAPIException | AssetNotFoundException e) {
             LOGGER.log(e, "SYSTEM_CACHE");
         } catch (Exception e) {
@@ -166,11 +308,106 @@ public class AssetCache implements AutoCloseable {
 //        }
 //    }
 
-    private void updateCacheMap(List<Asset> assets) {
-        assetCache.clear();
+    private boolean isFollowingPriceTable() {
+        return priceTable != null && !priceTable.isPublisher();
+    }
+
+    /**
+     * A process that has just become the publisher continues from the generation of the table,
+     * which survives restarts in its file.
+     */
+    private long nextGeneration() {
+        return (priceTable == null ? generation : Math.max(generation, priceTable.getPublishedGeneration())) + 1;
+    }
+
+    /**
+     * A new publisher starts from what the table holds and fetches only once the last publish is stale,
+     * or at once if there was none. Holding the lock, it is the only writer, so a read that does not settle
+     * means the previous publisher died writing the table.
+     */
+    private void takeOverPriceTable() {
+        PriceTable.Snapshot snapshot = loadPriceTable();
+
+        if (snapshot == null || snapshot.publishedAtMillis() == PriceTable.NEVER_PUBLISHED) {
+            lastUpdated = null;
+            return;
+        }
+
+        Instant publishedAt = Instant.ofEpochMilli(snapshot.publishedAtMillis());
+        lastUpdated = LocalDateTime.ofInstant(publishedAt, ZoneId.systemDefault());
+    }
+
+    /**
+     * Returns null, keeping the assets loaded last, if a publish kept overlapping the read.
+     */
+    private PriceTable.Snapshot loadPriceTable() {
+        PriceTable.Snapshot snapshot = priceTable.read();
+        if (snapshot == null) {
+            return null;
+        }
+
+        List<Asset> changedAssets = updateCacheMap(snapshot.assets(), snapshot.generation());
+
+        loadedTableGeneration = snapshot.generation();
+        lastUpdated = LocalDateTime.now();
+        generation = snapshot.generation();
+        notifyPriceListeners(changedAssets);
+
+        return snapshot;
+    }
+
+    /**
+     * Builds the new assets aside and swaps them in whole, so readers see either the old or the new map,
+     * never a partial one. Returns the assets that are new or whose price differs. Both those and the
+     * dropped ones are stamped with the generation the refresh is about to publish, after the swap and
+     * before the caller bumps the generation, so the stamps of a generation are complete once it is visible.
+     */
+    private List<Asset> updateCacheMap(List<Asset> assets, long nextGeneration) {
+        Map<String, Asset> previous = assetCache;
+        Map<String, Asset> next = new LinkedHashMap<>();
+        List<Asset> changedAssets = new ArrayList<>();
+
         for (Asset asset : assets) {
             if (asset != null && asset.id() != null) {
-                assetCache.put(asset.id().toUpperCase(), asset);
+                String assetId = asset.id().toUpperCase();
+                Asset old = previous.get(assetId);
+
+                next.put(assetId, asset);
+                if (old == null || !Objects.equals(old.price(), asset.price())) {
+                    changedAssets.add(asset);
+                }
+            }
+        }
+
+        assetCache = Collections.unmodifiableMap(next);
+
+        for (Asset asset : changedAssets) {
+            String assetId = asset.id().toUpperCase();
+            changedAt.put(assetId, nextGeneration);
+            removedAt.remove(assetId);
+        }
+
+        for (String assetId : previous.keySet()) {
+            if (!next.containsKey(assetId)) {
+                changedAt.remove(assetId);
+                removedAt.put(assetId, nextGeneration);
+            }
+        }
+
+        return changedAssets;
+    }
+
+    private void notifyPriceListeners(List<Asset> changedAssets) {
+        if (changedAssets.isEmpty()) {
+            return;
+        }
+
+        List<Asset> changed = List.copyOf(changedAssets);
+        for (PriceListener listener : priceListeners) {
+            try {
+                listener.onPricesChanged(changed);
+            } catch (RuntimeException e) {
+                LOGGER.log(e, "SYSTEM_CACHE");
             }
         }
     }
@@ -210,4 +447,14 @@ public class AssetCache implements AutoCloseable {
             throw new IllegalArgumentException("AssetId is null or blank!");
         }
     }
+
+    /**
+     * What the refreshes after some generation changed, as of {@code generation}.
+     */
+    public record Changes(long generation, List<Asset> changed, List<String> removed) {
+
+        public boolean isEmpty() {
+            return changed.isEmpty() && removed.isEmpty();
+        }
+    }
 }
@@ -0,0 +1,14 @@
+package api;
+
+import model.Asset;
+
+import java.util.List;
+
+/**
+ * Notified by {@link AssetCache} after a refresh with the assets whose price changed or that are new.
+ * Called on the refreshing thread, so implementations must not block.
+ */
+@FunctionalInterface
+public interface PriceListener {
+    void onPricesChanged(List<Asset> changedAssets);
+}
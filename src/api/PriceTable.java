@@ -0,0 +1,291 @@
+package api;
+
+import model.Asset;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Price table memory-mapped from a file, shared by the server processes of one host. The process holding
+ * the lock on the file is the publisher: it fetches the prices and writes them into the table, and every
+ * other process reads them straight from the mapping. When the publisher exits its lock is released and
+ * the next process to try takes over.
+ * <p>
+ * Writes are guarded by a seqlock: the sequence is odd while the publisher writes, and a reader retries
+ * whenever it saw an odd sequence or the sequence changed while it read. Readers never block the publisher:
+ * a read that does not settle within {@value #MAX_READ_ATTEMPTS} attempts reports so, and the caller keeps
+ * what it read before. Whether the publisher died mid-write is left to the file lock: once it is free, the
+ * next publisher rewrites the table.
+ * <p>
+ * Layout: sequence (8 bytes), generation (8), count (4), padding (4), publish time in epoch millis (8), then
+ * {@value #MAX_ASSETS} slots of id length (1), id, name length (1), name and price (8, aligned).
+ */
+public class PriceTable implements AutoCloseable {
+
+    public static final int MAX_ASSETS = 100;
+    public static final long NEVER_PUBLISHED = 0;
+    public static final long UNSETTLED = -1;
+
+    private static final int SEQUENCE_OFFSET = 0;
+    private static final int GENERATION_OFFSET = 8;
+    private static final int COUNT_OFFSET = 16;
+    private static final int PUBLISHED_AT_OFFSET = 24;
+    private static final int HEADER_SIZE = 32;
+
+    private static final int ID_BYTES = 15;
+    private static final int NAME_BYTES = 103;
+    private static final int NAME_OFFSET = 1 + ID_BYTES;
+    private static final int PRICE_OFFSET = NAME_OFFSET + 1 + NAME_BYTES;
+    private static final int SLOT_SIZE = PRICE_OFFSET + Double.BYTES;
+
+    private static final int TABLE_SIZE = HEADER_SIZE + MAX_ASSETS * SLOT_SIZE;
+    private static final int IS_CRYPTO = 1;
+    private static final int MAX_READ_ATTEMPTS = 1_000;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final FileChannel channel;
+    private final MappedByteBuffer table;
+    private FileLock publisherLock;
+
+    private PriceTable(FileChannel channel, MappedByteBuffer table) {
+        this.channel = channel;
+        this.table = table;
+    }
+
+    /**
+     * Maps the table, creating the file if it does not exist yet. The process does not publish
+     * until it wins {@link #tryBecomePublisher()}.
+     */
+    public static PriceTable open(Path path) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Parameter 'path' passed to PriceTable is null!");
+        }
+
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_WRITE, 0, TABLE_SIZE);
+            table.order(ByteOrder.nativeOrder());
+            return new PriceTable(channel, table);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns true if this process is, or has just become, the publisher.
+     */
+    public synchronized boolean tryBecomePublisher() {
+        if (publisherLock != null) {
+            return true;
+        }
+
+        try {
+            publisherLock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // another table in this process already publishes
+            return false;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not lock the price table", e);
+        }
+
+        return publisherLock != null;
+    }
+
+    public synchronized boolean isPublisher() {
+        return publisherLock != null;
+    }
+
+    /**
+     * Replaces the table with the given assets, at most {@value #MAX_ASSETS} of them. Only the publisher may call it.
+     * The sequence is first rounded up to even, so a table left mid-write by a publisher that died is never
+     * made to look consistent by the next one.
+     */
+    public synchronized void publish(List<Asset> assets, long generation) {
+        requirePublisher();
+
+        int count = Math.min(assets.size(), MAX_ASSETS);
+        long sequence = ((long) LONGS.getOpaque(table, SEQUENCE_OFFSET) + 1) & ~1L;
+
+        LONGS.setOpaque(table, SEQUENCE_OFFSET, sequence + 1);
+        VarHandle.storeStoreFence();
+
+        for (int i = 0; i < count; i++) {
+            writeSlot(HEADER_SIZE + i * SLOT_SIZE, assets.get(i));
+        }
+        table.putLong(GENERATION_OFFSET, generation);
+        table.putInt(COUNT_OFFSET, count);
+        table.putLong(PUBLISHED_AT_OFFSET, System.currentTimeMillis());
+
+        LONGS.setRelease(table, SEQUENCE_OFFSET, sequence + 2);
+    }
+
+    /**
+     * Generation of the last publish, zero before the first one, or {@link #UNSETTLED} if a publish kept
+     * overlapping the read.
+     */
+    public long getGeneration() {
+        Long generation = readConsistently(() -> table.getLong(GENERATION_OFFSET));
+        return generation != null ? generation : UNSETTLED;
+    }
+
+    /**
+     * Generation field as the publisher left it, readable even if a previous publisher died mid-write, since the
+     * field is written whole. Only the publisher may call it, for no one else can be writing then.
+     */
+    public synchronized long getPublishedGeneration() {
+        requirePublisher();
+
+        return table.getLong(GENERATION_OFFSET);
+    }
+
+    /**
+     * Looks the price up in the mapping itself, without copying the table. Returns null for an unknown asset,
+     * and also if a publish kept overlapping the read.
+     */
+    public Double getPrice(String assetId) {
+        byte[] id = assetId.toUpperCase().getBytes(StandardCharsets.US_ASCII);
+
+        return readConsistently(() -> findPrice(id));
+    }
+
+    /**
+     * Copies the assets out of the table, in the order they were published. Returns null if a publish kept
+     * overlapping the read.
+     */
+    public Snapshot read() {
+        return readConsistently(() -> {
+            long generation = table.getLong(GENERATION_OFFSET);
+            long publishedAtMillis = table.getLong(PUBLISHED_AT_OFFSET);
+            int count = Math.clamp(table.getInt(COUNT_OFFSET), 0, MAX_ASSETS);
+
+            List<Asset> assets = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int slot = HEADER_SIZE + i * SLOT_SIZE;
+                assets.add(new Asset(readString(slot, ID_BYTES), readString(slot + NAME_OFFSET, NAME_BYTES),
+                        IS_CRYPTO, table.getDouble(slot + PRICE_OFFSET)));
+            }
+
+            return new Snapshot(generation, publishedAtMillis, List.copyOf(assets));
+        });
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (publisherLock != null) {
+            publisherLock.release();
+            publisherLock = null;
+        }
+
+        channel.close();
+    }
+
+    /**
+     * Runs the read until no publish overlapped it, or returns null after {@value #MAX_READ_ATTEMPTS} attempts.
+     */
+    private <T> T readConsistently(Supplier<T> reader) {
+        for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            long sequence = (long) LONGS.getAcquire(table, SEQUENCE_OFFSET);
+            T value = reader.get();
+
+            if (isConsistent(sequence)) {
+                return value;
+            }
+
+            Thread.onSpinWait();
+        }
+
+        return null;
+    }
+
+    private void requirePublisher() {
+        if (publisherLock == null) {
+            throw new IllegalStateException("Only the publisher may write the price table!");
+        }
+    }
+
+    /**
+     * True if the sequence read before the data was even and has not moved since, i.e. no publish overlapped.
+     */
+    private boolean isConsistent(long sequenceBefore) {
+        VarHandle.loadLoadFence();
+        return (sequenceBefore & 1) == 0 && sequenceBefore == (long) LONGS.getOpaque(table, SEQUENCE_OFFSET);
+    }
+
+    private Double findPrice(byte[] id) {
+        int count = Math.clamp(table.getInt(COUNT_OFFSET), 0, MAX_ASSETS);
+
+        for (int i = 0; i < count; i++) {
+            int slot = HEADER_SIZE + i * SLOT_SIZE;
+
+            if (idMatches(slot, id)) {
+                return table.getDouble(slot + PRICE_OFFSET);
+            }
+        }
+
+        return null;
+    }
+
+    private boolean idMatches(int slot, byte[] id) {
+        if (table.get(slot) != id.length) {
+            return false;
+        }
+
+        for (int i = 0; i < id.length; i++) {
+            if (table.get(slot + 1 + i) != id[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void writeSlot(int slot, Asset asset) {
+        writeString(slot, asset.id().toUpperCase(), ID_BYTES);
+        writeString(slot + NAME_OFFSET, asset.name(), NAME_BYTES);
+        table.putDouble(slot + PRICE_OFFSET, asset.price());
+    }
+
+    /**
+     * Strings too long for their field are cut, at a character boundary.
+     */
+    private void writeString(int offset, String value, int maxBytes) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, maxBytes);
+
+        while (length < bytes.length && length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+
+        table.put(offset, (byte) length);
+        table.put(offset + 1, bytes, 0, length);
+    }
+
+    private String readString(int offset, int maxBytes) {
+        int length = Math.clamp(table.get(offset) & 0xFF, 0, maxBytes);
+        byte[] bytes = new byte[length];
+
+        table.get(offset + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The assets of one publish, with the wall clock time it happened at, {@link #NEVER_PUBLISHED} before the first.
+     */
+    public record Snapshot(long generation, long publishedAtMillis, List<Asset> assets) {
+    }
+}
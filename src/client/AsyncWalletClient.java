@@ -0,0 +1,293 @@
+package client;
+
+import exception.MalformedFrameException;
+import protocol.Frame;
+import protocol.FrameCodec;
+import protocol.FrameCompressor;
+import protocol.FrameDecompressor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking client for programs that trade on their own, e.g. bots. Every command is written
+ * on one shared connection right away and answered through the returned future, so any number
+ * of commands may be outstanding at once; replies are matched to them by request id.
+ * <p>
+ * The server runs the commands of one connection in the order they were sent.
+ * Futures complete on the client's reader thread, so long-running callbacks should use the async
+ * variants of the {@link CompletableFuture} methods. Once the connection is lost or closed,
+ * every outstanding and every later command fails with an {@link IOException}.
+ */
+public class AsyncWalletClient implements AutoCloseable {
+
+    private static final String HOST = "localhost";
+    private static final int PORT = 7777;
+
+    private static final long HANDSHAKE_REQUEST_ID = 1;
+    private static final int NO_TIMEOUT = 0;
+    private static final String READER_THREAD_NAME = "wallet-client-reader";
+
+    private final SocketChannel socketChannel;
+    private final DataInputStream input;
+    private final DataOutputStream output;
+    private final ReentrantLock writeLock;
+
+    private final Map<Long, CompletableFuture<Response>> pendingResponses;
+    private final AtomicLong nextRequestId;
+    private final AtomicReference<IOException> failure;
+
+    private volatile Consumer<String> pushListener;
+    private volatile BiConsumer<Integer, String> sessionPushListener;
+
+    private AsyncWalletClient(SocketChannel socketChannel) throws IOException {
+        this.socketChannel = socketChannel;
+        // Unix domain channels have no socket adaptor, so both kinds of channels use the channel streams
+        this.input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(socketChannel)));
+        this.output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(socketChannel)));
+        this.writeLock = new ReentrantLock();
+        this.pendingResponses = new ConcurrentHashMap<>();
+        this.nextRequestId = new AtomicLong(HANDSHAKE_REQUEST_ID + 1);
+        this.failure = new AtomicReference<>();
+    }
+
+    public static AsyncWalletClient connect() throws IOException {
+        return connect(new InetSocketAddress(HOST, PORT));
+    }
+
+    /**
+     * Connects over TCP to an {@link InetSocketAddress} or, for a server on the same host,
+     * over its Unix domain socket to a {@link java.net.UnixDomainSocketAddress}.
+     */
+    public static AsyncWalletClient connect(SocketAddress address) throws IOException {
+        if (address == null) {
+            throw new IllegalArgumentException("Parameter 'address' passed to connect is null!");
+        }
+
+        SocketChannel socketChannel = SocketChannel.open(address);
+        try {
+            AsyncWalletClient client = new AsyncWalletClient(socketChannel);
+            client.write(Frame.handshake(HANDSHAKE_REQUEST_ID, FrameCompressor.DEFLATE_OPTION));
+            Thread.ofVirtual().name(READER_THREAD_NAME).start(client::readReplies);
+
+            return client;
+        } catch (IOException e) {
+            socketChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Receives the price updates of watched assets. Updates arriving while no listener is set are dropped.
+     */
+    public void setPushListener(Consumer<String> pushListener) {
+        this.pushListener = pushListener;
+    }
+
+    /**
+     * Receives the price updates together with the id of the session that watches the asset.
+     * While set, it replaces the plain push listener.
+     */
+    public void setSessionPushListener(BiConsumer<Integer, String> sessionPushListener) {
+        this.sessionPushListener = sessionPushListener;
+    }
+
+    public CompletableFuture<Response> register(String email, String password) {
+        return send("register --username=" + email + " --password=" + password);
+    }
+
+    public CompletableFuture<Response> login(String email, String password) {
+        return send("login --username=" + email + " --password=" + password);
+    }
+
+    public CompletableFuture<Response> resume(String sessionToken) {
+        return send("resume --token=" + sessionToken);
+    }
+
+    public CompletableFuture<Response> logout() {
+        return send("logout");
+    }
+
+    public CompletableFuture<Response> deposit(double amount) {
+        return send("deposit " + amount);
+    }
+
+    public CompletableFuture<Response> buy(String assetId, double money) {
+        return send("buy --offering=" + assetId + " --money=" + money);
+    }
+
+    public CompletableFuture<Response> sell(String assetId) {
+        return send("sell --offering=" + assetId);
+    }
+
+    public CompletableFuture<Response> listOfferings() {
+        return send("list-offerings");
+    }
+
+    public CompletableFuture<Response> getWalletSummary() {
+        return send("get-wallet-summary");
+    }
+
+    public CompletableFuture<Response> getWalletOverallSummary() {
+        return send("get-wallet-overall-summary");
+    }
+
+    public CompletableFuture<Response> watch(String assetId) {
+        return send("watch --offering=" + assetId);
+    }
+
+    public CompletableFuture<Response> unwatch(String assetId) {
+        return send("unwatch --offering=" + assetId);
+    }
+
+    /**
+     * Sends a command as it would be typed into the interactive client.
+     */
+    public CompletableFuture<Response> send(String command) {
+        return send(command, NO_TIMEOUT);
+    }
+
+    /**
+     * Sends a command the server answers as timed out instead of executing it, unless it gets to it
+     * within the given milliseconds of receiving it. A timeout of 0 means the command never expires.
+     */
+    public CompletableFuture<Response> send(String command, int timeoutMillis) {
+        return sendInSession(Frame.DEFAULT_SESSION_ID, command, timeoutMillis);
+    }
+
+    /**
+     * Sends a command of one of the logical sessions multiplexed over this connection. Every session is
+     * logged in on its own and runs its commands in order, independently of the other sessions.
+     * The server creates a session on its first command; session 0 is the one the other methods use.
+     */
+    public CompletableFuture<Response> sendInSession(int sessionId, String command) {
+        return sendInSession(sessionId, command, NO_TIMEOUT);
+    }
+
+    public CompletableFuture<Response> sendInSession(int sessionId, String command, int timeoutMillis) {
+        if (command == null || command.isBlank()) {
+            throw new IllegalArgumentException("Parameter 'command' passed to send is null or blank!");
+        }
+
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("Parameter 'timeoutMillis' passed to send should not be negative!");
+        }
+
+        CompletableFuture<Response> response = new CompletableFuture<>();
+        long requestId = nextRequestId.getAndIncrement();
+        pendingResponses.put(requestId, response);
+
+        try {
+            write(Frame.request(requestId, sessionId, command, timeoutMillis));
+        } catch (IOException e) {
+            fail(e);
+        }
+
+        // the connection may have been lost between registering the future and writing the frame
+        if (failure.get() != null) {
+            failPending();
+        }
+
+        return response;
+    }
+
+    public int getOutstandingCount() {
+        return pendingResponses.size();
+    }
+
+    public boolean isOpen() {
+        return failure.get() == null;
+    }
+
+    @Override
+    public void close() {
+        fail(new IOException("The client was closed"));
+    }
+
+    private void write(Frame frame) throws IOException {
+        writeLock.lock();
+        try {
+            FrameCodec.write(output, frame);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void readReplies() {
+        try (FrameDecompressor decompressor = new FrameDecompressor(FrameCodec.MAX_FRAME_SIZE)) {
+            while (true) {
+                Frame frame = decompressor.decompress(FrameCodec.read(input, FrameCodec.MAX_FRAME_SIZE));
+
+                if (frame.hasFlag(Frame.FLAG_HANDSHAKE) || frame.hasFlag(Frame.FLAG_HEARTBEAT)) {
+                    continue;
+                }
+
+                if (frame.isUnsolicited()) {
+                    notifyPushListener(frame.sessionId(), frame.payloadAsString());
+                    continue;
+                }
+
+                CompletableFuture<Response> response = pendingResponses.remove(frame.requestId());
+                if (response != null) {
+                    response.complete(new Response(frame.requestId(), frame.payloadAsString()));
+                }
+            }
+        } catch (IOException e) {
+            fail(e);
+        } catch (MalformedFrameException e) {
+            fail(new IOException("The server sent a malformed frame", e));
+        }
+    }
+
+    private void notifyPushListener(int sessionId, String update) {
+        BiConsumer<Integer, String> sessionListener = sessionPushListener;
+        Consumer<String> listener = pushListener;
+
+        try {
+            if (sessionListener != null) {
+                sessionListener.accept(sessionId, update);
+            } else if (listener != null) {
+                listener.accept(update);
+            }
+        } catch (RuntimeException e) {
+            // a failing listener must not stop the replies to the outstanding commands
+        }
+    }
+
+    private void fail(IOException cause) {
+        failure.compareAndSet(null, cause);
+
+        try {
+            socketChannel.close();
+        } catch (IOException e) {
+            // the connection is being abandoned anyway
+        }
+
+        failPending();
+    }
+
+    private void failPending() {
+        for (Long requestId : pendingResponses.keySet()) {
+            CompletableFuture<Response> response = pendingResponses.remove(requestId);
+
+            if (response != null) {
+                response.completeExceptionally(failure.get());
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package client;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Client settings given as {@code --<option>=<value>} arguments. Without a script the client is interactive.
+ */
+public final class ClientOptions {
+    private static final String FLAG_PREFIX = "--";
+    private static final String VALUE_SEPARATOR = "=";
+
+    private static final String SCRIPT_FLAG = "script";
+    private static final String OUTPUT_FLAG = "output";
+    private static final String WINDOW_FLAG = "window";
+    private static final String UNIX_SOCKET_FLAG = "unix-socket";
+
+    private static final String HOST = "localhost";
+    private static final int PORT = 7777;
+
+    public static final String STANDARD_STREAM = "-";
+
+    private static final int DEFAULT_WINDOW = 64;
+
+    private final Map<String, String> options;
+
+    private ClientOptions(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static ClientOptions parse(String[] args) {
+        Map<String, String> parsed = new HashMap<>();
+
+        if (args == null) {
+            return new ClientOptions(parsed);
+        }
+
+        for (String arg : args) {
+            validateArgument(arg);
+
+            String[] keyValue = arg.substring(FLAG_PREFIX.length()).split(VALUE_SEPARATOR, 2);
+            parsed.put(keyValue[0].toLowerCase(), keyValue.length > 1 ? keyValue[1] : "");
+        }
+
+        return new ClientOptions(parsed);
+    }
+
+    public boolean isScripted() {
+        return options.containsKey(SCRIPT_FLAG);
+    }
+
+    /**
+     * Path of the command script, or {@value #STANDARD_STREAM} to read the commands piped to standard input.
+     */
+    public String getScript() {
+        return options.getOrDefault(SCRIPT_FLAG, STANDARD_STREAM);
+    }
+
+    /**
+     * Path of the results file, or {@value #STANDARD_STREAM} to print the results.
+     */
+    public String getOutput() {
+        return options.getOrDefault(OUTPUT_FLAG, STANDARD_STREAM);
+    }
+
+    /**
+     * The server's Unix domain socket when one is given with --unix-socket=<path>, its TCP port otherwise.
+     */
+    public SocketAddress getServerAddress() {
+        String socketPath = options.get(UNIX_SOCKET_FLAG);
+
+        if (socketPath == null || socketPath.isBlank()) {
+            return new InetSocketAddress(HOST, PORT);
+        }
+
+        return UnixDomainSocketAddress.of(socketPath);
+    }
+
+    public int getWindow() {
+        String value = options.get(WINDOW_FLAG);
+
+        if (value == null) {
+            return DEFAULT_WINDOW;
+        }
+
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed <= 0) {
+                throw new IllegalArgumentException(String.format("Option '%s' should be positive!", WINDOW_FLAG));
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    String.format("Option '%s' expects a number, got '%s'", WINDOW_FLAG, value), e);
+        }
+    }
+
+    private static void validateArgument(String arg) {
+        if (arg == null || !arg.startsWith(FLAG_PREFIX)) {
+            throw new IllegalArgumentException("Client options are expected in the format --<option>=<value>!");
+        }
+    }
+}
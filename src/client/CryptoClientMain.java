@@ -2,7 +2,13 @@ package client;
 
 public class CryptoClientMain {
     public static void main(String[] args) {
-        CryptocurrencyWalletManagerClient client = new CryptocurrencyWalletManagerClient();
-        client.start();
+        ClientOptions options = ClientOptions.parse(args);
+        CryptocurrencyWalletManagerClient client = new CryptocurrencyWalletManagerClient(options.getServerAddress());
+
+        if (options.isScripted()) {
+            client.runScript(options);
+        } else {
+            client.start();
+        }
     }
 }
@@ -1,50 +1,211 @@
 package client;
 
+import protocol.Frame;
+import protocol.FrameCodec;
+import protocol.FrameCompressor;
+import protocol.FrameDecompressor;
+
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.nio.channels.Channels;
 import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 public class CryptocurrencyWalletManagerClient {
     private static final String HOST = "localhost";
     private static final int PORT = 7777;
 
-    private static final String STOP_WORD = "STOP";
-
-    private static final String ENCODING = "UTF-8";
     private static final String EXIT_MESSAGE = "exit";
+    private static final String LOGOUT_MESSAGE = "logout";
+    private static final long HANDSHAKE_REQUEST_ID = 1;
 
-    public void start() {
-        try (SocketChannel socketChannel = SocketChannel.open();
-             BufferedReader bufferedReader = new BufferedReader(Channels.newReader(socketChannel, ENCODING));
-             PrintWriter printWriter = new PrintWriter(Channels.newWriter(socketChannel, ENCODING), true);
-             Scanner scanner = new Scanner(System.in)) {
+    private static final String SESSION_TOKEN_PREFIX = "Session token: ";
+    private static final String RESUME_COMMAND = "resume --token=";
+    private static final String RESUMED_PREFIX = "Session resumed!";
+    private static final int MAX_RECONNECT_ATTEMPTS = 3;
+    private static final long RECONNECT_DELAY_MILLIS = 1_000;
 
-            socketChannel.connect(new InetSocketAddress(HOST, PORT));
+    private final SocketAddress serverAddress;
+    private final OfferingsCache offerings;
 
-            while (true) {
-                String input = scanner.nextLine();
+    private long nextRequestId = HANDSHAKE_REQUEST_ID + 1;
+    private String sessionToken;
+    private int reconnectAttempts;
 
-                if (input.equalsIgnoreCase(EXIT_MESSAGE)) {
-                    break;
-                }
+    public CryptocurrencyWalletManagerClient() {
+        this(new InetSocketAddress(HOST, PORT));
+    }
+
+    /**
+     * The server may be reached over TCP or, from the same host, over its Unix domain socket.
+     */
+    public CryptocurrencyWalletManagerClient(SocketAddress serverAddress) {
+        if (serverAddress == null) {
+            throw new IllegalArgumentException(
+                    "Parameter 'serverAddress' used to construct CryptocurrencyWalletManagerClient is null!");
+        }
 
-                printWriter.println(input);
+        this.serverAddress = serverAddress;
+        this.offerings = new OfferingsCache();
+    }
 
-                String reply;
-                while ((reply = bufferedReader.readLine()) != null) {
-                    if (reply.equals(STOP_WORD)) {
-                        break;
+    /**
+     * Once logged in the client keeps the session token the server returned. If the connection drops,
+     * it reconnects and resumes the session instead of asking for the password again. The offerings are
+     * cached, so repeated 'list-offerings' only fetch what changed.
+     */
+    public void start() {
+        try (Scanner scanner = new Scanner(System.in)) {
+            while (true) {
+                try {
+                    runConnection(scanner);
+                    return;
+                } catch (IOException e) {
+                    if (sessionToken == null || ++reconnectAttempts > MAX_RECONNECT_ATTEMPTS) {
+                        throw new RuntimeException("Some Network error occurred!", e);
                     }
-                    System.out.println(reply);
+
+                    System.out.println("Connection lost, resuming the session...");
+                    pauseBeforeReconnect();
                 }
             }
+        }
+    }
 
+    /**
+     * Sends the commands of a script file, or of piped standard input, through a pipeline window
+     * instead of waiting for each reply, and writes every result with its timing to the output.
+     */
+    public void runScript(ClientOptions options) {
+        try (BufferedReader script = openScript(options.getScript());
+             PrintWriter results = openOutput(options.getOutput());
+             AsyncWalletClient client = AsyncWalletClient.connect(serverAddress)) {
+
+            ScriptRunner.Summary summary = new ScriptRunner(client, options.getWindow()).run(script, results);
+            System.err.println(summary);
         } catch (IOException e) {
             throw new RuntimeException("Some Network error occurred!", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runConnection(Scanner scanner) throws IOException {
+        try (SocketChannel socketChannel = SocketChannel.open(serverAddress);
+             DataInputStream input = new DataInputStream(
+                     new BufferedInputStream(Channels.newInputStream(socketChannel)));
+             DataOutputStream output = new DataOutputStream(
+                     new BufferedOutputStream(Channels.newOutputStream(socketChannel)));
+             FrameDecompressor decompressor = new FrameDecompressor(FrameCodec.MAX_FRAME_SIZE)) {
+
+            FrameCodec.write(output, Frame.handshake(HANDSHAKE_REQUEST_ID, FrameCompressor.DEFLATE_OPTION));
+
+            if (sessionToken != null) {
+                resumeSession(input, output, decompressor);
+            }
+
+            while (true) {
+                String command = scanner.nextLine();
+
+                if (command.equalsIgnoreCase(EXIT_MESSAGE)) {
+                    return;
+                }
+
+                FrameCodec.write(output, Frame.of(nextRequestId++, offerings.toRequest(command)));
+                String reply = readReply(input, decompressor);
+
+                rememberSessionToken(command, reply);
+                System.out.println(offerings.onReply(command, reply));
+            }
         }
     }
+
+    private void resumeSession(DataInputStream input, DataOutputStream output, FrameDecompressor decompressor)
+            throws IOException {
+        FrameCodec.write(output, Frame.of(nextRequestId++, RESUME_COMMAND + sessionToken));
+        String reply = readReply(input, decompressor);
+
+        if (reply.startsWith(RESUMED_PREFIX)) {
+            reconnectAttempts = 0;
+        } else {
+            sessionToken = null;
+        }
+
+        System.out.println(reply);
+    }
+
+    private void rememberSessionToken(String command, String reply) {
+        if (command.strip().equalsIgnoreCase(LOGOUT_MESSAGE)) {
+            sessionToken = null;
+            return;
+        }
+
+        reply.lines()
+                .filter(line -> line.startsWith(SESSION_TOKEN_PREFIX))
+                .findFirst()
+                .ifPresent(line -> sessionToken = line.substring(SESSION_TOKEN_PREFIX.length()).strip());
+    }
+
+    private static BufferedReader openScript(String script) throws IOException {
+        if (script.equals(ClientOptions.STANDARD_STREAM)) {
+            return new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        }
+
+        return Files.newBufferedReader(Path.of(script), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Standard output is wrapped without being closed together with the results.
+     */
+    private static PrintWriter openOutput(String output) throws IOException {
+        if (output.equals(ClientOptions.STANDARD_STREAM)) {
+            return new PrintWriter(new OutputStreamWriter(new FilterOutputStream(System.out) {
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            }, StandardCharsets.UTF_8));
+        }
+
+        return new PrintWriter(Files.newBufferedWriter(Path.of(output), StandardCharsets.UTF_8));
+    }
+
+    private static void pauseBeforeReconnect() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Skips heartbeats and the handshake answer, prints the price updates pushed before the reply
+     * to the last command and inflates the reply if the server compressed it.
+     */
+    private static String readReply(DataInputStream input, FrameDecompressor decompressor) throws IOException {
+        Frame reply = FrameCodec.read(input, FrameCodec.MAX_FRAME_SIZE);
+
+        while (reply.isUnsolicited() || reply.hasFlag(Frame.FLAG_HANDSHAKE)) {
+            if (reply.isUnsolicited() && !reply.hasFlag(Frame.FLAG_HEARTBEAT)) {
+                System.out.println(decompressor.decompress(reply).payloadAsString());
+            }
+
+            reply = FrameCodec.read(input, FrameCodec.MAX_FRAME_SIZE);
+        }
+
+        return decompressor.decompress(reply).payloadAsString();
+    }
 }
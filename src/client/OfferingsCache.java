@@ -0,0 +1,121 @@
+package client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Client side copy of the offerings. Once a full list has been seen, {@code list-offerings} is sent as
+ * {@code list-offerings --since=<generation>} and the changes in the reply are merged into the copy, which
+ * is then shown as if the server had sent the full list. Only the lines are kept, so prices are shown
+ * exactly as the server formatted them. Not thread-safe.
+ */
+public class OfferingsCache {
+
+    private static final String LIST_COMMAND = "list-offerings";
+    private static final String SINCE_FLAG = " --since=";
+
+    private static final String FULL_LIST_HEADER = "All the latest offerings:";
+    private static final String CHANGES_HEADER = "Offerings changed since generation ";
+    private static final String NOT_MODIFIED_HEADER = "Offerings not modified since generation ";
+    private static final String REMOVED_PREFIX = "Removed: ";
+    private static final String GENERATION_PREFIX = "Generation: ";
+
+    private static final Pattern ASSET_ID = Pattern.compile(".* \\(([^()\\s]+)\\) — .*");
+    private static final long NO_GENERATION = -1;
+
+    private final Map<String, String> offerings;
+    private long generation;
+
+    public OfferingsCache() {
+        this.offerings = new LinkedHashMap<>();
+        this.generation = NO_GENERATION;
+    }
+
+    /**
+     * Returns the request to send for the command the user typed.
+     */
+    public String toRequest(String command) {
+        if (!isListCommand(command) || generation == NO_GENERATION) {
+            return command;
+        }
+
+        return LIST_COMMAND + SINCE_FLAG + generation;
+    }
+
+    /**
+     * Merges the reply to {@code command} into the copy and returns what to show the user: the full list
+     * for a list reply, anything else unchanged.
+     */
+    public String onReply(String command, String reply) {
+        if (!isListCommand(command)) {
+            return reply;
+        }
+
+        long replyGeneration = parseGeneration(reply);
+        if (replyGeneration == NO_GENERATION) {
+            return reply;
+        }
+
+        if (reply.startsWith(FULL_LIST_HEADER)) {
+            offerings.clear();
+            merge(reply);
+        } else if (reply.startsWith(CHANGES_HEADER)) {
+            merge(reply);
+        } else if (!reply.startsWith(NOT_MODIFIED_HEADER)) {
+            return reply;
+        }
+
+        generation = replyGeneration;
+        return render();
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public int size() {
+        return offerings.size();
+    }
+
+    private void merge(String reply) {
+        reply.lines().forEach(line -> {
+            Matcher asset = ASSET_ID.matcher(line);
+
+            if (line.startsWith(REMOVED_PREFIX)) {
+                offerings.remove(line.substring(REMOVED_PREFIX.length()).strip());
+            } else if (asset.matches()) {
+                offerings.put(asset.group(1), line);
+            }
+        });
+    }
+
+    private String render() {
+        StringBuilder list = new StringBuilder(FULL_LIST_HEADER).append(System.lineSeparator());
+
+        for (String line : offerings.values()) {
+            list.append(line).append(System.lineSeparator());
+        }
+
+        return list.append(GENERATION_PREFIX).append(generation).toString();
+    }
+
+    private static boolean isListCommand(String command) {
+        return command.strip().equals(LIST_COMMAND);
+    }
+
+    private static long parseGeneration(String reply) {
+        return reply.lines()
+                .filter(line -> line.startsWith(GENERATION_PREFIX))
+                .reduce((first, last) -> last)
+                .map(line -> {
+                    try {
+                        return Long.parseLong(line.substring(GENERATION_PREFIX.length()).strip());
+                    } catch (NumberFormatException e) {
+                        return NO_GENERATION;
+                    }
+                })
+                .orElse(NO_GENERATION);
+    }
+}
@@ -0,0 +1,13 @@
+package client;
+
+/**
+ * The server's reply to one command, matched to it by the request id of its frame.
+ */
+public record Response(long requestId, String message) {
+
+    public Response {
+        if (message == null) {
+            throw new IllegalArgumentException("Parameter 'message' used to construct Response is null!");
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package client;
+
+import command.ratelimit.RateLimiter;
+import command.type.CommandType;
+import server.limit.ConcurrencyLimiter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams the commands of a script, one per line, to the server without waiting for each reply.
+ * At most {@code window} commands are outstanding at a time. Blank lines and lines starting with '#' are skipped.
+ * <p>
+ * Results are written in script order as tab-separated lines: the script line number, the milliseconds
+ * from sending the command to its reply, the command and the reply with its line breaks escaped.
+ * <p>
+ * Once the server throttles or sheds a command, no new lines are sent until it and the commands still outstanding
+ * have been answered, the refused ones being sent again one at a time, in script order, after a doubling backoff
+ * of up to {@value #MAX_RETRIES} retries. A command still refused after that is reported as failed. Commands that
+ * were already outstanding may run before such a resend, so commands that change the session are sent alone:
+ * everything before them is answered first, and nothing after them is sent until they are accepted.
+ */
+public class ScriptRunner {
+
+    private static final String COMMENT_PREFIX = "#";
+    private static final String FAILURE_PREFIX = "ERROR: ";
+    private static final String RESULT_FORMAT = "%d\t%.3f\t%s\t%s";
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private static final int MAX_RETRIES = 6;
+    private static final long INITIAL_BACKOFF_MILLIS = 50;
+    private static final long MAX_BACKOFF_MILLIS = 2_000;
+    private static final Set<String> RETRYABLE_REPLIES =
+            Set.of(RateLimiter.SLOW_DOWN_MESSAGE, ConcurrencyLimiter.SERVER_BUSY_MESSAGE);
+
+    private final AsyncWalletClient client;
+    private final Semaphore window;
+    private int retried;
+
+    public ScriptRunner(AsyncWalletClient client, int window) {
+        validateObjectConstruction(client, window);
+
+        this.client = client;
+        this.window = new Semaphore(window);
+    }
+
+    /**
+     * Stops sending early if the connection is lost; the commands already sent are reported as failed.
+     */
+    public Summary run(BufferedReader script, PrintWriter results) throws IOException, InterruptedException {
+        Queue<Outstanding> outstanding = new ArrayDeque<>();
+        long startNanos = System.nanoTime();
+        int sent = 0;
+        int failed = 0;
+        int lineNumber = 0;
+
+        String line;
+        while ((line = script.readLine()) != null && client.isOpen()) {
+            lineNumber++;
+            String command = line.strip();
+
+            if (command.isEmpty() || command.startsWith(COMMENT_PREFIX)) {
+                continue;
+            }
+
+            boolean changesSession = changesSession(command);
+            if (changesSession) {
+                failed += settle(outstanding, results);
+            }
+
+            window.acquire();
+            outstanding.add(send(lineNumber, command));
+            sent++;
+
+            failed += changesSession ? settle(outstanding, results) : writeAnswered(outstanding, results);
+        }
+
+        failed += settle(outstanding, results);
+
+        results.flush();
+        return new Summary(sent, failed, retried, System.nanoTime() - startNanos);
+    }
+
+    private Outstanding send(int lineNumber, String command) {
+        CompletableFuture<Response> reply = client.send(command);
+        reply.whenComplete((response, failure) -> window.release());
+
+        return new Outstanding(lineNumber, command, System.nanoTime(), reply);
+    }
+
+    /**
+     * Writes the replies that arrived, in script order, up to the first one still missing. A refused reply
+     * settles everything outstanding before the caller sends anything else. Returns the number of failed commands.
+     */
+    private int writeAnswered(Queue<Outstanding> outstanding, PrintWriter results) throws InterruptedException {
+        int failed = 0;
+
+        while (!outstanding.isEmpty() && outstanding.peek().reply().isDone()) {
+            if (isRefused(outstanding.peek().reply())) {
+                return failed + settle(outstanding, results);
+            }
+
+            failed += write(complete(outstanding.poll()), results);
+        }
+
+        return failed;
+    }
+
+    /**
+     * Waits for every outstanding reply and writes them in script order, sending the refused commands again
+     * on the way. Returns the number of failed commands.
+     */
+    private int settle(Queue<Outstanding> outstanding, PrintWriter results) throws InterruptedException {
+        int failed = 0;
+
+        while (!outstanding.isEmpty()) {
+            failed += write(complete(outstanding.poll()), results);
+        }
+
+        return failed;
+    }
+
+    /**
+     * Waits for the reply and, while the server refuses the command, sends it again after a backoff.
+     */
+    private Result complete(Outstanding command) throws InterruptedException {
+        try {
+            Response response = command.reply().join();
+
+            for (int retries = 0; isRetryable(response) && retries < MAX_RETRIES && client.isOpen(); retries++) {
+                retried++;
+                Thread.sleep(Math.min(INITIAL_BACKOFF_MILLIS << retries, MAX_BACKOFF_MILLIS));
+                response = client.send(command.command()).join();
+            }
+
+            return new Result(command.lineNumber(), command.command(), System.nanoTime() - command.sentNanos(),
+                    response.message().strip(), isRetryable(response));
+        } catch (CompletionException e) {
+            return new Result(command.lineNumber(), command.command(), System.nanoTime() - command.sentNanos(),
+                    FAILURE_PREFIX + unwrap(e).getMessage(), true);
+        }
+    }
+
+    private static boolean changesSession(String command) {
+        CommandType type = CommandType.fromRequest(command);
+        return type != null && CommandType.changesSession(type);
+    }
+
+    private static boolean isRefused(CompletableFuture<Response> reply) {
+        return !reply.isCompletedExceptionally() && isRetryable(reply.join());
+    }
+
+    private static boolean isRetryable(Response response) {
+        return RETRYABLE_REPLIES.contains(response.message().strip());
+    }
+
+    /**
+     * Returns 1 if the command failed, 0 otherwise.
+     */
+    private static int write(Result result, PrintWriter results) {
+        results.println(String.format(Locale.ROOT, RESULT_FORMAT, result.lineNumber(),
+                result.elapsedNanos() / NANOS_PER_MILLI, result.command(), escape(result.reply())));
+
+        return result.failed() ? 1 : 0;
+    }
+
+    private static String escape(String reply) {
+        return reply.replace("\\", "\\\\")
+                .replace("\t", "\\t")
+                .replace("\r", "")
+                .replace("\n", "\\n");
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    private static void validateObjectConstruction(AsyncWalletClient client, int window) {
+        if (client == null) {
+            throw new IllegalArgumentException("Parameter 'client' used to construct ScriptRunner is null!");
+        }
+
+        if (window <= 0) {
+            throw new IllegalArgumentException("Parameter 'window' used to construct ScriptRunner should be positive!");
+        }
+    }
+
+    private record Outstanding(int lineNumber, String command, long sentNanos, CompletableFuture<Response> reply) {
+    }
+
+    private record Result(int lineNumber, String command, long elapsedNanos, String reply, boolean failed) {
+    }
+
+    public record Summary(int sent, int failed, int retried, long elapsedNanos) {
+
+        @Override
+        public String toString() {
+            double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+
+            return String.format("Sent %d commands in %.1fs (%.0f/s), %d failed, %d retries after throttling",
+                    sent, seconds, seconds > 0 ? sent / seconds : 0, failed, retried);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package command;
+
+import command.commands.CacheableCommand;
+import command.commands.Command;
+import command.type.CommandType;
+import exception.InvalidCommandException;
+import exception.RateLimitExceededException;
+import exception.UnauthenticatedException;
+import exception.UserAlreadyLoggedInException;
+import logger.Logger;
+import metrics.MetricsRegistry;
+import server.session.ClientContext;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class CommandDispatcher {
+
+    private final CommandFactory commandFactory;
+    private final ResponseCache responseCache;
+
+    private static final Logger LOGGER = Logger.getInstance();
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
+    public CommandDispatcher(CommandFactory commandFactory) {
+        validateObjectConstruction(commandFactory);
+
+        this.commandFactory = commandFactory;
+        this.responseCache = new ResponseCache();
+    }
+
+    public String dispatch(String clientRequest, ClientContext context) {
+        long startNanos = System.nanoTime();
+        String response = execute(clientRequest, context);
+
+        recordLatency(clientRequest, startNanos);
+        return response;
+    }
+
+    /**
+     * Like {@link #dispatch(String, ClientContext)} but returns the UTF-8 encoded response.
+     * Responses of cacheable commands are shared read-only buffers encoded once per generation.
+     */
+    public ByteBuffer dispatchEncoded(String clientRequest, ClientContext context) {
+        long startNanos = System.nanoTime();
+        ByteBuffer response = executeEncoded(clientRequest, context);
+
+        recordLatency(clientRequest, startNanos);
+        return response;
+    }
+
+    public CommandFactory getCommandFactory() {
+        return commandFactory;
+    }
+
+    private String execute(String clientRequest, ClientContext context) {
+        try {
+            Command commandToExecute = commandFactory.getCommand(clientRequest, context);
+            return commandToExecute.execute(commandFactory.getAssetCache());
+        } catch (Exception e) {
+            return toErrorResponse(e);
+        }
+    }
+
+    private ByteBuffer executeEncoded(String clientRequest, ClientContext context) {
+        try {
+            Command commandToExecute = commandFactory.getCommand(clientRequest, context);
+
+            if (commandToExecute instanceof CacheableCommand cacheable) {
+                return responseCache.get(CommandType.fromRequest(clientRequest), cacheable.getGeneration(),
+                        () -> commandToExecute.execute(commandFactory.getAssetCache()));
+            }
+
+            return encode(commandToExecute.execute(commandFactory.getAssetCache()));
+        } catch (Exception e) {
+            return encode(toErrorResponse(e));
+        }
+    }
+
+    private static String toErrorResponse(Exception e) {
+        if (e instanceof InvalidCommandException || e instanceof UnauthenticatedException
+                || e instanceof UserAlreadyLoggedInException || e instanceof RateLimitExceededException) {
+            return e.getMessage();
+        }
+
+        LOGGER.log(e, "Some server error occurred");
+        return e.toString();
+    }
+
+    private static void recordLatency(String clientRequest, long startNanos) {
+        CommandType commandType = CommandType.fromRequest(clientRequest);
+        if (commandType != null) {
+            METRICS.recordCommand(commandType, System.nanoTime() - startNanos);
+        }
+    }
+
+    private static ByteBuffer encode(String response) {
+        return ByteBuffer.wrap(response.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void validateObjectConstruction(CommandFactory commandFactory) {
+        if (commandFactory == null) {
+            throw new IllegalArgumentException("Parameter 'commandFactory' used to construct CommandDispatcher is null!");
+        }
+    }
+}
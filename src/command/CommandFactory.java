@@ -5,21 +5,32 @@ import command.commands.BuyCommand;
 import command.commands.Command;
 import command.commands.DepositCommand;
 import command.commands.HelpCommand;
+import command.commands.ListChangesCommand;
 import command.commands.ListCommand;
 import command.commands.LoginCommand;
 import command.commands.LogoutCommand;
 import command.commands.RegisterCommand;
+import command.commands.ResumeCommand;
 import command.commands.SellCommand;
+import command.commands.StatsCommand;
 import command.commands.SummaryCommand;
 import command.commands.SummaryOverallCommand;
+import command.commands.UnwatchCommand;
+import command.commands.WatchCommand;
+import command.ratelimit.RateLimiter;
 import command.type.CommandType;
 import exception.InvalidCommandException;
 import logger.Logger;
+import metrics.MetricsRegistry;
 import model.Asset;
 import repository.UserRepository;
 import server.session.ClientContext;
+import server.session.SessionRegistry;
+import server.subscription.SubscriptionHub;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 public class CommandFactory {
     private static final String DELIMITER = "\\s+";
@@ -28,6 +39,10 @@ public class CommandFactory {
     private static final String PASSWORD_FLAG = "--password=";
     private static final String ASSET_FLAG = "--offering=";
     private static final String MONEY_FLAG = "--money=";
+    private static final String TOKEN_FLAG = "--token=";
+    private static final String SINCE_FLAG = "--since=";
+
+    private static final long DEFAULT_SESSION_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
 
     private static final int COMMAND_INDEX = 0;
     private static final int USERNAME_INDEX = 1;
@@ -35,25 +50,68 @@ public class CommandFactory {
     private static final int DEPOSIT_AMOUNT_INDEX = 1;
     private static final int ASSET_ID_INDEX = 1;
     private static final int BUY_MONEY_AMOUNT_INDEX = 2;
+    private static final int TOKEN_INDEX = 1;
+    private static final int SINCE_INDEX = 1;
 
     private final UserRepository repository;
     private final AssetCache assetCache;
+    private final RateLimiter rateLimiter;
+    private final Set<String> adminEmails;
+    private final SubscriptionHub subscriptionHub;
+    private final SessionRegistry sessions;
 
     private static final Logger LOGGER = Logger.getInstance();
 
     public CommandFactory(UserRepository repository, AssetCache assetCache) {
-        validateObjectConstruction(repository, assetCache);
+        this(repository, assetCache, RateLimiter.unlimited());
+    }
+
+    public CommandFactory(UserRepository repository, AssetCache assetCache, RateLimiter rateLimiter) {
+        this(repository, assetCache, rateLimiter, Set.of());
+    }
+
+    /**
+     * Users whose email is among {@code adminEmails} may run the admin commands, e.g. 'stats'.
+     */
+    public CommandFactory(UserRepository repository, AssetCache assetCache, RateLimiter rateLimiter,
+                          Set<String> adminEmails) {
+        this(repository, assetCache, rateLimiter, adminEmails, new SessionRegistry(DEFAULT_SESSION_TTL_MILLIS));
+    }
+
+    /**
+     * Logins register resumable sessions in {@code sessions}; share it with the HTTP gateway
+     * so one token works for both.
+     */
+    public CommandFactory(UserRepository repository, AssetCache assetCache, RateLimiter rateLimiter,
+                          Set<String> adminEmails, SessionRegistry sessions) {
+        validateObjectConstruction(repository, assetCache, rateLimiter, adminEmails, sessions);
 
         this.repository = repository;
         this.assetCache = assetCache;
+        this.rateLimiter = rateLimiter;
+        this.adminEmails = Set.copyOf(adminEmails);
+        this.subscriptionHub = new SubscriptionHub();
+        this.sessions = sessions;
+
+        assetCache.addPriceListener(subscriptionHub);
     }
 
     public Command getCommand(String inputString, ClientContext context) {
-        validateInput(inputString);
         validateContext(context);
 
-        String[] input = parseInput(inputString);
-        return getCommandByString(input, context);
+        String[] input;
+        CommandType commandType;
+
+        try {
+            validateInput(inputString);
+            input = parseInput(inputString);
+            commandType = CommandType.findCommandType(input[COMMAND_INDEX]);
+        } catch (InvalidCommandException e) {
+            rateLimiter.acquireRejected(context);
+            throw e;
+        }
+
+        return getCommandByString(commandType, input, context);
     }
 
     public List<Asset> getCachedValues() {
@@ -64,26 +122,40 @@ public class CommandFactory {
         return assetCache;
     }
 
-    private String[] parseInput(String inputString) {
-        return inputString.strip().split(DELIMITER);
+    public UserRepository getUserRepository() {
+        return repository;
     }
 
-    private Command getCommandByString(String[] tokens, ClientContext context) {
+    public SubscriptionHub getSubscriptionHub() {
+        return subscriptionHub;
+    }
 
-        String commandString = tokens[COMMAND_INDEX].toLowerCase();
+    public SessionRegistry getSessionRegistry() {
+        return sessions;
+    }
 
-        Command toReturn = switch (commandString) {
-            case "register" -> createRegisterCommand(tokens);
-            case "login" -> createLoginCommand(tokens, context);
-            case "deposit" -> createDepositCommand(tokens, context);
-            case "list-offerings" -> createListOfferingsCommand();
-            case "buy" -> createBuyCommand(tokens, context);
-            case "sell" -> createSellCommand(tokens, context);
-            case "get-wallet-summary" -> createSummaryCommand(context);
-            case "get-wallet-overall-summary" -> createSummaryOverallCommand(context);
-            case "help" -> createHelpCommand();
-            case "logout" -> createLogoutCommand(context);
-            default -> throw new InvalidCommandException("No such command present!");
+    private String[] parseInput(String inputString) {
+        return inputString.strip().split(DELIMITER);
+    }
+
+    private Command getCommandByString(CommandType commandType, String[] tokens, ClientContext context) {
+        rateLimiter.acquire(commandType, context);
+
+        Command toReturn = switch (commandType) {
+            case REGISTER -> createRegisterCommand(tokens);
+            case LOGIN -> createLoginCommand(tokens, context);
+            case DEPOSIT -> createDepositCommand(tokens, context);
+            case LIST -> createListOfferingsCommand(tokens);
+            case BUY -> createBuyCommand(tokens, context);
+            case SELL -> createSellCommand(tokens, context);
+            case SUMMARY -> createSummaryCommand(context);
+            case SUMMARY_OVERALL -> createSummaryOverallCommand(context);
+            case HELP -> createHelpCommand();
+            case LOGOUT -> createLogoutCommand(context);
+            case STATS -> createStatsCommand(context);
+            case WATCH -> createWatchCommand(tokens, context);
+            case UNWATCH -> createUnwatchCommand(tokens, context);
+            case RESUME -> createResumeCommand(tokens, context);
         };
 
         return toReturn;
@@ -106,7 +178,7 @@ public class CommandFactory {
         String username = tokens[USERNAME_INDEX].replace(USERNAME_FLAG, "");
         String password = tokens[PASSWORD_INDEX].replace(PASSWORD_FLAG, "");
 
-        return new LoginCommand(repository, username, password, context);
+        return new LoginCommand(repository, username, password, context, sessions);
     }
 
     private static void validateCommandFlags(String[] tokens, String command) {
@@ -127,8 +199,20 @@ public class CommandFactory {
         return new DepositCommand(parseDoubleSafely(tokens[DEPOSIT_AMOUNT_INDEX]), context, repository);
     }
 
-    private Command createListOfferingsCommand() {
-        return new ListCommand(assetCache);
+    private Command createListOfferingsCommand(String[] tokens) {
+        if (tokens.length - 1 == CommandType.LIST.getNumArgs()) {
+            return new ListCommand(assetCache);
+        }
+
+        validateNumberOfArgs(tokens, CommandType.LIST.getNumArgs() + 1);
+
+        if (!tokens[SINCE_INDEX].startsWith(SINCE_FLAG)) {
+            throw new InvalidCommandException(
+                    String.format("To list the changed offerings, check command via 'help'! %s is expected!",
+                            SINCE_FLAG));
+        }
+
+        return new ListChangesCommand(assetCache, parseGeneration(tokens[SINCE_INDEX].replace(SINCE_FLAG, "")));
     }
 
     private Command createBuyCommand(String[] tokens, ClientContext context) {
@@ -175,7 +259,61 @@ public class CommandFactory {
     }
 
     private Command createLogoutCommand(ClientContext context) {
-        return new LogoutCommand(context);
+        return new LogoutCommand(context, sessions);
+    }
+
+    private Command createStatsCommand(ClientContext context) {
+        return new StatsCommand(context, MetricsRegistry.getInstance(), adminEmails);
+    }
+
+    private Command createWatchCommand(String[] tokens, ClientContext context) {
+        validateNumberOfArgs(tokens, CommandType.WATCH.getNumArgs());
+
+        return new WatchCommand(parseAssetFlag(tokens, "watch"), context, subscriptionHub, assetCache);
+    }
+
+    private Command createUnwatchCommand(String[] tokens, ClientContext context) {
+        validateNumberOfArgs(tokens, CommandType.UNWATCH.getNumArgs());
+
+        return new UnwatchCommand(parseAssetFlag(tokens, "unwatch"), context);
+    }
+
+    private Command createResumeCommand(String[] tokens, ClientContext context) {
+        validateNumberOfArgs(tokens, CommandType.RESUME.getNumArgs());
+
+        String token = tokens[TOKEN_INDEX].replace(TOKEN_FLAG, "");
+
+        if (!tokens[TOKEN_INDEX].startsWith(TOKEN_FLAG) || token.isBlank()) {
+            throw new InvalidCommandException(
+                    String.format("To resume a session, check command via 'help'! %s is expected!", TOKEN_FLAG));
+        }
+
+        return new ResumeCommand(token, context, sessions, repository);
+    }
+
+    private static String parseAssetFlag(String[] tokens, String command) {
+        String assetId = tokens[ASSET_ID_INDEX].replace(ASSET_FLAG, "");
+
+        if (!tokens[ASSET_ID_INDEX].contains(ASSET_FLAG) || assetId.isBlank()) {
+            throw new InvalidCommandException(
+                    String.format("To %s an asset, check command via 'help'! %s is expected!", command, ASSET_FLAG));
+        }
+
+        return assetId;
+    }
+
+    private long parseGeneration(String value) {
+        try {
+            long generation = Long.parseLong(value);
+
+            if (generation >= 0) {
+                return generation;
+            }
+        } catch (NumberFormatException e) {
+            LOGGER.log(e, "USER.INPUT.INVALID");
+        }
+
+        throw new InvalidCommandException("'" + value + "' is not a valid generation!");
     }
 
     private double parseDoubleSafely(String value) {
@@ -187,7 +325,9 @@ public class CommandFactory {
         }
     }
 
-    private static void validateObjectConstruction(UserRepository repository, AssetCache assetCache) {
+    private static void validateObjectConstruction(UserRepository repository, AssetCache assetCache,
+                                                   RateLimiter rateLimiter, Set<String> adminEmails,
+                                                   SessionRegistry sessions) {
         if (repository == null) {
             throw new IllegalArgumentException("Parameter 'repository' used to construct CommandFactory is null!");
         }
@@ -195,6 +335,18 @@ public class CommandFactory {
         if (assetCache == null) {
             throw new IllegalArgumentException("Parameter 'assetCache' used to construct CommandFactory is null!");
         }
+
+        if (rateLimiter == null) {
+            throw new IllegalArgumentException("Parameter 'rateLimiter' used to construct CommandFactory is null!");
+        }
+
+        if (adminEmails == null) {
+            throw new IllegalArgumentException("Parameter 'adminEmails' used to construct CommandFactory is null!");
+        }
+
+        if (sessions == null) {
+            throw new IllegalArgumentException("Parameter 'sessions' used to construct CommandFactory is null!");
+        }
     }
 
     private static void validateInput(String inputString) {
@@ -0,0 +1,55 @@
+package command;
+
+import command.type.CommandType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Encoded responses of cacheable commands, one per command type, each tagged with the generation
+ * it was rendered for. The payloads are read-only direct buffers; callers get their own duplicate,
+ * so any number of connections can write the same bytes concurrently.
+ */
+public class ResponseCache {
+
+    private final Map<CommandType, Entry> entries;
+
+    public ResponseCache() {
+        this.entries = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the cached payload of the generation, rendering and encoding it first if it is missing.
+     * Concurrent misses may render twice; the newest generation wins.
+     */
+    public ByteBuffer get(CommandType type, long generation, Supplier<String> renderer) {
+        Entry entry = entries.get(type);
+
+        if (entry == null || entry.generation() != generation) {
+            Entry rendered = new Entry(generation, encodeShared(renderer.get()));
+            entry = entries.merge(type, rendered,
+                    (current, fresh) -> fresh.generation() >= current.generation() ? fresh : current);
+        }
+
+        return entry.payload().duplicate();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static ByteBuffer encodeShared(String response) {
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+
+        return ByteBuffer.allocateDirect(bytes.length)
+                .put(bytes)
+                .flip()
+                .asReadOnlyBuffer();
+    }
+
+    private record Entry(long generation, ByteBuffer payload) {
+    }
+}
@@ -1,6 +1,6 @@
 package command.commands;
 
 public sealed interface AuthenticatedCommand extends Command permits BuyCommand, SellCommand,
-        DepositCommand, SummaryCommand, SummaryOverallCommand, LogoutCommand {
+        DepositCommand, SummaryCommand, SummaryOverallCommand, LogoutCommand, StatsCommand {
 
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package command.commands;
+
+/**
+ * A command whose response depends on nothing but a generation number, so the response
+ * can be rendered and encoded once per generation and shared by every client asking for it.
+ */
+public interface CacheableCommand {
+
+    long getGeneration();
+}
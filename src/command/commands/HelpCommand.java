@@ -1,6 +1,12 @@
 package command.commands;
 
-public final class HelpCommand implements PublicCommand {
+public final class HelpCommand implements PublicCommand, CacheableCommand {
+    private static final long HELP_GENERATION = 0;
+
+    @Override
+    public long getGeneration() {
+        return HELP_GENERATION;
+    }
 
     @Override
     public String execute() {
@@ -12,8 +18,11 @@ public final class HelpCommand implements PublicCommand {
         sb.append("[Public]").append(System.lineSeparator());
         sb.append("register --username=<user> --password=<pass> -> Register a new user").append(System.lineSeparator());
         sb.append("login --username=<user> --password=<pass>    -> Log into the system").append(System.lineSeparator());
-        sb.append("list-offerings                               -> Cryptocurrencies").append(System.lineSeparator());
+        sb.append("resume --token=<token>                       -> Resume a session").append(System.lineSeparator());
+        sb.append("list-offerings [--since=<generation>]        -> Cryptocurrencies").append(System.lineSeparator());
         sb.append("help                                         -> Show help message").append(System.lineSeparator());
+        sb.append("watch --offering=<code>                      -> Stream price changes").append(System.lineSeparator());
+        sb.append("unwatch --offering=<code>                    -> Stop price stream").append(System.lineSeparator());
 
         sb.append("[Authenticated]").append(System.lineSeparator());
         sb.append("deposit <amount>                             -> Add money wallet").append(System.lineSeparator());
@@ -23,6 +32,9 @@ public final class HelpCommand implements PublicCommand {
         sb.append("get-wallet-overall-summary                   -> View total profit").append(System.lineSeparator());
         sb.append("logout                                       -> Log out of system").append(System.lineSeparator());
 
+        sb.append("[Admin]").append(System.lineSeparator());
+        sb.append("stats                                        -> Server statistics").append(System.lineSeparator());
+
         return sb.toString();
     }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package command.commands;
+
+import api.AssetCache;
+import model.Asset;
+
+/**
+ * Answers {@code list-offerings --since=<generation>} with only the offerings that changed after the
+ * generation, or "not modified" when none did, so a client with a cached list does not fetch all of it
+ * on every refresh. A generation the cache has not reached yet, e.g. one from before a server restart,
+ * gets the full list.
+ * <p>
+ * Not a {@link CacheableCommand}: the reply depends on the generation the client asked about.
+ */
+public final class ListChangesCommand implements PublicCommand {
+    private static final String CHANGES_MESSAGE = "Offerings changed since generation %d:";
+    private static final String NOT_MODIFIED_MESSAGE = "Offerings not modified since generation %d.";
+    private static final String REMOVED_PREFIX = "Removed: ";
+
+    private final AssetCache assetCache;
+    private final long sinceGeneration;
+
+    public ListChangesCommand(AssetCache assetCache, long sinceGeneration) {
+        validateObjectConstruction(assetCache, sinceGeneration);
+
+        this.assetCache = assetCache;
+        this.sinceGeneration = sinceGeneration;
+    }
+
+    @Override
+    public String execute() {
+        AssetCache.Changes changes = assetCache.getChangesSince(sinceGeneration);
+
+        if (sinceGeneration > changes.generation()) {
+            return new ListCommand(assetCache).execute();
+        }
+
+        StringBuilder reply = new StringBuilder();
+
+        if (changes.isEmpty()) {
+            reply.append(String.format(NOT_MODIFIED_MESSAGE, sinceGeneration)).append(System.lineSeparator());
+            return reply.append(ListCommand.generationLine(changes.generation())).toString();
+        }
+
+        reply.append(String.format(CHANGES_MESSAGE, sinceGeneration)).append(System.lineSeparator());
+
+        for (Asset each : changes.changed()) {
+            reply.append(each.toString());
+        }
+
+        for (String assetId : changes.removed()) {
+            reply.append(REMOVED_PREFIX).append(assetId).append(System.lineSeparator());
+        }
+
+        return reply.append(ListCommand.generationLine(changes.generation())).toString();
+    }
+
+    private static void validateObjectConstruction(AssetCache assetCache, long sinceGeneration) {
+        if (assetCache == null) {
+            throw new IllegalArgumentException("Parameter 'assetCache' used to construct ListChangesCommand is null!");
+        }
+
+        if (sinceGeneration < 0) {
+            throw new IllegalArgumentException(
+                    "Parameter 'sinceGeneration' used to construct ListChangesCommand should not be negative!");
+        }
+    }
+}
@@ -5,8 +5,13 @@ import model.Asset;
 
 import java.util.List;
 
-public final class ListCommand implements PublicCommand {
+/**
+ * Lists every offering, followed by the generation of the cache it was read from; a client holding that
+ * generation can ask for the changes since with {@link ListChangesCommand}.
+ */
+public final class ListCommand implements PublicCommand, CacheableCommand {
     private static final String LIST_OFFERINGS_MESSAGE = "All the latest offerings:" + System.lineSeparator();
+    private static final String GENERATION_PREFIX = "Generation: ";
     private final AssetCache assetCache;
 
     public ListCommand(AssetCache assetCache) {
@@ -16,9 +21,15 @@ public final class ListCommand implements PublicCommand {
         this.assetCache = assetCache;
     }
 
+    @Override
+    public long getGeneration() {
+        return assetCache.getGeneration();
+    }
+
     @Override
     public String execute() {
 
+        long generation = assetCache.getGeneration();
         List<Asset> cached =  assetCache.getCachedValues();
 
         if (cached == null || cached.isEmpty()) {
@@ -32,7 +43,11 @@ public final class ListCommand implements PublicCommand {
             listOfferings.append(each.toString());
         }
 
-        return listOfferings.toString();
+        return listOfferings.append(generationLine(generation)).toString();
+    }
+
+    static String generationLine(long generation) {
+        return GENERATION_PREFIX + generation;
     }
 
     private static void validateObjectConstruction(AssetCache assetCache) {
@@ -4,6 +4,9 @@ import exception.InvalidCommandException;
 import model.User;
 import repository.UserRepository;
 import server.session.ClientContext;
+import server.session.Session;
+import server.session.SessionRegistry;
+import server.timer.MonotonicClock;
 
 public final class LoginCommand implements PublicCommand {
     private static final String EMAIL_REGEX = "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$";
@@ -11,14 +14,24 @@ public final class LoginCommand implements PublicCommand {
     private final String email;
     private final String password;
     private final ClientContext clientContext;
+    private final SessionRegistry sessions;
 
     public LoginCommand(UserRepository userRepository, String email, String password, ClientContext clientContext) {
+        this(userRepository, email, password, clientContext, null);
+    }
+
+    /**
+     * With a session registry a successful login also returns a token that 'resume' accepts after a reconnect.
+     */
+    public LoginCommand(UserRepository userRepository, String email, String password, ClientContext clientContext,
+                        SessionRegistry sessions) {
         validateObjectConstruction(userRepository, email, password, clientContext);
 
         this.userRepository = userRepository;
         this.email = email;
         this.password = password;
         this.clientContext = clientContext;
+        this.sessions = sessions;
     }
 
     private static void validateObjectConstruction(UserRepository userRepository, String email,
@@ -55,9 +68,26 @@ public final class LoginCommand implements PublicCommand {
 
         if (toLogin.checkPassword(password)) {
             clientContext.login(toLogin);
-            return "Login successful! Welcome, " + email;
+            return "Login successful! Welcome, " + email + createSession(toLogin);
         }
 
         return "Invalid password.";
     }
+
+    private String createSession(User loggedIn) {
+        if (sessions == null) {
+            return "";
+        }
+
+        // the session gets a login of its own, so it outlives this connection's logout on disconnect,
+        // but keeps being charged against the request bucket it logged in with
+        ClientContext sessionContext = clientContext.newSession();
+        sessionContext.login(loggedIn);
+
+        Session session = sessions.create(sessionContext, MonotonicClock.millis());
+        sessionContext.setSessionToken(session.getToken());
+        clientContext.setSessionToken(session.getToken());
+
+        return System.lineSeparator() + ResumeCommand.TOKEN_MESSAGE_PREFIX + session.getToken();
+    }
 }
@@ -2,17 +2,32 @@ package command.commands;
 
 import api.AssetCache;
 import server.session.ClientContext;
+import server.session.SessionRegistry;
 
 public final class LogoutCommand implements AuthenticatedCommand {
     private static final String LOGOUT_SUCCESS = "Logged out successfully!";
     private final ClientContext clientContext;
+    private final SessionRegistry sessions;
 
     public LogoutCommand(ClientContext context) {
+        this(context, null);
+    }
+
+    /**
+     * An explicit logout also ends the resumable session of the connection, if it has one.
+     */
+    public LogoutCommand(ClientContext context, SessionRegistry sessions) {
         this.clientContext = context;
+        this.sessions = sessions;
     }
 
     @Override
     public String execute(AssetCache cache) {
+        if (sessions != null && clientContext.getSessionToken() != null) {
+            sessions.invalidate(clientContext.getSessionToken());
+            clientContext.setSessionToken(null);
+        }
+
         clientContext.logout();
         return LOGOUT_SUCCESS;
     }
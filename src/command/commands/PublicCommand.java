@@ -2,7 +2,8 @@ package command.commands;
 
 import api.AssetCache;
 
-public sealed interface PublicCommand extends Command permits RegisterCommand, LoginCommand, HelpCommand, ListCommand {
+public sealed interface PublicCommand extends Command permits RegisterCommand, LoginCommand, HelpCommand, ListCommand,
+        ListChangesCommand, WatchCommand, UnwatchCommand, ResumeCommand {
 
     String execute();
 
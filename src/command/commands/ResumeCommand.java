@@ -0,0 +1,79 @@
+package command.commands;
+
+import model.User;
+import repository.UserRepository;
+import server.session.ClientContext;
+import server.session.Session;
+import server.session.SessionRegistry;
+import server.timer.MonotonicClock;
+
+/**
+ * Binds a resumable session to this connection, logging it in without verifying the password again.
+ */
+public final class ResumeCommand implements PublicCommand {
+    public static final String TOKEN_MESSAGE_PREFIX = "Session token: ";
+
+    private static final String RESUMED_MESSAGE = "Session resumed! Welcome back, %s";
+    private static final String UNKNOWN_SESSION_MESSAGE = "The session has expired or does not exist. Please log in!";
+
+    private final String token;
+    private final ClientContext clientContext;
+    private final SessionRegistry sessions;
+    private final UserRepository userRepository;
+
+    public ResumeCommand(String token, ClientContext clientContext, SessionRegistry sessions,
+                         UserRepository userRepository) {
+        validateObjectConstruction(token, clientContext, sessions, userRepository);
+
+        this.token = token;
+        this.clientContext = clientContext;
+        this.sessions = sessions;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public String execute() {
+        if (clientContext.isLoggedIn()) {
+            return "You are already logged in as " + clientContext.getLoggedInUser().email();
+        }
+
+        Session session = sessions.find(token, MonotonicClock.millis());
+
+        if (session == null) {
+            return UNKNOWN_SESSION_MESSAGE;
+        }
+
+        // a lookup by email, not a password check: the token already proves who the client is
+        User user = userRepository.findByEmail(session.getContext().getLoggedInUser().email());
+
+        if (user == null) {
+            sessions.invalidate(token);
+            return UNKNOWN_SESSION_MESSAGE;
+        }
+
+        clientContext.login(user);
+        clientContext.setSessionToken(token);
+
+        return String.format(RESUMED_MESSAGE, user.email());
+    }
+
+    private static void validateObjectConstruction(String token, ClientContext clientContext,
+                                                   SessionRegistry sessions, UserRepository userRepository) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("Parameter 'token' passed to construct ResumeCommand is invalid!");
+        }
+
+        if (clientContext == null) {
+            throw new IllegalArgumentException("Parameter 'clientContext' passed to construct ResumeCommand is null!");
+        }
+
+        if (sessions == null) {
+            throw new IllegalArgumentException("Parameter 'sessions' passed to construct ResumeCommand is null!");
+        }
+
+        if (userRepository == null) {
+            throw new IllegalArgumentException(
+                    "Parameter 'userRepository' passed to construct ResumeCommand is null!");
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package command.commands;
+
+import api.AssetCache;
+import exception.UnauthenticatedException;
+import metrics.MetricsRegistry;
+import server.session.ClientContext;
+
+import java.util.Set;
+
+public final class StatsCommand implements AuthenticatedCommand {
+    private final MetricsRegistry metrics;
+
+    public StatsCommand(ClientContext clientContext, MetricsRegistry metrics, Set<String> adminEmails) {
+        validateObjectConstruction(clientContext, metrics, adminEmails);
+
+        this.metrics = metrics;
+    }
+
+    private static void validateObjectConstruction(ClientContext clientContext, MetricsRegistry metrics,
+                                                   Set<String> adminEmails) {
+        if (clientContext == null) {
+            throw new IllegalArgumentException(
+                    "Parameter 'clientContext' passed to construct StatsCommand object is null!");
+        }
+
+        if (metrics == null) {
+            throw new IllegalArgumentException("Parameter 'metrics' passed to construct StatsCommand object is null!");
+        }
+
+        if (adminEmails == null) {
+            throw new IllegalArgumentException(
+                    "Parameter 'adminEmails' passed to construct StatsCommand object is null!");
+        }
+
+        if (!clientContext.isLoggedIn()) {
+            throw new UnauthenticatedException("No logged in user to view the server statistics");
+        }
+
+        if (!adminEmails.contains(clientContext.getLoggedInUser().email())) {
+            throw new UnauthenticatedException("Only administrators can view the server statistics");
+        }
+    }
+
+    @Override
+    public String execute(AssetCache cache) {
+        return metrics.report();
+    }
+}
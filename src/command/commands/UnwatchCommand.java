@@ -0,0 +1,40 @@
+package command.commands;
+
+import server.subscription.WatchList;
+import server.session.ClientContext;
+
+public final class UnwatchCommand implements PublicCommand {
+    private static final String NOT_WATCHING_MESSAGE = "You are not watching %s!";
+    private static final String UNWATCHED_MESSAGE = "Stopped watching %s.";
+
+    private final String assetId;
+    private final WatchList watchList;
+
+    public UnwatchCommand(String assetId, ClientContext clientContext) {
+        validateObjectConstruction(assetId, clientContext);
+
+        this.assetId = assetId.toUpperCase();
+        this.watchList = clientContext.getWatchList();
+    }
+
+    @Override
+    public String execute() {
+        if (!watchList.unwatch(assetId)) {
+            return String.format(NOT_WATCHING_MESSAGE, assetId);
+        }
+
+        return String.format(UNWATCHED_MESSAGE, assetId);
+    }
+
+    private static void validateObjectConstruction(String assetId, ClientContext clientContext) {
+        if (assetId == null || assetId.isBlank()) {
+            throw new IllegalArgumentException(
+                    "Parameter 'assetId' passed to construct UnwatchCommand object is invalid!");
+        }
+
+        if (clientContext == null || clientContext.getWatchList() == null) {
+            throw new IllegalArgumentException(
+                    "Parameter 'clientContext' passed to construct UnwatchCommand object is null!");
+        }
+    }
+}
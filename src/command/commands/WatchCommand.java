@@ -0,0 +1,65 @@
+package command.commands;
+
+import api.AssetCache;
+import server.subscription.SubscriptionHub;
+import server.subscription.WatchList;
+import server.session.ClientContext;
+
+public final class WatchCommand implements PublicCommand {
+    private static final String NO_PUSH_MESSAGE = "Watching prices needs a persistent connection to the server!";
+    private static final String NO_SUCH_ASSET_MESSAGE = "No such offering available: %s";
+    private static final String ALREADY_WATCHING_MESSAGE = "You are already watching %s!";
+    private static final String WATCHING_MESSAGE = "Watching %s. Price changes will be pushed to you.";
+
+    private final String assetId;
+    private final WatchList watchList;
+    private final SubscriptionHub hub;
+    private final AssetCache assetCache;
+
+    public WatchCommand(String assetId, ClientContext clientContext, SubscriptionHub hub, AssetCache assetCache) {
+        validateObjectConstruction(assetId, clientContext, hub, assetCache);
+
+        this.assetId = assetId.toUpperCase();
+        this.watchList = clientContext.getWatchList();
+        this.hub = hub;
+        this.assetCache = assetCache;
+    }
+
+    @Override
+    public String execute() {
+        if (!watchList.isPushSupported()) {
+            return NO_PUSH_MESSAGE;
+        }
+
+        if (!assetCache.containsAsset(assetId)) {
+            return String.format(NO_SUCH_ASSET_MESSAGE, assetId);
+        }
+
+        if (!watchList.watch(assetId, hub)) {
+            return String.format(ALREADY_WATCHING_MESSAGE, assetId);
+        }
+
+        return String.format(WATCHING_MESSAGE, assetId);
+    }
+
+    private static void validateObjectConstruction(String assetId, ClientContext clientContext,
+                                                   SubscriptionHub hub, AssetCache assetCache) {
+        if (assetId == null || assetId.isBlank()) {
+            throw new IllegalArgumentException("Parameter 'assetId' passed to construct WatchCommand object is invalid!");
+        }
+
+        if (clientContext == null || clientContext.getWatchList() == null) {
+            throw new IllegalArgumentException(
+                    "Parameter 'clientContext' passed to construct WatchCommand object is null!");
+        }
+
+        if (hub == null) {
+            throw new IllegalArgumentException("Parameter 'hub' passed to construct WatchCommand object is null!");
+        }
+
+        if (assetCache == null) {
+            throw new IllegalArgumentException(
+                    "Parameter 'assetCache' passed to construct WatchCommand object is null!");
+        }
+    }
+}
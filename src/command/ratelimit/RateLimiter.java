@@ -0,0 +1,136 @@
+package command.ratelimit;
+
+import command.type.CommandType;
+import exception.RateLimitExceededException;
+import server.session.ClientContext;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Charges every command against a token bucket of its connection and, once logged in, of its user,
+ * so a user can not get around the limit by opening more connections.
+ */
+public class RateLimiter {
+
+    public static final String SLOW_DOWN_MESSAGE = "Slow down! Too many requests, try again in a moment.";
+
+    private static final RateLimiter UNLIMITED = new RateLimiter();
+    private static final int REJECTED_COST = 1;
+
+    private final boolean enabled;
+    private final double tokensPerSecond;
+    private final int burst;
+    private final Map<CommandType, Integer> costs;
+    private final Map<String, TokenBucket> userBuckets;
+
+    public RateLimiter(double tokensPerSecond, int burst, Map<CommandType, Integer> costs) {
+        validateObjectConstruction(tokensPerSecond, burst, costs);
+
+        this.enabled = true;
+        this.tokensPerSecond = tokensPerSecond;
+        this.burst = burst;
+        this.costs = new EnumMap<>(CommandType.class);
+        this.costs.putAll(costs);
+        this.userBuckets = new ConcurrentHashMap<>();
+    }
+
+    private RateLimiter() {
+        this.enabled = false;
+        this.tokensPerSecond = 0;
+        this.burst = 0;
+        this.costs = Map.of();
+        this.userBuckets = Map.of();
+    }
+
+    public static RateLimiter unlimited() {
+        return UNLIMITED;
+    }
+
+    public int getCost(CommandType type) {
+        return costs.getOrDefault(type, type.getDefaultCost());
+    }
+
+    /**
+     * Throws {@link RateLimitExceededException} when the connection or the logged-in user is out of tokens.
+     */
+    public void acquire(CommandType type, ClientContext context) {
+        if (!enabled) {
+            return;
+        }
+
+        int cost = getCost(type);
+        long now = System.nanoTime();
+
+        TokenBucket connectionBucket = getConnectionBucket(context, now);
+        if (!connectionBucket.tryConsume(cost, now)) {
+            throw new RateLimitExceededException(SLOW_DOWN_MESSAGE);
+        }
+
+        if (!context.isLoggedIn()) {
+            return;
+        }
+
+        TokenBucket userBucket = userBuckets.computeIfAbsent(context.getLoggedInUser().email(),
+                email -> new TokenBucket(burst, tokensPerSecond, now));
+
+        if (!userBucket.tryConsume(cost, now)) {
+            connectionBucket.refund(cost);
+            throw new RateLimitExceededException(SLOW_DOWN_MESSAGE);
+        }
+    }
+
+    /**
+     * Charges a request that is rejected before its command is known, e.g. an unknown or blank one,
+     * against its connection, so flooding with garbage is limited like any other traffic.
+     */
+    public void acquireRejected(ClientContext context) {
+        if (!enabled) {
+            return;
+        }
+
+        long now = System.nanoTime();
+
+        if (!getConnectionBucket(context, now).tryConsume(REJECTED_COST, now)) {
+            throw new RateLimitExceededException(SLOW_DOWN_MESSAGE);
+        }
+    }
+
+    private TokenBucket getConnectionBucket(ClientContext context, long now) {
+        TokenBucket bucket = context.getRequestBucket();
+
+        if (bucket != null) {
+            return bucket;
+        }
+
+        TokenBucket created = new TokenBucket(burst, tokensPerSecond, now);
+        TokenBucket existing = context.putRequestBucketIfAbsent(created);
+
+        return existing != null ? existing : created;
+    }
+
+    private static void validateObjectConstruction(double tokensPerSecond, int burst,
+                                                   Map<CommandType, Integer> costs) {
+        if (tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate limit should be positive!");
+        }
+
+        if (burst <= 0) {
+            throw new IllegalArgumentException("Rate limit burst should be positive!");
+        }
+
+        if (costs == null) {
+            throw new IllegalArgumentException("Parameter 'costs' used to construct RateLimiter is null!");
+        }
+
+        for (CommandType type : CommandType.values()) {
+            int cost = costs.getOrDefault(type, type.getDefaultCost());
+
+            if (cost <= 0 || cost > burst) {
+                throw new IllegalArgumentException(
+                        String.format("Cost of '%s' should be between 1 and the burst %d!", type.getCommand(), burst));
+            }
+        }
+    }
+}
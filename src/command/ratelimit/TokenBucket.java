@@ -0,0 +1,67 @@
+package command.ratelimit;
+
+/**
+ * Holds up to {@code capacity} tokens and regains them at a constant rate.
+ * Time is passed in by the caller, so the bucket never reads a clock itself.
+ */
+public class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final double capacity;
+    private final double tokensPerNano;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(int capacity, double tokensPerSecond, long nowNanos) {
+        validateObjectConstruction(capacity, tokensPerSecond);
+
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / NANOS_PER_SECOND;
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    public synchronized boolean tryConsume(int cost, long nowNanos) {
+        refill(nowNanos);
+
+        if (tokens < cost) {
+            return false;
+        }
+
+        tokens -= cost;
+        return true;
+    }
+
+    /**
+     * Gives back tokens taken by a request that was rejected elsewhere.
+     */
+    public synchronized void refund(int cost) {
+        tokens = Math.min(capacity, tokens + cost);
+    }
+
+    public synchronized double getAvailableTokens(long nowNanos) {
+        refill(nowNanos);
+        return tokens;
+    }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - lastRefillNanos;
+
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+            lastRefillNanos = nowNanos;
+        }
+    }
+
+    private static void validateObjectConstruction(int capacity, double tokensPerSecond) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Token bucket capacity should be positive!");
+        }
+
+        if (tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("Token bucket refill rate should be positive!");
+        }
+    }
+}
@@ -1,24 +1,40 @@
 package command.type;
 
+import exception.InvalidCommandException;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 public enum CommandType {
 
-    REGISTER("register", 2),
-    LOGIN("login", 2),
-    DEPOSIT("deposit", 1),
-    LIST("list-offerings", 0),
-    BUY("buy", 2),
-    SELL("sell", 1),
-    SUMMARY("get-wallet-summary", 0),
-    SUMMARY_OVERALL("get-wallet-overall-summary", 0),
-    HELP("help", 0),
-    LOGOUT("logout", 0);
+    REGISTER("register", 2, 5),
+    LOGIN("login", 2, 5),
+    DEPOSIT("deposit", 1, 5),
+    LIST("list-offerings", 0, 1),
+    BUY("buy", 2, 5),
+    SELL("sell", 1, 5),
+    SUMMARY("get-wallet-summary", 0, 2),
+    SUMMARY_OVERALL("get-wallet-overall-summary", 0, 2),
+    HELP("help", 0, 1),
+    LOGOUT("logout", 0, 1),
+    STATS("stats", 0, 1),
+    WATCH("watch", 1, 1),
+    UNWATCH("unwatch", 1, 1),
+    RESUME("resume", 1, 2);
+
+    private static final Map<String, CommandType> BY_COMMAND = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(CommandType::getCommand, Function.identity()));
 
     private final String command;
     private final int numArgs;
+    private final int defaultCost;
 
-    private CommandType(String command, int numArgs) {
+    private CommandType(String command, int numArgs, int defaultCost) {
         this.command = command;
         this.numArgs = numArgs;
+        this.defaultCost = defaultCost;
     }
 
     public String getCommand() {
@@ -29,24 +45,75 @@ public enum CommandType {
         return numArgs;
     }
 
-    public CommandType findCommandType(String commandStr) {
+    /**
+     * Rate limiting tokens the command costs unless configured otherwise.
+     * Commands that rewrite the users file cost the most.
+     */
+    public int getDefaultCost() {
+        return defaultCost;
+    }
+
+    public static CommandType findCommandType(String commandStr) {
         if (commandStr == null || commandStr.isEmpty()) {
             throw new IllegalArgumentException("Argument command passed is invalid!");
         }
 
-        for (CommandType commandType : values()) {
-            if (getCommand().equalsIgnoreCase(commandStr)) {
-                return commandType;
-            }
+        CommandType commandType = BY_COMMAND.get(commandStr.toLowerCase());
+
+        if (commandType == null) {
+            throw new InvalidCommandException("No such command present!");
         }
 
-        throw new RuntimeException("No such command present!");
+        return commandType;
+    }
+
+    /**
+     * Resolves the type from the first word of a raw request, or returns null when it names no command.
+     */
+    public static CommandType fromRequest(String request) {
+        if (request == null) {
+            return null;
+        }
+
+        String[] tokens = request.strip().split("\\s+", 2);
+        return BY_COMMAND.get(tokens[0].toLowerCase());
+    }
+
+    /**
+     * Commands that may change a user and have to wait for the change to be written before they reply.
+     */
+    public static boolean modifiesUsers(CommandType type) {
+        return switch (type) {
+            case REGISTER, DEPOSIT, BUY, SELL -> true;
+            case LOGIN, LIST, HELP, WATCH, UNWATCH, RESUME, SUMMARY, SUMMARY_OVERALL, LOGOUT, STATS -> false;
+        };
+    }
+
+    /**
+     * Commands that change which user the session acts for, so the commands after them depend on their outcome.
+     */
+    public static boolean changesSession(CommandType type) {
+        return switch (type) {
+            case LOGIN, LOGOUT, RESUME -> true;
+            case REGISTER, DEPOSIT, LIST, BUY, SELL, SUMMARY, SUMMARY_OVERALL, HELP, STATS, WATCH, UNWATCH -> false;
+        };
     }
 
     public static boolean requiresAuthentication(CommandType type) {
         return switch (type) {
-            case REGISTER, LOGIN, LIST, HELP -> false;
-            case BUY, SELL, DEPOSIT, SUMMARY, SUMMARY_OVERALL, LOGOUT -> true;
+            case REGISTER, LOGIN, LIST, HELP, WATCH, UNWATCH, RESUME -> false;
+            case BUY, SELL, DEPOSIT, SUMMARY, SUMMARY_OVERALL, LOGOUT, STATS -> true;
+        };
+    }
+
+    /**
+     * Reports serialize whole wallets or the asset list and may wait behind trades under load.
+     */
+    public static PriorityClass priorityOf(CommandType type) {
+        return switch (type) {
+            case BUY, SELL -> PriorityClass.TRADE;
+            case REGISTER, LOGIN, DEPOSIT, LOGOUT, WATCH, UNWATCH, RESUME -> PriorityClass.STANDARD;
+            case LIST, SUMMARY, SUMMARY_OVERALL, HELP, STATS -> PriorityClass.REPORTING;
         };
     }
 }
@@ -0,0 +1,23 @@
+package command.type;
+
+/**
+ * Scheduling class of a command. While requests of several classes are waiting, each round of the execute
+ * stage serves up to {@code weight} requests of a class before moving on to the next one, so trades go first
+ * but reporting still gets a share and never starves.
+ */
+public enum PriorityClass {
+
+    TRADE(8),
+    STANDARD(4),
+    REPORTING(1);
+
+    private final int weight;
+
+    private PriorityClass(int weight) {
+        this.weight = weight;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+}
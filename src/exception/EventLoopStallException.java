@@ -0,0 +1,11 @@
+package exception;
+
+/**
+ * Not thrown: carries the stack of a selector thread caught blocking, so the stall is logged like an error.
+ */
+public final class EventLoopStallException extends RuntimeException {
+    public EventLoopStallException(String message, StackTraceElement[] stackTrace) {
+        super(message, null, false, true);
+        setStackTrace(stackTrace);
+    }
+}
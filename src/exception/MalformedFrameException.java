@@ -0,0 +1,11 @@
+package exception;
+
+public class MalformedFrameException extends RuntimeException {
+    public MalformedFrameException(String message) {
+        super(message);
+    }
+
+    public MalformedFrameException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
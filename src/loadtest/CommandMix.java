@@ -0,0 +1,129 @@
+package loadtest;
+
+import command.type.CommandType;
+import exception.InvalidCommandException;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.random.RandomGenerator;
+
+/**
+ * Weighted choice of the commands a logged-in synthetic user sends, given as
+ * {@code <command>:<weight>} pairs separated by commas, e.g. {@code buy:20,list-offerings:80}.
+ */
+public class CommandMix {
+
+    public static final String DEFAULT_MIX = "deposit:10,buy:20,sell:10,get-wallet-summary:20,"
+            + "get-wallet-overall-summary:10,list-offerings:30";
+
+    private static final String ENTRY_SEPARATOR = ",";
+    private static final String WEIGHT_SEPARATOR = ":";
+
+    private static final Set<CommandType> SUPPORTED_TYPES = Set.of(CommandType.DEPOSIT, CommandType.BUY,
+            CommandType.SELL, CommandType.SUMMARY, CommandType.SUMMARY_OVERALL, CommandType.LIST, CommandType.HELP);
+
+    private static final String DEPOSIT_AMOUNT = "5";
+    private static final String BUY_AMOUNT = "5";
+
+    private final CommandType[] types;
+    private final int[] cumulativeWeights;
+    private final List<String> assetIds;
+
+    private CommandMix(Map<CommandType, Integer> weights, List<String> assetIds) {
+        this.types = weights.keySet().toArray(new CommandType[0]);
+        this.cumulativeWeights = new int[types.length];
+        this.assetIds = List.copyOf(assetIds);
+
+        int total = 0;
+        for (int i = 0; i < types.length; i++) {
+            total += weights.get(types[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static CommandMix parse(String mix, List<String> assetIds) {
+        validateArguments(mix, assetIds);
+
+        Map<CommandType, Integer> weights = new EnumMap<>(CommandType.class);
+
+        for (String entry : mix.split(ENTRY_SEPARATOR)) {
+            String[] commandWeight = entry.strip().split(WEIGHT_SEPARATOR, 2);
+            CommandType type = parseType(commandWeight[0].strip());
+            int weight = commandWeight.length > 1 ? parseWeight(commandWeight[1].strip(), type) : 1;
+
+            weights.merge(type, weight, Integer::sum);
+        }
+
+        return new CommandMix(weights, assetIds);
+    }
+
+    public Set<CommandType> getCommandTypes() {
+        return Set.of(types);
+    }
+
+    public CommandType next(RandomGenerator random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+
+        for (int i = 0; i < types.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return types[i];
+            }
+        }
+
+        return types[types.length - 1];
+    }
+
+    public String toRequest(CommandType type, RandomGenerator random) {
+        return switch (type) {
+            case DEPOSIT -> type.getCommand() + " " + DEPOSIT_AMOUNT;
+            case BUY -> type.getCommand() + " --offering=" + randomAsset(random) + " --money=" + BUY_AMOUNT;
+            case SELL -> type.getCommand() + " --offering=" + randomAsset(random);
+            default -> type.getCommand();
+        };
+    }
+
+    private String randomAsset(RandomGenerator random) {
+        return assetIds.get(random.nextInt(assetIds.size()));
+    }
+
+    private static CommandType parseType(String command) {
+        try {
+            CommandType type = CommandType.findCommandType(command);
+
+            if (!SUPPORTED_TYPES.contains(type)) {
+                throw new IllegalArgumentException(
+                        String.format("Command '%s' can not be part of the load mix!", command));
+            }
+
+            return type;
+        } catch (InvalidCommandException e) {
+            throw new IllegalArgumentException(String.format("Unknown command '%s' in the load mix!", command), e);
+        }
+    }
+
+    private static int parseWeight(String weight, CommandType type) {
+        try {
+            int parsed = Integer.parseInt(weight);
+            if (parsed <= 0) {
+                throw new IllegalArgumentException(
+                        String.format("Weight of '%s' should be positive!", type.getCommand()));
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    String.format("Weight of '%s' expects a number, got '%s'", type.getCommand(), weight), e);
+        }
+    }
+
+    private static void validateArguments(String mix, List<String> assetIds) {
+        if (mix == null || mix.isBlank()) {
+            throw new IllegalArgumentException("Parameter 'mix' passed to CommandMix is null or blank!");
+        }
+
+        if (assetIds == null || assetIds.isEmpty()) {
+            throw new IllegalArgumentException("Parameter 'assetIds' passed to CommandMix is null or empty!");
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package loadtest;
+
+import api.ApiCall;
+import exception.AssetNotFoundException;
+import model.Asset;
+import util.GsonProvider;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * Serves a fixed list of synthetic assets from memory, so that a server under load never calls CoinAPI.
+ */
+public class FakeApiCall extends ApiCall {
+
+    private static final String FAKE_API_KEY = "load-test";
+    private static final URI FAKE_URI = URI.create("http://localhost/v1/assets");
+    private static final int HTTP_OK = 200;
+
+    private static final String ASSET_ID_PREFIX = "LT";
+    private static final String ASSET_NAME_PREFIX = "Load Test Asset ";
+    private static final int IS_CRYPTO = 1;
+    private static final long PRICE_SEED = 42;
+    private static final double MAX_PRICE = 1_000;
+
+    private final List<Asset> assets;
+
+    public FakeApiCall(int assetCount) {
+        super(FAKE_API_KEY, HttpClient.newHttpClient());
+        validateObjectConstruction(assetCount);
+
+        this.assets = createAssets(assetCount);
+    }
+
+    @Override
+    public HttpResponse<String> fetchAll() {
+        return new FakeResponse(GsonProvider.getGson().toJson(assets));
+    }
+
+    @Override
+    public HttpResponse<String> fetchByID(String assetID) {
+        Asset asset = assets.stream()
+                .filter(candidate -> candidate.id().equalsIgnoreCase(assetID))
+                .findFirst()
+                .orElseThrow(() -> new AssetNotFoundException("The requested asset was not found."));
+
+        return new FakeResponse(GsonProvider.getGson().toJson(List.of(asset)));
+    }
+
+    public List<String> getAssetIds() {
+        return assets.stream()
+                .map(Asset::id)
+                .toList();
+    }
+
+    private static List<Asset> createAssets(int assetCount) {
+        Random random = new Random(PRICE_SEED);
+        List<Asset> assets = new ArrayList<>(assetCount);
+
+        for (int i = 1; i <= assetCount; i++) {
+            double price = Math.round((1 + random.nextDouble() * MAX_PRICE) * 100) / 100.0;
+            assets.add(new Asset(ASSET_ID_PREFIX + i, ASSET_NAME_PREFIX + i, IS_CRYPTO, price));
+        }
+
+        return List.copyOf(assets);
+    }
+
+    private static void validateObjectConstruction(int assetCount) {
+        if (assetCount <= 0) {
+            throw new IllegalArgumentException("Parameter 'assetCount' used to construct FakeApiCall should be positive!");
+        }
+    }
+
+    private record FakeResponse(String body) implements HttpResponse<String> {
+
+        @Override
+        public int statusCode() {
+            return HTTP_OK;
+        }
+
+        @Override
+        public HttpRequest request() {
+            return HttpRequest.newBuilder(FAKE_URI).GET().build();
+        }
+
+        @Override
+        public Optional<HttpResponse<String>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return HttpHeaders.of(Map.of(), (name, value) -> true);
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return FAKE_URI;
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package loadtest;
+
+import protocol.Frame;
+import protocol.FrameCodec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Blocking connection of one synthetic user. Writes come from a single thread and so do reads,
+ * which in open-loop mode are two different threads.
+ */
+class LoadConnection implements AutoCloseable {
+
+    private final SocketChannel socketChannel;
+    private final DataInputStream input;
+    private final DataOutputStream output;
+
+    private long nextRequestId = 1;
+
+    LoadConnection(InetSocketAddress address) throws IOException {
+        this.socketChannel = SocketChannel.open(address);
+        this.input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(socketChannel)));
+        this.output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(socketChannel)));
+    }
+
+    long nextRequestId() {
+        return nextRequestId++;
+    }
+
+    void send(long requestId, String request) throws IOException {
+        FrameCodec.write(output, Frame.of(requestId, request));
+    }
+
+    /**
+     * Skips heartbeats and pushed price updates, which the load generator does not ask for.
+     */
+    Frame readReply() throws IOException {
+        Frame reply = FrameCodec.read(input, FrameCodec.MAX_FRAME_SIZE);
+
+        while (reply.isUnsolicited()) {
+            reply = FrameCodec.read(input, FrameCodec.MAX_FRAME_SIZE);
+        }
+
+        return reply;
+    }
+
+    String call(String request) throws IOException {
+        send(nextRequestId(), request);
+        return readReply().payloadAsString();
+    }
+
+    @Override
+    public void close() {
+        try {
+            socketChannel.close();
+        } catch (IOException e) {
+            // the server already closed the connection
+        }
+    }
+}
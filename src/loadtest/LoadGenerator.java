@@ -0,0 +1,282 @@
+package loadtest;
+
+import command.ratelimit.RateLimiter;
+import command.type.CommandType;
+import protocol.Frame;
+import server.limit.ConcurrencyLimiter;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a server with many synthetic users, each on its own connection served by a virtual thread.
+ * Every user registers, logs in and deposits enough to keep buying, then all of them start together,
+ * run through the warmup and are measured for the configured duration.
+ * <p>
+ * Latencies are corrected for coordinated omission. In open-loop mode a request is timed from the moment
+ * the schedule meant to send it, so a stalled server is charged for the requests queued behind the stall.
+ * A paced closed-loop run back-fills the requests a stalled connection skipped. An unpaced closed-loop run
+ * has no schedule to omit from, so its latencies are plain service times.
+ */
+public class LoadGenerator {
+
+    private static final String EMAIL_FORMAT = "load-%d-%d@loadtest.com";
+    private static final String PASSWORD = "load-test-password";
+    private static final String INITIAL_DEPOSIT = "1000000";
+    private static final String LOGIN_SUCCESS_PREFIX = "Login successful!";
+
+    private static final long SETUP_RETRY_MILLIS = 50;
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final LoadOptions options;
+    private final CommandMix mix;
+    private final InetSocketAddress address;
+    private final long runId;
+
+    private volatile Schedule schedule;
+
+    public LoadGenerator(LoadOptions options, CommandMix mix) {
+        validateObjectConstruction(options, mix);
+
+        this.options = options;
+        this.mix = mix;
+        this.address = new InetSocketAddress(options.getHost(), options.getPort());
+        this.runId = System.currentTimeMillis();
+    }
+
+    public LoadStatistics run() throws InterruptedException {
+        int connections = options.getConnections();
+        LoadStatistics statistics = new LoadStatistics(mix.getCommandTypes());
+        CountDownLatch ready = new CountDownLatch(connections);
+        CountDownLatch started = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < connections; i++) {
+                int userIndex = i;
+                executor.submit(() -> runUser(userIndex, statistics, ready, started));
+            }
+
+            ready.await();
+
+            long startNanos = System.nanoTime();
+            long measureFromNanos = startNanos + options.getWarmupNanos();
+            schedule = new Schedule(startNanos, measureFromNanos, measureFromNanos + options.getDurationNanos(),
+                    requestIntervalNanos());
+            started.countDown();
+        }
+
+        return statistics;
+    }
+
+    public double getMeasuredSeconds() {
+        return options.getDurationNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * Each connection sends its share of the total rate, or 0 when the run is not paced.
+     */
+    private long requestIntervalNanos() {
+        int rate = options.getRate();
+        return rate == 0 ? 0 : TimeUnit.SECONDS.toNanos(options.getConnections()) / rate;
+    }
+
+    private void runUser(int userIndex, LoadStatistics statistics, CountDownLatch ready, CountDownLatch started) {
+        try (LoadConnection connection = setUp(userIndex, statistics, ready)) {
+            started.await();
+
+            if (connection == null) {
+                return;
+            }
+
+            if (options.getMode() == LoadMode.OPEN) {
+                runOpenLoop(connection, statistics);
+            } else {
+                runClosedLoop(connection, statistics);
+            }
+        } catch (IOException e) {
+            statistics.recordFailedConnection();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns null when the user could not be set up; the start signal is released either way.
+     */
+    private LoadConnection setUp(int userIndex, LoadStatistics statistics, CountDownLatch ready) {
+        LoadConnection connection = null;
+
+        try {
+            connection = new LoadConnection(address);
+            String email = String.format(EMAIL_FORMAT, runId, userIndex);
+
+            callUntilAccepted(connection, "register --username=" + email + " --password=" + PASSWORD);
+            String login = callUntilAccepted(connection, "login --username=" + email + " --password=" + PASSWORD);
+            callUntilAccepted(connection, "deposit " + INITIAL_DEPOSIT);
+
+            if (!login.startsWith(LOGIN_SUCCESS_PREFIX)) {
+                throw new IOException("Could not log in as " + email + ": " + login);
+            }
+
+            return connection;
+        } catch (IOException e) {
+            if (connection != null) {
+                connection.close();
+            }
+            statistics.recordFailedConnection();
+            return null;
+        } finally {
+            ready.countDown();
+        }
+    }
+
+    private void runClosedLoop(LoadConnection connection, LoadStatistics statistics) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Schedule schedule = this.schedule;
+        long nextSendNanos = schedule.startNanos() + staggerNanos(random, schedule);
+
+        while (true) {
+            if (schedule.intervalNanos() > 0) {
+                sleepUntil(nextSendNanos);
+            }
+
+            long sendNanos = System.nanoTime();
+            if (sendNanos >= schedule.endNanos()) {
+                return;
+            }
+
+            CommandType type = mix.next(random);
+            String reply = connection.call(mix.toRequest(type, random));
+
+            if (schedule.isMeasured(sendNanos)) {
+                record(statistics, type, reply, System.nanoTime() - sendNanos, schedule.intervalNanos());
+            }
+
+            // requests missed while stalled are not sent in a burst, the histogram back-fills them instead
+            nextSendNanos = Math.max(nextSendNanos + schedule.intervalNanos(), System.nanoTime());
+        }
+    }
+
+    private void runOpenLoop(LoadConnection connection, LoadStatistics statistics) throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Schedule schedule = this.schedule;
+        Map<Long, PendingRequest> pending = new ConcurrentHashMap<>();
+        Thread reader = Thread.ofVirtual().start(() -> readReplies(connection, pending, statistics, schedule));
+
+        try {
+            for (long intendedNanos = schedule.startNanos() + staggerNanos(random, schedule);
+                 intendedNanos < schedule.endNanos() && reader.isAlive();
+                 intendedNanos += schedule.intervalNanos()) {
+
+                sleepUntil(intendedNanos);
+
+                CommandType type = mix.next(random);
+                long requestId = connection.nextRequestId();
+                pending.put(requestId, new PendingRequest(type, intendedNanos));
+                connection.send(requestId, mix.toRequest(type, random));
+            }
+
+            awaitReplies(pending, reader);
+        } catch (IOException e) {
+            statistics.recordFailedConnection();
+        } finally {
+            statistics.recordUnanswered(pending.size());
+            connection.close();
+            reader.join();
+        }
+    }
+
+    private void readReplies(LoadConnection connection, Map<Long, PendingRequest> pending,
+                             LoadStatistics statistics, Schedule schedule) {
+        try {
+            while (true) {
+                Frame reply = connection.readReply();
+                long receivedNanos = System.nanoTime();
+                PendingRequest request = pending.remove(reply.requestId());
+
+                if (request != null && schedule.isMeasured(request.intendedNanos())) {
+                    record(statistics, request.type(), reply.payloadAsString(),
+                            receivedNanos - request.intendedNanos(), 0);
+                }
+            }
+        } catch (IOException e) {
+            // closed once the run is over, or by the server
+        }
+    }
+
+    private static void awaitReplies(Map<Long, PendingRequest> pending, Thread reader) {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+
+        while (!pending.isEmpty() && reader.isAlive() && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private static void record(LoadStatistics statistics, CommandType type, String reply, long latencyNanos,
+                               long expectedIntervalNanos) {
+        if (isRejection(reply)) {
+            statistics.recordRejection(type);
+        } else {
+            statistics.recordLatency(type, latencyNanos, expectedIntervalNanos);
+        }
+    }
+
+    private static String callUntilAccepted(LoadConnection connection, String request) throws IOException {
+        String reply = connection.call(request);
+
+        while (isRejection(reply)) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(SETUP_RETRY_MILLIS));
+            reply = connection.call(request);
+        }
+
+        return reply;
+    }
+
+    private static boolean isRejection(String reply) {
+        return reply.equals(ConcurrencyLimiter.SERVER_BUSY_MESSAGE) || reply.equals(RateLimiter.SLOW_DOWN_MESSAGE);
+    }
+
+    /**
+     * Spreads the first requests of the connections over one interval instead of sending them all at once.
+     */
+    private static long staggerNanos(ThreadLocalRandom random, Schedule schedule) {
+        return schedule.intervalNanos() > 0 ? random.nextLong(schedule.intervalNanos()) : 0;
+    }
+
+    private static void sleepUntil(long deadlineNanos) {
+        long remaining = deadlineNanos - System.nanoTime();
+
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            remaining = deadlineNanos - System.nanoTime();
+        }
+    }
+
+    private static void validateObjectConstruction(LoadOptions options, CommandMix mix) {
+        if (options == null) {
+            throw new IllegalArgumentException("Parameter 'options' used to construct LoadGenerator is null!");
+        }
+
+        if (mix == null) {
+            throw new IllegalArgumentException("Parameter 'mix' used to construct LoadGenerator is null!");
+        }
+    }
+
+    private record Schedule(long startNanos, long measureFromNanos, long endNanos, long intervalNanos) {
+
+        boolean isMeasured(long nanos) {
+            return nanos >= measureFromNanos && nanos < endNanos;
+        }
+    }
+
+    private record PendingRequest(CommandType type, long intendedNanos) {
+    }
+}
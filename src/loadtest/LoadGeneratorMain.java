@@ -0,0 +1,90 @@
+package loadtest;
+
+import api.AssetCache;
+import command.CommandFactory;
+import command.ratelimit.RateLimiter;
+import repository.UserRepository;
+import server.CryptoServerMain;
+import server.ServerEngine;
+import server.config.ServerOptions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the load generator, by default against a server started in this JVM with the engine and tuning
+ * options passed on the command line, e.g. {@code --engine=virtual --connections=2000 --mode=open --rate=20000}.
+ * The in-process server is backed by a {@link FakeApiCall}, does not rate limit and its users file is
+ * deleted afterwards. With {@code --in-process=false} an already running server is targeted instead.
+ */
+public class LoadGeneratorMain {
+
+    private static final String USERS_FILE = "loadTestUsers";
+    private static final String SERVER_THREAD_NAME = "load-test-server";
+    private static final long SERVER_START_TIMEOUT_MILLIS = 10_000;
+    private static final long SERVER_START_POLL_MILLIS = 50;
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+
+        if (!options.isInProcess()) {
+            runAndReport(options, CommandMix.parse(options.getMix(), options.getOfferings()));
+            return;
+        }
+
+        FakeApiCall apiCall = new FakeApiCall(options.getAssetCount());
+        UserRepository repository = new UserRepository(USERS_FILE, true);
+
+        try (AssetCache cache = new AssetCache(apiCall)) {
+            CommandFactory factory = new CommandFactory(repository, cache, RateLimiter.unlimited(), Set.of());
+            ServerEngine server = CryptoServerMain.createEngine(factory, ServerOptions.parse(args));
+            Thread serverThread = new Thread(server::start, SERVER_THREAD_NAME);
+
+            serverThread.start();
+            try {
+                awaitServer(options);
+                runAndReport(options, CommandMix.parse(options.getMix(), apiCall.getAssetIds()));
+            } finally {
+                server.stop();
+                serverThread.join();
+            }
+        } finally {
+            Files.deleteIfExists(repository.getFilePath());
+        }
+    }
+
+    private static void runAndReport(LoadOptions options, CommandMix mix) throws InterruptedException {
+        System.out.printf("Running %s-loop load with %d connections for %ds after a %ds warmup%n",
+                options.getMode().getOption(), options.getConnections(),
+                TimeUnit.NANOSECONDS.toSeconds(options.getDurationNanos()),
+                TimeUnit.NANOSECONDS.toSeconds(options.getWarmupNanos()));
+
+        LoadGenerator generator = new LoadGenerator(options, mix);
+        LoadStatistics statistics = generator.run();
+
+        System.out.print(statistics.report(generator.getMeasuredSeconds()));
+    }
+
+    private static void awaitServer(LoadOptions options) throws InterruptedException {
+        InetSocketAddress address = new InetSocketAddress(options.getHost(), options.getPort());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SERVER_START_TIMEOUT_MILLIS);
+
+        while (true) {
+            try {
+                SocketChannel.open(address).close();
+                return;
+            } catch (IOException e) {
+                if (System.nanoTime() >= deadline) {
+                    throw new UncheckedIOException("The in-process server did not start in time", e);
+                }
+
+                Thread.sleep(SERVER_START_POLL_MILLIS);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package loadtest;
+
+public enum LoadMode {
+
+    /**
+     * Every connection sends its next request only after the previous reply arrived.
+     */
+    CLOSED("closed"),
+
+    /**
+     * Requests are sent at a fixed arrival rate whether or not earlier ones were answered.
+     */
+    OPEN("open");
+
+    private final String option;
+
+    private LoadMode(String option) {
+        this.option = option;
+    }
+
+    public String getOption() {
+        return option;
+    }
+
+    public static LoadMode fromOption(String option) {
+        for (LoadMode mode : values()) {
+            if (mode.option.equalsIgnoreCase(option)) {
+                return mode;
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("Unknown load mode '%s'! Expected closed or open", option));
+    }
+}
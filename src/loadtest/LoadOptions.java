@@ -0,0 +1,164 @@
+package loadtest;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load generator settings given as {@code --<option>=<value>} arguments.
+ * Unknown options are ignored so the same arguments can configure the in-process server as well.
+ */
+public final class LoadOptions {
+    private static final String FLAG_PREFIX = "--";
+    private static final String VALUE_SEPARATOR = "=";
+
+    private static final String CONNECTIONS_FLAG = "connections";
+    private static final String DURATION_FLAG = "duration";
+    private static final String WARMUP_FLAG = "warmup";
+    private static final String MODE_FLAG = "mode";
+    private static final String RATE_FLAG = "rate";
+    private static final String MIX_FLAG = "mix";
+    private static final String ASSETS_FLAG = "assets";
+    private static final String HOST_FLAG = "host";
+    private static final String PORT_FLAG = "port";
+    private static final String IN_PROCESS_FLAG = "in-process";
+    private static final String OFFERINGS_FLAG = "offerings";
+    private static final String OFFERINGS_SEPARATOR = ",";
+
+    private static final int DEFAULT_CONNECTIONS = 100;
+    private static final int DEFAULT_DURATION_SECONDS = 30;
+    private static final int DEFAULT_WARMUP_SECONDS = 5;
+    private static final int DEFAULT_RATE = 0;
+    private static final int DEFAULT_ASSETS = 20;
+    private static final String DEFAULT_HOST = "localhost";
+    private static final int DEFAULT_PORT = 7777;
+    private static final String DEFAULT_OFFERINGS = "BTC,ETH";
+
+    private final Map<String, String> options;
+
+    private LoadOptions(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static LoadOptions defaults() {
+        return new LoadOptions(new HashMap<>());
+    }
+
+    public static LoadOptions parse(String[] args) {
+        Map<String, String> parsed = new HashMap<>();
+
+        if (args == null) {
+            return new LoadOptions(parsed);
+        }
+
+        for (String arg : args) {
+            validateArgument(arg);
+
+            String[] keyValue = arg.substring(FLAG_PREFIX.length()).split(VALUE_SEPARATOR, 2);
+            parsed.put(keyValue[0].toLowerCase(), keyValue.length > 1 ? keyValue[1] : "");
+        }
+
+        LoadOptions options = new LoadOptions(parsed);
+        options.validate();
+
+        return options;
+    }
+
+    public int getConnections() {
+        return getPositiveInt(CONNECTIONS_FLAG, DEFAULT_CONNECTIONS);
+    }
+
+    public long getDurationNanos() {
+        return getPositiveInt(DURATION_FLAG, DEFAULT_DURATION_SECONDS) * 1_000_000_000L;
+    }
+
+    public long getWarmupNanos() {
+        return getNonNegativeInt(WARMUP_FLAG, DEFAULT_WARMUP_SECONDS) * 1_000_000_000L;
+    }
+
+    public LoadMode getMode() {
+        return LoadMode.fromOption(options.getOrDefault(MODE_FLAG, LoadMode.CLOSED.getOption()));
+    }
+
+    /**
+     * Total requests per second over all connections. In closed-loop mode it is optional and only paces
+     * the connections; 0 sends the next request as soon as the previous reply arrives.
+     */
+    public int getRate() {
+        return getNonNegativeInt(RATE_FLAG, DEFAULT_RATE);
+    }
+
+    public String getMix() {
+        return options.getOrDefault(MIX_FLAG, CommandMix.DEFAULT_MIX);
+    }
+
+    public int getAssetCount() {
+        return getPositiveInt(ASSETS_FLAG, DEFAULT_ASSETS);
+    }
+
+    public String getHost() {
+        return options.getOrDefault(HOST_FLAG, DEFAULT_HOST);
+    }
+
+    public int getPort() {
+        return getPositiveInt(PORT_FLAG, DEFAULT_PORT);
+    }
+
+    /**
+     * By default the generator starts the server itself, backed by a {@link FakeApiCall}.
+     */
+    public boolean isInProcess() {
+        return Boolean.parseBoolean(options.getOrDefault(IN_PROCESS_FLAG, Boolean.TRUE.toString()));
+    }
+
+    /**
+     * Assets bought and sold against an external server; the in-process server uses its synthetic ones.
+     */
+    public List<String> getOfferings() {
+        return Arrays.stream(options.getOrDefault(OFFERINGS_FLAG, DEFAULT_OFFERINGS).split(OFFERINGS_SEPARATOR))
+                .map(String::strip)
+                .filter(offering -> !offering.isEmpty())
+                .toList();
+    }
+
+    private void validate() {
+        if (getMode() == LoadMode.OPEN && getRate() == 0) {
+            throw new IllegalArgumentException("Open-loop mode needs a positive --rate!");
+        }
+    }
+
+    private int getPositiveInt(String key, int defaultValue) {
+        int value = getNonNegativeInt(key, defaultValue);
+
+        if (value == 0) {
+            throw new IllegalArgumentException(String.format("Option '%s' should be positive!", key));
+        }
+
+        return value;
+    }
+
+    private int getNonNegativeInt(String key, int defaultValue) {
+        String value = options.get(key);
+
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < 0) {
+                throw new IllegalArgumentException(String.format("Option '%s' should not be negative!", key));
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Option '%s' expects a number, got '%s'", key, value), e);
+        }
+    }
+
+    private static void validateArgument(String arg) {
+        if (arg == null || !arg.startsWith(FLAG_PREFIX)) {
+            throw new IllegalArgumentException("Load generator options are expected in the format --<option>=<value>!");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package loadtest;
+
+import command.type.CommandType;
+import metrics.LatencyHistogram;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and failures of the measured part of a load run, per command type.
+ * Rejected requests (rate limited or turned away by an overloaded server) are counted but not timed,
+ * since their quick answers would only hide the latency of the requests that were served.
+ */
+public class LoadStatistics {
+
+    private static final double[] REPORTED_PERCENTILES = {50, 90, 99, 99.9};
+    private static final double MICROS_PER_MILLI = 1_000.0;
+
+    private final Map<CommandType, LatencyHistogram> latencies;
+    private final Map<CommandType, LongAdder> rejections;
+    private final LongAdder failedConnections;
+    private final LongAdder unansweredRequests;
+
+    public LoadStatistics(Set<CommandType> commandTypes) {
+        validateObjectConstruction(commandTypes);
+
+        Map<CommandType, LatencyHistogram> latencies = new EnumMap<>(CommandType.class);
+        Map<CommandType, LongAdder> rejections = new EnumMap<>(CommandType.class);
+
+        for (CommandType type : commandTypes) {
+            latencies.put(type, new LatencyHistogram());
+            rejections.put(type, new LongAdder());
+        }
+
+        this.latencies = Collections.unmodifiableMap(latencies);
+        this.rejections = Collections.unmodifiableMap(rejections);
+        this.failedConnections = new LongAdder();
+        this.unansweredRequests = new LongAdder();
+    }
+
+    public void recordLatency(CommandType type, long latencyNanos, long expectedIntervalNanos) {
+        latencies.get(type).recordMicrosCorrected(TimeUnit.NANOSECONDS.toMicros(latencyNanos),
+                TimeUnit.NANOSECONDS.toMicros(expectedIntervalNanos));
+    }
+
+    public void recordRejection(CommandType type) {
+        rejections.get(type).increment();
+    }
+
+    public void recordFailedConnection() {
+        failedConnections.increment();
+    }
+
+    public void recordUnanswered(int count) {
+        unansweredRequests.add(count);
+    }
+
+    public long getCount(CommandType type) {
+        return latencies.get(type).getCount();
+    }
+
+    public long getRejections(CommandType type) {
+        return rejections.get(type).sum();
+    }
+
+    public long getFailedConnections() {
+        return failedConnections.sum();
+    }
+
+    public long getUnansweredRequests() {
+        return unansweredRequests.sum();
+    }
+
+    /**
+     * Formats throughput and latency percentiles in milliseconds, one row per command type plus a total.
+     */
+    public String report(double measuredSeconds) {
+        StringBuilder sb = new StringBuilder();
+        LatencyHistogram total = new LatencyHistogram();
+        long totalRejections = 0;
+
+        sb.append(String.format("%-28s %10s %10s %10s %10s %10s %10s %10s %10s",
+                "command", "count", "rate/s", "rejected", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms"))
+                .append(System.lineSeparator());
+
+        for (Map.Entry<CommandType, LatencyHistogram> entry : latencies.entrySet()) {
+            long rejected = rejections.get(entry.getKey()).sum();
+
+            appendRow(sb, entry.getKey().getCommand(), entry.getValue(), rejected, measuredSeconds);
+            total.add(entry.getValue());
+            totalRejections += rejected;
+        }
+
+        appendRow(sb, "total", total, totalRejections, measuredSeconds);
+        sb.append(String.format("failed connections: %d, unanswered requests: %d",
+                failedConnections.sum(), unansweredRequests.sum())).append(System.lineSeparator());
+
+        return sb.toString();
+    }
+
+    private static void appendRow(StringBuilder sb, String name, LatencyHistogram histogram, long rejected,
+                                  double measuredSeconds) {
+        long count = histogram.getCount();
+        sb.append(String.format("%-28s %10d %10.1f %10d", name, count,
+                measuredSeconds > 0 ? count / measuredSeconds : 0, rejected));
+
+        for (double percentile : REPORTED_PERCENTILES) {
+            sb.append(String.format(" %10.2f", histogram.getPercentileMicros(percentile) / MICROS_PER_MILLI));
+        }
+
+        sb.append(String.format(" %10.2f", histogram.getMaxMicros() / MICROS_PER_MILLI))
+                .append(System.lineSeparator());
+    }
+
+    private static void validateObjectConstruction(Set<CommandType> commandTypes) {
+        if (commandTypes == null || commandTypes.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "Parameter 'commandTypes' used to construct LoadStatistics is null or empty!");
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear histogram of latencies in microseconds, in the spirit of HdrHistogram:
+ * every power of two is split into 32 linear sub-buckets, so any recorded value is reported
+ * with at most ~3% relative error while the whole histogram stays a fixed array of counters.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+
+    /**
+     * Values above 2^40 microseconds (about 12 days) are clamped into the last bucket.
+     */
+    private static final int MAX_VALUE_BITS = 40;
+    private static final long MAX_TRACKED_VALUE = (1L << MAX_VALUE_BITS) - 1;
+    private static final int BUCKET_COUNT = (MAX_VALUE_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts;
+    private final LongAdder totalCount;
+    private final LongAdder totalMicros;
+    private final AtomicLong maxMicros;
+
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKET_COUNT);
+        this.totalCount = new LongAdder();
+        this.totalMicros = new LongAdder();
+        this.maxMicros = new AtomicLong();
+    }
+
+    public void recordNanos(long nanos) {
+        recordMicros(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    public void recordMicros(long micros) {
+        long value = Math.min(Math.max(0, micros), MAX_TRACKED_VALUE);
+
+        counts.incrementAndGet(indexOf(value));
+        totalCount.increment();
+        totalMicros.add(value);
+        maxMicros.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Corrects for coordinated omission the way HdrHistogram's recordValueWithExpectedInterval does:
+     * a client that stalls on a slow response skips the requests it should have sent meanwhile,
+     * so for a value above the expected interval the values those requests would have seen
+     * (value - interval, value - 2 * interval, ...) are recorded as well.
+     */
+    public void recordMicrosCorrected(long micros, long expectedIntervalMicros) {
+        recordMicros(micros);
+
+        if (expectedIntervalMicros <= 0) {
+            return;
+        }
+
+        for (long missed = micros - expectedIntervalMicros; missed >= expectedIntervalMicros;
+             missed -= expectedIntervalMicros) {
+            recordMicros(missed);
+        }
+    }
+
+    /**
+     * Adds everything recorded by the other histogram to this one, e.g. to total several of them.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = other.counts.get(i);
+
+            if (count > 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+
+        totalCount.add(other.totalCount.sum());
+        totalMicros.add(other.totalMicros.sum());
+        maxMicros.accumulateAndGet(other.maxMicros.get(), Math::max);
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    public long getMeanMicros() {
+        long count = totalCount.sum();
+        return count == 0 ? 0 : totalMicros.sum() / count;
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given percentile, e.g. 99.9 for p999.
+     * Concurrent recordings may or may not be taken into account.
+     */
+    public long getPercentileMicros(double percentile) {
+        validatePercentile(percentile);
+
+        long count = totalCount.sum();
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), maxMicros.get());
+            }
+        }
+
+        return maxMicros.get();
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & SUB_BUCKET_MASK;
+
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long lowerBoundOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        int subBucket = index & SUB_BUCKET_MASK;
+
+        return (long) (SUB_BUCKET_COUNT + subBucket) << shift;
+    }
+
+    static long upperBoundOf(int index) {
+        return index + 1 < BUCKET_COUNT ? lowerBoundOf(index + 1) - 1 : MAX_TRACKED_VALUE;
+    }
+
+    private static void validatePercentile(double percentile) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile should be in the range (0, 100]!");
+        }
+    }
+}
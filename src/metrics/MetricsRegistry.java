@@ -0,0 +1,202 @@
+package metrics;
+
+import command.type.CommandType;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide counters and latency histograms. Recording is lock-free and cheap enough for hot paths;
+ * {@link #report()} renders a snapshot for the admin {@code stats} command.
+ */
+public final class MetricsRegistry {
+
+    private static final double[] REPORTED_PERCENTILES = {50, 99, 99.9};
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final long startNanos;
+    private final Map<CommandType, LatencyHistogram> commandLatencies;
+
+    private final LongAdder connectionsOpened;
+    private final LongAdder connectionsClosed;
+    private final LongAdder bytesIn;
+    private final LongAdder bytesOut;
+    private final LongAdder cacheHits;
+    private final LongAdder cacheMisses;
+    private final LatencyHistogram cacheRefreshLatency;
+    private final LatencyHistogram repositorySaveLatency;
+    private final LongAdder requestsShed;
+    private final LongAdder requestsExpired;
+    private final LatencyHistogram eventLoopStallLatency;
+    private final LongAdder eventLoopStallsCaptured;
+
+    private volatile int concurrencyLimit;
+
+    public MetricsRegistry() {
+        this.startNanos = System.nanoTime();
+        this.commandLatencies = new EnumMap<>(CommandType.class);
+
+        for (CommandType type : CommandType.values()) {
+            commandLatencies.put(type, new LatencyHistogram());
+        }
+
+        this.connectionsOpened = new LongAdder();
+        this.connectionsClosed = new LongAdder();
+        this.bytesIn = new LongAdder();
+        this.bytesOut = new LongAdder();
+        this.cacheHits = new LongAdder();
+        this.cacheMisses = new LongAdder();
+        this.cacheRefreshLatency = new LatencyHistogram();
+        this.repositorySaveLatency = new LatencyHistogram();
+        this.requestsShed = new LongAdder();
+        this.requestsExpired = new LongAdder();
+        this.eventLoopStallLatency = new LatencyHistogram();
+        this.eventLoopStallsCaptured = new LongAdder();
+    }
+
+    public static MetricsRegistry getInstance() {
+        return MetricsRegistryHolder.INSTANCE;
+    }
+
+    public void recordCommand(CommandType type, long nanos) {
+        commandLatencies.get(type).recordNanos(nanos);
+    }
+
+    public LatencyHistogram getCommandLatency(CommandType type) {
+        return commandLatencies.get(type);
+    }
+
+    public void connectionOpened() {
+        connectionsOpened.increment();
+    }
+
+    public void connectionClosed() {
+        connectionsClosed.increment();
+    }
+
+    public long getActiveConnections() {
+        return connectionsOpened.sum() - connectionsClosed.sum();
+    }
+
+    public void addBytesIn(long bytes) {
+        bytesIn.add(bytes);
+    }
+
+    public void addBytesOut(long bytes) {
+        bytesOut.add(bytes);
+    }
+
+    public void cacheHit() {
+        cacheHits.increment();
+    }
+
+    public void cacheMiss() {
+        cacheMisses.increment();
+    }
+
+    public void recordCacheRefresh(long nanos) {
+        cacheRefreshLatency.recordNanos(nanos);
+    }
+
+    public void recordRepositorySave(long nanos) {
+        repositorySaveLatency.recordNanos(nanos);
+    }
+
+    public void requestShed() {
+        requestsShed.increment();
+    }
+
+    public long getRequestsShed() {
+        return requestsShed.sum();
+    }
+
+    public void requestExpired() {
+        requestsExpired.increment();
+    }
+
+    public long getRequestsExpired() {
+        return requestsExpired.sum();
+    }
+
+    /**
+     * Records a selector loop iteration that took longer than the stall threshold.
+     */
+    public void recordEventLoopStall(long nanos) {
+        eventLoopStallLatency.recordNanos(nanos);
+    }
+
+    /**
+     * Counts a stall the detector caught in the act.
+     */
+    public void eventLoopStallCaptured() {
+        eventLoopStallsCaptured.increment();
+    }
+
+    public long getEventLoopStallsCaptured() {
+        return eventLoopStallsCaptured.sum();
+    }
+
+    public void setConcurrencyLimit(int limit) {
+        concurrencyLimit = limit;
+    }
+
+    public String report() {
+        double uptimeSeconds = (System.nanoTime() - startNanos) / NANOS_PER_SECOND;
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(String.format("uptime: %.0fs", uptimeSeconds)).append(System.lineSeparator());
+        sb.append(String.format("connections: active=%d opened=%d closed=%d",
+                getActiveConnections(), connectionsOpened.sum(), connectionsClosed.sum()))
+                .append(System.lineSeparator());
+        sb.append(String.format("bytes: in=%d out=%d", bytesIn.sum(), bytesOut.sum()))
+                .append(System.lineSeparator());
+        sb.append(String.format("asset cache: hits=%d misses=%d", cacheHits.sum(), cacheMisses.sum()))
+                .append(System.lineSeparator());
+        sb.append(String.format("concurrency: limit=%s shed=%d expired=%d",
+                concurrencyLimit == 0 ? "off" : String.valueOf(concurrencyLimit), requestsShed.sum(),
+                requestsExpired.sum()))
+                .append(System.lineSeparator());
+        appendEventLoopStalls(sb);
+
+        appendLatencyHeader(sb);
+        appendLatency(sb, "cache refresh", cacheRefreshLatency, uptimeSeconds);
+        appendLatency(sb, "repository save", repositorySaveLatency, uptimeSeconds);
+        appendLatency(sb, "event loop stall", eventLoopStallLatency, uptimeSeconds);
+
+        for (Map.Entry<CommandType, LatencyHistogram> entry : commandLatencies.entrySet()) {
+            if (entry.getValue().getCount() > 0) {
+                appendLatency(sb, entry.getKey().getCommand(), entry.getValue(), uptimeSeconds);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    private void appendEventLoopStalls(StringBuilder sb) {
+        sb.append(String.format("event loop stalls: captured=%d", getEventLoopStallsCaptured()))
+                .append(System.lineSeparator());
+    }
+
+    private static void appendLatencyHeader(StringBuilder sb) {
+        sb.append(String.format("%-28s %10s %10s %10s %10s %10s %10s",
+                "latency (us)", "count", "rate/s", "p50", "p99", "p999", "max")).append(System.lineSeparator());
+    }
+
+    private static void appendLatency(StringBuilder sb, String name, LatencyHistogram histogram,
+                                      double uptimeSeconds) {
+        long count = histogram.getCount();
+
+        sb.append(String.format("%-28s %10d %10.1f", name, count, uptimeSeconds > 0 ? count / uptimeSeconds : 0));
+
+        for (double percentile : REPORTED_PERCENTILES) {
+            sb.append(String.format(" %10d", histogram.getPercentileMicros(percentile)));
+        }
+
+        sb.append(String.format(" %10d", histogram.getMaxMicros())).append(System.lineSeparator());
+    }
+
+    private static class MetricsRegistryHolder {
+        private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+    }
+}
@@ -38,12 +38,17 @@ public class Wallet {
         this.transactionHistory = new ArrayList<>();
     }
 
+    /**
+     * Copies the other wallet under its lock, so the copy never holds half of a trade.
+     */
     public Wallet(Wallet other) {
         validateWallet(other);
 
-        this.balanceUsd = other.getBalanceUsd();
-        this.assets = other.getAssets();
-        this.transactionHistory = other.getTransactionHistory();
+        synchronized (other) {
+            this.balanceUsd = other.getBalanceUsd();
+            this.assets = other.getAssets();
+            this.transactionHistory = other.getTransactionHistory();
+        }
     }
 
     public synchronized void deposit(double amount) {
@@ -0,0 +1,171 @@
+package protocol;
+
+import exception.MalformedFrameException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A single protocol message. Requests and their responses share the same request id,
+ * which lets a client pipeline many commands over one connection.
+ */
+public record Frame(long requestId, byte flags, byte[] payload) {
+
+    public static final long UNSOLICITED_REQUEST_ID = 0;
+    public static final byte NO_FLAGS = 0;
+
+    /**
+     * Keep-alive frame with an empty payload. The server answers a client heartbeat with a heartbeat
+     * carrying the same request id; its own unsolicited heartbeats expect no answer.
+     */
+    public static final byte FLAG_HEARTBEAT = 0x01;
+
+    /**
+     * The payload is DEFLATE-compressed. Only sent to clients that enabled compression in the handshake.
+     */
+    public static final byte FLAG_COMPRESSED = 0x02;
+
+    /**
+     * Negotiates connection options: the client lists the options it supports in the payload
+     * and the server answers with a handshake frame listing the ones it accepted.
+     */
+    public static final byte FLAG_HANDSHAKE = 0x04;
+
+    /**
+     * The payload starts with a 4-byte timeout in milliseconds, counted from when the server receives the request.
+     * A request still waiting when its timeout passes is answered as expired instead of being executed.
+     */
+    public static final byte FLAG_DEADLINE = 0x08;
+
+    /**
+     * The frame belongs to one of several logical sessions multiplexed over the connection, each logged in
+     * on its own. The payload holds a 4-byte session id after the timeout, if there is one. Requests without
+     * it belong to session {@value #DEFAULT_SESSION_ID}, and so do replies; only pushes carry the session id,
+     * since a reply is matched to its request by the request id alone.
+     */
+    public static final byte FLAG_SESSION = 0x10;
+
+    public static final int DEADLINE_FIELD_SIZE = Integer.BYTES;
+    public static final int SESSION_FIELD_SIZE = Integer.BYTES;
+    public static final int DEFAULT_SESSION_ID = 0;
+
+    public Frame {
+        if (payload == null) {
+            throw new IllegalArgumentException("Frame payload should not be null!");
+        }
+
+        if ((flags & FLAG_COMPRESSED) == 0 && payload.length < extensionsSize(flags)) {
+            throw new MalformedFrameException("Frame is too short to hold the fields its flags announce!");
+        }
+    }
+
+    public static Frame of(long requestId, String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Frame text should not be null!");
+        }
+
+        return new Frame(requestId, NO_FLAGS, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Copies the remaining content of the buffer, without moving its position, into a new frame.
+     */
+    public static Frame of(long requestId, ByteBuffer payload) {
+        if (payload == null) {
+            throw new IllegalArgumentException("Frame payload should not be null!");
+        }
+
+        byte[] bytes = new byte[payload.remaining()];
+        payload.duplicate().get(bytes);
+
+        return new Frame(requestId, NO_FLAGS, bytes);
+    }
+
+    public static Frame heartbeat(long requestId) {
+        return new Frame(requestId, FLAG_HEARTBEAT, new byte[0]);
+    }
+
+    public static Frame handshake(long requestId, String options) {
+        Frame frame = of(requestId, options);
+        return new Frame(requestId, FLAG_HANDSHAKE, frame.payload());
+    }
+
+    /**
+     * Request that the server drops unless it starts executing it within the given milliseconds.
+     */
+    public static Frame withDeadline(long requestId, String text, int timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("Frame timeout should be positive!");
+        }
+
+        return request(requestId, DEFAULT_SESSION_ID, text, timeoutMillis);
+    }
+
+    public static Frame forSession(long requestId, int sessionId, String text) {
+        return request(requestId, sessionId, text, 0);
+    }
+
+    /**
+     * A frame of the given logical session, with a deadline unless the timeout is 0.
+     * Only the fields that differ from the defaults are written.
+     */
+    public static Frame request(long requestId, int sessionId, String text, int timeoutMillis) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("Frame timeout should not be negative!");
+        }
+
+        byte flags = (byte) ((timeoutMillis > 0 ? FLAG_DEADLINE : 0)
+                | (sessionId != DEFAULT_SESSION_ID ? FLAG_SESSION : 0));
+        byte[] bytes = of(requestId, text).payload();
+        ByteBuffer payload = ByteBuffer.allocate(extensionsSize(flags) + bytes.length);
+
+        if (timeoutMillis > 0) {
+            payload.putInt(timeoutMillis);
+        }
+
+        if (sessionId != DEFAULT_SESSION_ID) {
+            payload.putInt(sessionId);
+        }
+
+        return new Frame(requestId, flags, payload.put(bytes).array());
+    }
+
+    /**
+     * The text of the payload, without the timeout and session id fields.
+     */
+    public String payloadAsString() {
+        int offset = extensionsSize(flags);
+        return new String(payload, offset, payload.length - offset, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns 0 when the frame carries no deadline.
+     */
+    public int timeoutMillis() {
+        return hasFlag(FLAG_DEADLINE) ? ByteBuffer.wrap(payload).getInt() : 0;
+    }
+
+    public int sessionId() {
+        if (!hasFlag(FLAG_SESSION)) {
+            return DEFAULT_SESSION_ID;
+        }
+
+        return ByteBuffer.wrap(payload).getInt(hasFlag(FLAG_DEADLINE) ? DEADLINE_FIELD_SIZE : 0);
+    }
+
+    /**
+     * True for frames the server sends on its own, e.g. heartbeats and watched price updates.
+     */
+    public boolean isUnsolicited() {
+        return requestId == UNSOLICITED_REQUEST_ID;
+    }
+
+    public boolean hasFlag(byte flag) {
+        return (flags & flag) != 0;
+    }
+
+    private static int extensionsSize(byte flags) {
+        return ((flags & FLAG_DEADLINE) != 0 ? DEADLINE_FIELD_SIZE : 0)
+                + ((flags & FLAG_SESSION) != 0 ? SESSION_FIELD_SIZE : 0);
+    }
+}
@@ -0,0 +1,133 @@
+package protocol;
+
+import exception.MalformedFrameException;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+
+/**
+ * Frame layout on the wire (big-endian):
+ * <pre>
+ * int  length     - number of bytes that follow this field
+ * long requestId
+ * byte flags
+ * byte[] payload  - UTF-8 text of the command or the response
+ * </pre>
+ */
+public final class FrameCodec {
+
+    public static final int LENGTH_FIELD_SIZE = Integer.BYTES;
+    public static final int HEADER_SIZE = Long.BYTES + Byte.BYTES;
+    public static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+    public static final int MAX_REQUEST_SIZE = 64 * 1024;
+
+    private FrameCodec() {
+    }
+
+    public static ByteBuffer encode(Frame frame) {
+        validateFrame(frame);
+
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(frame));
+        putHeader(buffer, frame);
+        buffer.put(frame.payload());
+
+        return buffer.flip();
+    }
+
+    /**
+     * Writes the length field and the header of a frame, leaving the payload to the caller.
+     */
+    public static void putHeader(ByteBuffer buffer, Frame frame) {
+        validateFrame(frame);
+
+        putHeader(buffer, frame.requestId(), frame.flags(), frame.payload().length);
+    }
+
+    public static void putHeader(ByteBuffer buffer, long requestId, byte flags, int payloadLength) {
+        buffer.putInt(HEADER_SIZE + payloadLength)
+                .putLong(requestId)
+                .put(flags);
+    }
+
+    public static int encodedSize(Frame frame) {
+        return LENGTH_FIELD_SIZE + HEADER_SIZE + frame.payload().length;
+    }
+
+    /**
+     * Decodes the next complete frame from a buffer in read mode.
+     * Returns null and leaves the buffer position untouched when the frame is not complete yet.
+     */
+    public static Frame decode(ByteBuffer buffer, int maxFrameSize) {
+        if (buffer.remaining() < LENGTH_FIELD_SIZE) {
+            return null;
+        }
+
+        int length = buffer.getInt(buffer.position());
+        validateLength(length, maxFrameSize);
+
+        if (buffer.remaining() < LENGTH_FIELD_SIZE + length) {
+            return null;
+        }
+
+        buffer.position(buffer.position() + LENGTH_FIELD_SIZE);
+        long requestId = buffer.getLong();
+        byte flags = buffer.get();
+        byte[] payload = new byte[length - HEADER_SIZE];
+        buffer.get(payload);
+
+        return new Frame(requestId, flags, payload);
+    }
+
+    public static void write(DataOutputStream output, Frame frame) throws IOException {
+        validateFrame(frame);
+
+        output.writeInt(HEADER_SIZE + frame.payload().length);
+        output.writeLong(frame.requestId());
+        output.writeByte(frame.flags());
+        output.write(frame.payload());
+        output.flush();
+    }
+
+    /**
+     * Writes a frame without flags whose payload is the remaining content of the buffer,
+     * leaving the buffer's position untouched so a shared payload can be written again.
+     */
+    public static void write(DataOutputStream output, long requestId, ByteBuffer payload) throws IOException {
+        output.writeInt(HEADER_SIZE + payload.remaining());
+        output.writeLong(requestId);
+        output.writeByte(Frame.NO_FLAGS);
+        Channels.newChannel(output).write(payload.duplicate());
+        output.flush();
+    }
+
+    /**
+     * Blocks until a whole frame is read. Throws {@link java.io.EOFException} when the stream ends.
+     */
+    public static Frame read(DataInputStream input, int maxFrameSize) throws IOException {
+        int length = input.readInt();
+        validateLength(length, maxFrameSize);
+
+        long requestId = input.readLong();
+        byte flags = input.readByte();
+        byte[] payload = new byte[length - HEADER_SIZE];
+        input.readFully(payload);
+
+        return new Frame(requestId, flags, payload);
+    }
+
+    public static void validateLength(int length, int maxFrameSize) {
+        if (length < HEADER_SIZE || length > maxFrameSize) {
+            throw new MalformedFrameException(String.format("Frame length %d is out of bounds [%d, %d]!",
+                    length, HEADER_SIZE, maxFrameSize));
+        }
+    }
+
+    private static void validateFrame(Frame frame) {
+        if (frame == null) {
+            throw new IllegalArgumentException("Frame to encode should not be null!");
+        }
+    }
+}
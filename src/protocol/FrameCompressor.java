@@ -0,0 +1,67 @@
+package protocol;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses frame payloads at or above a size threshold. Reuses one {@link Deflater}, so an instance
+ * must stay on a single thread, e.g. one per worker reactor. Payloads that do not shrink are sent as they are.
+ */
+public class FrameCompressor implements AutoCloseable {
+
+    public static final String DEFLATE_OPTION = "compression=deflate";
+
+    private static final String OPTIONS_DELIMITER = "[\\s,]+";
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    private final int threshold;
+    private final Deflater deflater;
+    private final byte[] chunk;
+
+    public FrameCompressor(int threshold) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("Compression threshold should be positive!");
+        }
+
+        this.threshold = threshold;
+        // frames are compressed on the selector thread, so favour speed over ratio
+        this.deflater = new Deflater(Deflater.BEST_SPEED);
+        this.chunk = new byte[CHUNK_SIZE];
+    }
+
+    /**
+     * True when the options of a client handshake ask for DEFLATE compression.
+     */
+    public static boolean isRequested(String handshakeOptions) {
+        return Arrays.asList(handshakeOptions.strip().split(OPTIONS_DELIMITER)).contains(DEFLATE_OPTION);
+    }
+
+    public Frame compress(Frame frame) {
+        byte[] payload = frame.payload();
+
+        if (payload.length < threshold || frame.hasFlag(Frame.FLAG_COMPRESSED)) {
+            return frame;
+        }
+
+        deflater.reset();
+        deflater.setInput(payload);
+        deflater.finish();
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(payload.length / 2);
+        while (!deflater.finished()) {
+            compressed.write(chunk, 0, deflater.deflate(chunk));
+
+            if (compressed.size() >= payload.length) {
+                return frame;
+            }
+        }
+
+        return new Frame(frame.requestId(), (byte) (frame.flags() | Frame.FLAG_COMPRESSED), compressed.toByteArray());
+    }
+
+    @Override
+    public void close() {
+        deflater.end();
+    }
+}
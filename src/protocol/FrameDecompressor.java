@@ -0,0 +1,68 @@
+package protocol;
+
+import exception.MalformedFrameException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Inflates frames flagged as compressed, reusing one {@link Inflater}. Not thread-safe.
+ */
+public class FrameDecompressor implements AutoCloseable {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    private final int maxPayloadSize;
+    private final Inflater inflater;
+    private final byte[] chunk;
+
+    public FrameDecompressor(int maxPayloadSize) {
+        if (maxPayloadSize <= 0) {
+            throw new IllegalArgumentException("Maximum payload size should be positive!");
+        }
+
+        this.maxPayloadSize = maxPayloadSize;
+        this.inflater = new Inflater();
+        this.chunk = new byte[CHUNK_SIZE];
+    }
+
+    /**
+     * Returns the frame with its payload inflated and the compressed flag cleared,
+     * or the frame itself when it is not compressed.
+     */
+    public Frame decompress(Frame frame) {
+        if (!frame.hasFlag(Frame.FLAG_COMPRESSED)) {
+            return frame;
+        }
+
+        inflater.reset();
+        inflater.setInput(frame.payload());
+
+        ByteArrayOutputStream inflated = new ByteArrayOutputStream(frame.payload().length * 2);
+        try {
+            while (!inflater.finished()) {
+                int inflatedBytes = inflater.inflate(chunk);
+
+                if (inflatedBytes == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new MalformedFrameException("Compressed frame payload is truncated");
+                }
+
+                inflated.write(chunk, 0, inflatedBytes);
+                if (inflated.size() > maxPayloadSize) {
+                    throw new MalformedFrameException(
+                            String.format("Inflated frame payload exceeds %d bytes", maxPayloadSize));
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new MalformedFrameException("Compressed frame payload is corrupted", e);
+        }
+
+        return new Frame(frame.requestId(), (byte) (frame.flags() & ~Frame.FLAG_COMPRESSED), inflated.toByteArray());
+    }
+
+    @Override
+    public void close() {
+        inflater.end();
+    }
+}
@@ -5,7 +5,9 @@ import com.google.gson.reflect.TypeToken;
 import exception.InvalidCommandException;
 import exception.UserAlreadyExistsException;
 import logger.Logger;
+import metrics.MetricsRegistry;
 import model.User;
+import model.Wallet;
 import util.GsonProvider;
 
 import java.io.BufferedReader;
@@ -14,8 +16,13 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -23,19 +30,45 @@ public class UserRepository {
     private static final Path DIRECTORY_PATH = Path.of("database");
     private static final Type TYPE_TOKEN = new TypeToken<ConcurrentHashMap<String, User>>() { }.getType();
 
+    private static final String OWNER_LOCK_SUFFIX = ".lock";
+
     private static final String EMAIL_REGEX = "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$";
 
     private final Path filePath;
     private final Gson gson;
     private final Map<String, User> users;
+    private final boolean deferredPersistence;
+    private final FileLock ownerLock;
+
+    private boolean hasPendingChanges;
 
     private static final Logger LOGGER = Logger.getInstance();
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
 
     public UserRepository(String filename) {
+        this(filename, false);
+    }
+
+    /**
+     * When persistence is deferred, modifications only mark the repository as dirty
+     * and the caller is responsible for calling {@link #flushPendingChanges()}.
+     * Several modifications made between two flushes are written to the file once.
+     */
+    public UserRepository(String filename, boolean deferredPersistence) {
+        this(filename, deferredPersistence, false);
+    }
+
+    /**
+     * An exclusive repository owns its file for as long as the process lives: construction fails if another
+     * process owns it already, since each would rewrite the whole file and drop the other's changes.
+     * The file is only read once the ownership is taken.
+     */
+    public UserRepository(String filename, boolean deferredPersistence, boolean exclusive) {
         validateFilename(filename);
 
         this.filePath = DIRECTORY_PATH.resolve(filename);
         this.gson = GsonProvider.getGson();
+        this.deferredPersistence = deferredPersistence;
 
         try {
             Path parent = filePath.getParent();
@@ -49,11 +82,46 @@ public class UserRepository {
             throw new RuntimeException("Could not create directory!", e);
         }
 
+        ownerLock = exclusive ? lockOwnership() : null;
         users = loadUsersFromFile();
     }
 
     public synchronized void saveAllUsers() {
         saveUsersToFile();
+        hasPendingChanges = false;
+    }
+
+    public synchronized boolean hasPendingChanges() {
+        return hasPendingChanges;
+    }
+
+    public synchronized void flushPendingChanges() {
+        if (!hasPendingChanges) {
+            return;
+        }
+
+        saveUsersToFile();
+        hasPendingChanges = false;
+    }
+
+    public Path getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Gives up the ownership of an exclusive repository, so another process may open the file.
+     * Does nothing if the repository is not exclusive or has released it already.
+     */
+    public synchronized void releaseOwnership() {
+        if (ownerLock == null || !ownerLock.isValid()) {
+            return;
+        }
+
+        try {
+            ownerLock.channel().close();
+        } catch (IOException e) {
+            LOGGER.log(e, "SYSTEM");
+        }
     }
 
     public User findByEmail(String email) {
@@ -70,7 +138,7 @@ public class UserRepository {
         }
 
         users.put(toRegister.email(), toRegister);
-        saveUsersToFile();
+        persistOrDefer();
     }
 
     public synchronized void updateUser(User user) {
@@ -81,9 +149,45 @@ public class UserRepository {
         }
 
         users.put(user.email(), user);
+        persistOrDefer();
+    }
+
+    private void persistOrDefer() {
+        if (deferredPersistence) {
+            hasPendingChanges = true;
+            return;
+        }
+
         saveUsersToFile();
     }
 
+    private FileLock lockOwnership() {
+        Path lockPath = filePath.resolveSibling(filePath.getFileName() + OWNER_LOCK_SUFFIX);
+        FileLock lock = null;
+
+        try {
+            FileChannel channel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                // another repository of this process owns the file
+            } finally {
+                if (lock == null) {
+                    channel.close();
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(e, "SYSTEM");
+            throw new RuntimeException("Could not lock the users file!", e);
+        }
+
+        if (lock == null) {
+            throw new IllegalStateException("Users file '" + filePath + "' is owned by another server process!");
+        }
+
+        return lock;
+    }
+
     private Map<String, User> loadUsersFromFile() {
         if (!Files.exists(filePath)) {
             return new ConcurrentHashMap<>();
@@ -99,9 +203,12 @@ public class UserRepository {
     }
 
     private void saveUsersToFile() {
+        long startNanos = System.nanoTime();
+
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath.toFile()))) {
-            gson.toJson(users, TYPE_TOKEN, writer);
+            gson.toJson(snapshotUsers(), TYPE_TOKEN, writer);
             writer.flush();
+            METRICS.recordRepositorySave(System.nanoTime() - startNanos);
         } catch (IOException e) {
             LOGGER.log(e, "SYSTEM");
             throw new RuntimeException("Could not write the users to file!");
@@ -111,6 +218,19 @@ public class UserRepository {
         }
     }
 
+    /**
+     * Wallets are changed under their own lock by the commands, not under the repository's, so each one
+     * is copied under its lock before it is serialized.
+     */
+    private Map<String, User> snapshotUsers() {
+        Map<String, User> snapshot = new HashMap<>();
+
+        users.forEach((email, user) ->
+                snapshot.put(email, new User(user.email(), user.passwordHash(), new Wallet(user.wallet()))));
+
+        return snapshot;
+    }
+
     private static void validateEmail(String email) {
         if (email == null || email.isBlank()) {
             throw new InvalidCommandException("Email passed is invalid!");
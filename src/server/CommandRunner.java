@@ -0,0 +1,77 @@
+package server;
+
+import command.CommandDispatcher;
+import command.type.CommandType;
+import logger.Logger;
+import repository.UserRepository;
+import server.pipeline.CommandPipeline;
+import server.session.ClientContext;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Runs a request on the calling thread and writes the repository changes it made before returning,
+ * so a response is only sent for changes that are already saved. Requests that do not change users
+ * reply without touching the file. Meant for engines that can block the thread serving a request,
+ * e.g. virtual threads.
+ */
+public class CommandRunner {
+
+    private static final Logger LOGGER = Logger.getInstance();
+
+    private final CommandDispatcher dispatcher;
+    private final UserRepository repository;
+
+    public CommandRunner(CommandDispatcher dispatcher) {
+        validateObjectConstruction(dispatcher);
+
+        this.dispatcher = dispatcher;
+        this.repository = dispatcher.getCommandFactory().getUserRepository();
+    }
+
+    public String run(String clientRequest, ClientContext context) {
+        String response = dispatcher.dispatch(clientRequest, context);
+
+        return flushPendingChanges(clientRequest) ? response : CommandPipeline.PERSIST_FAILED_MESSAGE;
+    }
+
+    /**
+     * Returns the UTF-8 encoded response, shared with other clients for cacheable commands.
+     */
+    public ByteBuffer runEncoded(String clientRequest, ClientContext context) {
+        ByteBuffer response = dispatcher.dispatchEncoded(clientRequest, context);
+
+        return flushPendingChanges(clientRequest)
+                ? response
+                : ByteBuffer.wrap(CommandPipeline.PERSIST_FAILED_MESSAGE.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public UserRepository getRepository() {
+        return repository;
+    }
+
+    /**
+     * Returns false if the changes of a request that modifies users could not be written.
+     */
+    private boolean flushPendingChanges(String clientRequest) {
+        CommandType type = CommandType.fromRequest(clientRequest);
+        if (type == null || !CommandType.modifiesUsers(type)) {
+            return true;
+        }
+
+        try {
+            repository.flushPendingChanges();
+            return true;
+        } catch (RuntimeException e) {
+            LOGGER.log(e, "SYSTEM_PERSIST");
+            return false;
+        }
+    }
+
+    private static void validateObjectConstruction(CommandDispatcher dispatcher) {
+        if (dispatcher == null) {
+            throw new IllegalArgumentException("Parameter 'dispatcher' used to construct CommandRunner is null!");
+        }
+    }
+}
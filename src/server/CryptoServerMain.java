@@ -2,28 +2,107 @@ package server;
 
 import api.ApiCall;
 import api.AssetCache;
+import api.PriceTable;
+import command.CommandDispatcher;
 import command.CommandFactory;
+import command.ratelimit.RateLimiter;
 import repository.UserRepository;
+import server.config.ServerOptions;
+import server.http.HttpGateway;
+import server.session.SessionRegistry;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.http.HttpClient;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 public class CryptoServerMain {
     public static void main(String[] args) {
+        ServerOptions options = ServerOptions.parse(args);
         String apiKey = readApiKey();
         HttpClient httpClient = HttpClient.newBuilder().build();
         ApiCall apiCall = new ApiCall(apiKey, httpClient);
-        UserRepository repo = new UserRepository("myDatabaseFile");
+        UserRepository repo = new UserRepository("myDatabaseFile", true, true);
 
-        try (AssetCache cache = new AssetCache(apiCall)) {
-            CommandFactory factory = new CommandFactory(repo, cache);
-            CryptocurrencyWalletManagerServer server = new CryptocurrencyWalletManagerServer(factory);
-            server.start();
+        try (PriceTable priceTable = openPriceTable(options);
+             AssetCache cache = new AssetCache(apiCall, priceTable)) {
+            SessionRegistry sessions = new SessionRegistry(options.getSessionTtlMillis());
+            CommandFactory factory = new CommandFactory(repo, cache, createRateLimiter(options),
+                    options.getAdminEmails(), sessions);
+            ServerEngine server = createEngine(factory, options);
+
+            HttpGateway gateway = startGateway(factory, sessions, options);
+            try {
+                registerShutdownHook(server, Thread.currentThread());
+                server.start();
+            } finally {
+                if (gateway != null) {
+                    gateway.close();
+                }
+            }
         } catch (Exception e) {
             throw new RuntimeException(e);
+        } finally {
+            repo.releaseOwnership();
         }
     }
 
+    public static ServerEngine createEngine(CommandFactory factory, ServerOptions options) {
+        return switch (options.getEngineType()) {
+            case NIO -> new CryptocurrencyWalletManagerServer(factory, options);
+            case VIRTUAL_THREADS -> new VirtualThreadServer(factory, options);
+        };
+    }
+
+    /**
+     * Returns null when the processes of the host do not share a price table.
+     */
+    private static PriceTable openPriceTable(ServerOptions options) throws IOException {
+        Path path = options.getPriceTablePath();
+        return path == null ? null : PriceTable.open(path);
+    }
+
+    /**
+     * Returns null when no HTTP port is configured.
+     */
+    private static HttpGateway startGateway(CommandFactory factory, SessionRegistry sessions,
+                                            ServerOptions options) throws IOException {
+        if (options.getHttpPort() == 0) {
+            return null;
+        }
+
+        HttpGateway gateway = new HttpGateway(new CommandRunner(new CommandDispatcher(factory)), sessions,
+                new InetSocketAddress(options.getHttpPort()));
+        gateway.start();
+
+        return gateway;
+    }
+
+    /**
+     * On SIGTERM or Ctrl+C the server is asked to stop gracefully and the JVM waits for the main thread
+     * to finish draining, flushing and closing the cache before it exits.
+     */
+    private static void registerShutdownHook(ServerEngine server, Thread mainThread) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+
+            try {
+                mainThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "shutdown-hook"));
+    }
+
+    private static RateLimiter createRateLimiter(ServerOptions options) {
+        if (options.getRatePerSecond() == 0) {
+            return RateLimiter.unlimited();
+        }
+
+        return new RateLimiter(options.getRatePerSecond(), options.getRateBurst(), options.getCommandCosts());
+    }
+
     private static String readApiKey() {
         System.out.println("Please enter your API key:");
         try (Scanner scanner = new Scanner(System.in)) {
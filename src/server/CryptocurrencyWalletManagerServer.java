@@ -1,93 +1,142 @@
 package server;
 
+import command.CommandDispatcher;
 import command.CommandFactory;
-import command.commands.Command;
-import exception.InvalidCommandException;
-import exception.UnauthenticatedException;
-import exception.UserAlreadyLoggedInException;
 import logger.Logger;
-import server.session.ClientContext;
+import server.buffer.BufferPool;
+import server.config.ServerOptions;
+import server.limit.ConcurrencyLimiter;
+import server.pipeline.CommandPipeline;
+import server.reactor.ConnectionTimeouts;
+import server.reactor.WorkerReactor;
+import server.timer.MonotonicClock;
+import server.watchdog.LoopProbe;
+import server.watchdog.StallDetector;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.nio.ByteBuffer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
-public class CryptocurrencyWalletManagerServer {
+public class CryptocurrencyWalletManagerServer implements ServerEngine {
 
     private static final String HOST = "0.0.0.0";
-    private static final int PORT = 7777;
 
-    private static final String STOP_WORD = "STOP";
+    private static final String WORKER_THREAD_NAME = "worker-reactor-";
+    private static final String ACCEPTOR_LOOP_NAME = "acceptor";
 
     private final CommandFactory commandFactory;
+    private final ServerOptions options;
+
+    private final List<WorkerReactor> workers;
+    private final List<Thread> workerThreads;
+    private int nextWorkerIndex;
 
     private Selector selector;
-    private boolean isServerWorking;
+    private volatile boolean isServerWorking;
 
     private static final Logger LOGGER = Logger.getInstance();
 
     public CryptocurrencyWalletManagerServer(CommandFactory commandFactory) {
+        this(commandFactory, ServerOptions.defaults());
+    }
+
+    public CryptocurrencyWalletManagerServer(CommandFactory commandFactory, ServerOptions options) {
+        validateObjectConstruction(commandFactory, options);
+
         this.commandFactory = commandFactory;
+        this.options = options;
+        this.workers = new ArrayList<>();
+        this.workerThreads = new ArrayList<>();
     }
 
+    /**
+     * Besides the TCP port, listens on the configured Unix domain socket, if any. Both kinds of connections
+     * are accepted by the same selector and served by the same worker reactors. The acceptor and worker
+     * loops are watched by a {@link StallDetector}.
+     */
+    @Override
     public void start() {
-        try (ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
-             Selector selector = Selector.open()) {
+        try (StallDetector stallDetector = new StallDetector(options.getStallThresholdMillis());
+             ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
+             Selector selector = Selector.open();
+             ServerSocketChannel unixServerChannel = openUnixServerChannel(options.getUnixSocketPath(), selector);
+             CommandPipeline pipeline = new CommandPipeline(new CommandDispatcher(commandFactory),
+                     options.getExecuteThreads(), options.getQueueCapacity(),
+                     ConcurrencyLimiter.create(options.getMinConcurrency(), options.getMaxConcurrency()))) {
 
             this.selector = selector;
 
-            configureServerSocketChannel(serverSocketChannel, selector);
-            isServerWorking = true;
+            configureServerSocketChannel(serverSocketChannel, options.getPort(), selector);
 
-            while (isServerWorking) {
-                handleReadyChannels(selector);
-            }
+            // the workers use the pipeline and the stall detector, so they are stopped before those close
+            try {
+                startWorkers(pipeline, stallDetector);
+                isServerWorking = true;
+
+                LoopProbe acceptorProbe = stallDetector.register(ACCEPTOR_LOOP_NAME);
+                stallDetector.start();
+
+                while (isServerWorking) {
+                    handleReadyChannels(selector, acceptorProbe);
+                }
 
+                shutdownGracefully(serverSocketChannel, unixServerChannel, pipeline);
+            } finally {
+                stopWorkers();
+            }
         } catch (IOException e) {
             LOGGER.log(e, "Problem with server occurred!");
             throw new RuntimeException(e);
         }
     }
 
-    private void handleReadyChannels(Selector selector) throws IOException {
+    /**
+     * Requests a graceful shutdown: {@link #start()} stops accepting, drains the requests already read
+     * within the configured shutdown timeout, flushes the repository and then returns.
+     */
+    @Override
+    public void stop() {
+        isServerWorking = false;
+        if (selector != null && selector.isOpen()) {
+            selector.wakeup();
+        }
+    }
+
+    private void handleReadyChannels(Selector selector, LoopProbe probe) throws IOException {
         int readyChannels = selector.select();
 
         if (readyChannels == 0) {
             return;
         }
 
-        Iterator<SelectionKey> selectionKeyIterator = selector.selectedKeys().iterator();
-
-        while (selectionKeyIterator.hasNext()) {
-            SelectionKey key = selectionKeyIterator.next();
-            selectionKeyIterator.remove();
+        probe.beginIteration();
+        try {
+            Iterator<SelectionKey> selectionKeyIterator = selector.selectedKeys().iterator();
 
-            if (!key.isValid()) {
-                continue;
-            }
+            while (selectionKeyIterator.hasNext()) {
+                SelectionKey key = selectionKeyIterator.next();
+                selectionKeyIterator.remove();
 
-            if (key.isAcceptable()) {
-                acceptClient(key, selector);
-            } else if (key.isReadable()) {
-                handleClient(key, this.commandFactory);
+                if (key.isValid() && key.isAcceptable()) {
+                    acceptClient(key);
+                }
             }
+        } finally {
+            probe.endIteration();
         }
     }
 
-    public void stop() {
-        isServerWorking = false;
-        if (selector != null && selector.isOpen()) {
-            selector.wakeup();
-        }
-    }
-
-    private static void acceptClient(SelectionKey key, Selector selector) throws IOException {
+    private void acceptClient(SelectionKey key) throws IOException {
         ServerSocketChannel serverChannel = (ServerSocketChannel) key.channel();
         SocketChannel clientChannel = serverChannel.accept();
 
@@ -95,75 +144,106 @@ public class CryptocurrencyWalletManagerServer {
             return;
         }
 
-        clientChannel.configureBlocking(false);
+        nextWorker().register(clientChannel);
+    }
 
-        clientChannel.register(selector, SelectionKey.OP_READ, new ClientContext());
+    private WorkerReactor nextWorker() {
+        WorkerReactor worker = workers.get(nextWorkerIndex);
+        nextWorkerIndex = (nextWorkerIndex + 1) % workers.size();
+        return worker;
     }
 
-    private static void handleClient(SelectionKey key, CommandFactory commandFactory) throws IOException {
+    private void startWorkers(CommandPipeline pipeline, StallDetector stallDetector) throws IOException {
+        ConnectionTimeouts timeouts = new ConnectionTimeouts(options.getIdleTimeoutMillis(),
+                options.getLoginTimeoutMillis(), options.getHeartbeatIntervalMillis());
 
-        SocketChannel clientChannel = (SocketChannel) key.channel();
-        ClientContext context = (ClientContext) key.attachment();
+        for (int i = 0; i < options.getWorkerCount(); i++) {
+            BufferPool bufferPool = new BufferPool(options.getBufferChunkSize(), options.getBufferPoolChunks());
+            WorkerReactor worker = new WorkerReactor(pipeline, bufferPool, options.getOutboundLimit(), timeouts,
+                    options.getCompressionThreshold(), stallDetector.register(WORKER_THREAD_NAME + i));
+            Thread workerThread = new Thread(worker, WORKER_THREAD_NAME + i);
 
-        ByteBuffer clientsBuffer = context.getBuffer();
-        String clientRequest = getClientRequest(key, clientChannel, clientsBuffer);
+            workers.add(worker);
+            workerThreads.add(workerThread);
+            workerThread.start();
+        }
+    }
 
-        if (clientRequest == null) {
-            return;
+    private void shutdownGracefully(ServerSocketChannel serverSocketChannel, ServerSocketChannel unixServerChannel,
+                                    CommandPipeline pipeline) throws IOException {
+        long deadline = MonotonicClock.millis() + options.getShutdownTimeoutMillis();
+
+        serverSocketChannel.close();
+        if (unixServerChannel != null) {
+            unixServerChannel.close();
+            Files.deleteIfExists(options.getUnixSocketPath());
         }
+        workers.forEach(worker -> worker.drain(deadline));
+        joinWorkers();
 
-        try {
-            Command commandToExecute = commandFactory.getCommand(clientRequest, context);
-            String updateMessageToClient = commandToExecute.execute(commandFactory.getAssetCache());
-            putUpdateMessageToClientBuffer(clientsBuffer, updateMessageToClient);
-        } catch (InvalidCommandException e) {
-            putUpdateMessageToClientBuffer(clientsBuffer, e.getMessage());
-        } catch (UnauthenticatedException e) {
-            putUpdateMessageToClientBuffer(clientsBuffer, e.getMessage());
-        } catch (UserAlreadyLoggedInException e) {
-            putUpdateMessageToClientBuffer(clientsBuffer, e.getMessage());
-        } catch (Exception e) {
-            LOGGER.log(e, "Some server error occurred");
-            putUpdateMessageToClientBuffer(clientsBuffer, e.toString());
+        if (!pipeline.shutdown(deadline)) {
+            LOGGER.log(new IllegalStateException("Pipeline was not drained before the shutdown deadline"),
+                    "SYSTEM_SHUTDOWN");
         }
+    }
 
-        clientChannel.write(clientsBuffer);
+    private void stopWorkers() {
+        workers.forEach(WorkerReactor::stop);
+        joinWorkers();
     }
 
-    private static void putUpdateMessageToClientBuffer(ByteBuffer clientsBuffer, String updateMessageToClient) {
-        updateMessageToClient += System.lineSeparator() + STOP_WORD + System.lineSeparator();
+    private void joinWorkers() {
+        for (Thread workerThread : workerThreads) {
+            try {
+                workerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.log(e, "SYSTEM");
+            }
+        }
 
-        clientsBuffer.clear();
-        clientsBuffer.put(updateMessageToClient.getBytes(StandardCharsets.UTF_8));
-        clientsBuffer.flip();
+        workers.clear();
+        workerThreads.clear();
     }
 
-    private static String getClientRequest(SelectionKey key, SocketChannel clientChannel,
-                                           ByteBuffer clientsBuffer) throws IOException {
-
-        clientsBuffer.clear();
-        int readBytesFromClient = clientChannel.read(clientsBuffer);
+    private static void configureServerSocketChannel(ServerSocketChannel serverSocketChannel, int port,
+                                                     Selector selector) throws IOException {
+        serverSocketChannel.bind(new InetSocketAddress(HOST, port));
+        serverSocketChannel.configureBlocking(false);
+        serverSocketChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
 
-        if (readBytesFromClient == -1) {
-            clientChannel.close();
-            key.cancel();
+    /**
+     * Returns null when no socket path is configured. A socket file left behind by a server that did not
+     * shut down cleanly is replaced.
+     */
+    private static ServerSocketChannel openUnixServerChannel(Path socketPath, Selector selector) throws IOException {
+        if (socketPath == null) {
             return null;
         }
 
-        return obtainMessageFromClient(clientsBuffer);
-    }
+        Files.deleteIfExists(socketPath);
+
+        ServerSocketChannel unixServerChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            unixServerChannel.bind(UnixDomainSocketAddress.of(socketPath));
+            unixServerChannel.configureBlocking(false);
+            unixServerChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            unixServerChannel.close();
+            throw e;
+        }
 
-    private static String obtainMessageFromClient(ByteBuffer clientsBuffer) {
-        clientsBuffer.flip();
-        byte[] bytes = new byte[clientsBuffer.remaining()];
-        clientsBuffer.get(bytes);
-        return new String(bytes, StandardCharsets.UTF_8).strip();
+        return unixServerChannel;
     }
 
-    private static void configureServerSocketChannel(ServerSocketChannel serverSocketChannel,
-                                                     Selector selector) throws IOException {
-        serverSocketChannel.bind(new InetSocketAddress(HOST, PORT));
-        serverSocketChannel.configureBlocking(false);
-        serverSocketChannel.register(selector, SelectionKey.OP_ACCEPT);
+    private static void validateObjectConstruction(CommandFactory commandFactory, ServerOptions options) {
+        if (commandFactory == null) {
+            throw new IllegalArgumentException("Parameter 'commandFactory' used to construct the server is null!");
+        }
+
+        if (options == null) {
+            throw new IllegalArgumentException("Parameter 'options' used to construct the server is null!");
+        }
     }
 }
@@ -0,0 +1,8 @@
+package server;
+
+public interface ServerEngine {
+
+    void start();
+
+    void stop();
+}
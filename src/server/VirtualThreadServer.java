@@ -0,0 +1,343 @@
+package server;
+
+import command.CommandDispatcher;
+import command.CommandFactory;
+import exception.MalformedFrameException;
+import logger.Logger;
+import metrics.MetricsRegistry;
+import model.Asset;
+import protocol.Frame;
+import protocol.FrameCodec;
+import protocol.FrameCompressor;
+import server.config.ServerOptions;
+import server.limit.ConcurrencyLimiter;
+import server.session.ClientContext;
+import server.session.SessionTable;
+import server.subscription.WatchList;
+import server.timer.Deadline;
+import server.timer.MonotonicClock;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serves every connection on its own virtual thread with blocking socket I/O.
+ * Blocking calls made by the commands (CoinAPI requests, repository writes) only park the virtual thread.
+ * Idle and login timeouts are enforced with socket read timeouts. Clients may send heartbeats,
+ * but the server does not probe on its own since the only thread of a connection is blocked reading.
+ * Watched price updates are written by a short-lived virtual thread that shares the connection's write lock.
+ */
+public class VirtualThreadServer implements ServerEngine {
+
+    private static final String HOST = "0.0.0.0";
+
+    private static final ByteBuffer SERVER_BUSY_RESPONSE = ByteBuffer.wrap(
+            ConcurrencyLimiter.SERVER_BUSY_MESSAGE.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+    private static final ByteBuffer TOO_MANY_SESSIONS_RESPONSE = ByteBuffer.wrap(
+            SessionTable.TOO_MANY_SESSIONS_MESSAGE.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+    private static final ByteBuffer EXPIRED_RESPONSE = ByteBuffer.wrap(
+            Deadline.EXPIRED_MESSAGE.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+
+    private static final Logger LOGGER = Logger.getInstance();
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
+    private final CommandRunner runner;
+    private final ConcurrencyLimiter limiter;
+    private final Set<SocketChannel> clientChannels;
+    private final int port;
+    private final long idleTimeoutMillis;
+    private final long loginTimeoutMillis;
+    private final long shutdownTimeoutMillis;
+    private final int compressionThreshold;
+
+    private ServerSocketChannel serverSocketChannel;
+    private volatile boolean isServerWorking;
+
+    public VirtualThreadServer(CommandFactory commandFactory) {
+        this(commandFactory, ServerOptions.defaults());
+    }
+
+    public VirtualThreadServer(CommandFactory commandFactory, ServerOptions options) {
+        validateObjectConstruction(commandFactory, options);
+
+        this.runner = new CommandRunner(new CommandDispatcher(commandFactory));
+        this.limiter = ConcurrencyLimiter.create(options.getMinConcurrency(), options.getMaxConcurrency());
+        this.clientChannels = ConcurrentHashMap.newKeySet();
+        this.port = options.getPort();
+        this.idleTimeoutMillis = options.getIdleTimeoutMillis();
+        this.loginTimeoutMillis = options.getLoginTimeoutMillis();
+        this.shutdownTimeoutMillis = options.getShutdownTimeoutMillis();
+        this.compressionThreshold = options.getCompressionThreshold();
+    }
+
+    @Override
+    public void start() {
+        try (ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
+             ExecutorService connectionExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            this.serverSocketChannel = serverSocketChannel;
+            serverSocketChannel.bind(new InetSocketAddress(HOST, port));
+            isServerWorking = true;
+
+            acceptClients(serverSocketChannel, connectionExecutor);
+            drainClients(connectionExecutor);
+
+        } catch (IOException e) {
+            LOGGER.log(e, "Problem with server occurred!");
+            throw new RuntimeException(e);
+        }
+
+        flushRepository();
+    }
+
+    /**
+     * Requests a graceful shutdown: {@link #start()} stops accepting, lets every connection finish
+     * the request it is executing within the configured shutdown timeout, flushes the repository and returns.
+     */
+    @Override
+    public void stop() {
+        isServerWorking = false;
+
+        if (serverSocketChannel != null) {
+            closeQuietly(serverSocketChannel);
+        }
+
+        clientChannels.forEach(VirtualThreadServer::shutdownInputQuietly);
+    }
+
+    private void acceptClients(ServerSocketChannel serverSocketChannel, ExecutorService connectionExecutor)
+            throws IOException {
+        try {
+            while (isServerWorking) {
+                SocketChannel clientChannel = serverSocketChannel.accept();
+                clientChannels.add(clientChannel);
+                connectionExecutor.submit(() -> serveClient(clientChannel));
+            }
+        } catch (ClosedChannelException e) {
+            if (isServerWorking) {
+                LOGGER.log(e, "SYSTEM");
+            }
+        }
+    }
+
+    private void drainClients(ExecutorService connectionExecutor) {
+        connectionExecutor.shutdown();
+
+        try {
+            if (!connectionExecutor.awaitTermination(shutdownTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                closeClientChannels();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            closeClientChannels();
+        }
+    }
+
+    private void flushRepository() {
+        try {
+            runner.getRepository().saveAllUsers();
+        } catch (RuntimeException e) {
+            LOGGER.log(e, "SYSTEM_PERSIST");
+        }
+    }
+
+    /**
+     * Requests of all the logical sessions of the connection are executed one at a time, in the order they arrive.
+     */
+    private void serveClient(SocketChannel clientChannel) {
+        SessionTable sessions = new SessionTable(new ClientContext());
+        ReentrantLock writeLock = new ReentrantLock();
+        FrameCompressor compressor = null;
+        long connectedAtMillis = MonotonicClock.millis();
+        Socket socket = clientChannel.socket();
+        METRICS.connectionOpened();
+
+        // the socket adaptor streams, unlike Channels.newInputStream, honour SO_TIMEOUT
+        try (clientChannel;
+             DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+
+            sessions.setPushNotifiers((sessionId, watchList) -> () -> Thread.ofVirtual()
+                    .start(() -> writePushes(watchList, sessionId, output, writeLock)));
+
+            while (isServerWorking) {
+                socket.setSoTimeout(readTimeoutMillis(sessions, connectedAtMillis));
+
+                Frame request = FrameCodec.read(input, FrameCodec.MAX_REQUEST_SIZE);
+                long receivedNanos = System.nanoTime();
+                METRICS.addBytesIn(FrameCodec.encodedSize(request));
+
+                if (request.hasFlag(Frame.FLAG_HEARTBEAT)) {
+                    writeFrame(output, writeLock, Frame.heartbeat(request.requestId()));
+                } else if (request.hasFlag(Frame.FLAG_HANDSHAKE)) {
+                    if (compressor == null && compressionThreshold > 0
+                            && FrameCompressor.isRequested(request.payloadAsString())) {
+                        compressor = new FrameCompressor(compressionThreshold);
+                    }
+                    writeFrame(output, writeLock, Frame.handshake(request.requestId(),
+                            compressor != null ? FrameCompressor.DEFLATE_OPTION : ""));
+                } else {
+                    ClientContext context = sessions.get(request.sessionId());
+                    ByteBuffer payload = context == null ? TOO_MANY_SESSIONS_RESPONSE.duplicate()
+                            : execute(request.payloadAsString().strip(), context, Deadline.of(request, receivedNanos));
+
+                    if (compressor != null) {
+                        writeFrame(output, writeLock, compressor.compress(Frame.of(request.requestId(), payload)));
+                    } else {
+                        writePayload(output, writeLock, request.requestId(), payload);
+                    }
+                }
+            }
+
+        } catch (EOFException e) {
+            // the client closed the connection
+        } catch (SocketTimeoutException e) {
+            sessions.logoutAll();
+        } catch (MalformedFrameException e) {
+            LOGGER.log(e, "CLIENT_PROTOCOL");
+        } catch (IOException e) {
+            if (isServerWorking) {
+                LOGGER.log(e, "SYSTEM");
+            }
+        } finally {
+            if (compressor != null) {
+                compressor.close();
+            }
+            sessions.clearWatchLists();
+            clientChannels.remove(clientChannel);
+            METRICS.connectionClosed();
+        }
+    }
+
+    /**
+     * Requests over the concurrency limit are answered at once instead of competing for the repository
+     * and the asset cache with the ones already executing. Requests are executed as soon as they are read,
+     * so there is no queue to order by priority; only a request that was starved of a carrier thread
+     * past its deadline is dropped.
+     */
+    private ByteBuffer execute(String clientRequest, ClientContext context, long deadlineNanos) {
+        if (Deadline.hasPassed(deadlineNanos)) {
+            METRICS.requestExpired();
+            return EXPIRED_RESPONSE.duplicate();
+        }
+
+        if (!limiter.tryAcquire()) {
+            return SERVER_BUSY_RESPONSE.duplicate();
+        }
+
+        long startNanos = System.nanoTime();
+        try {
+            return runner.runEncoded(clientRequest, context);
+        } finally {
+            limiter.release(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Only one push round runs per session at a time; a slow socket blocks this thread while
+     * newer prices keep replacing the unsent ones in the watch list.
+     */
+    private static void writePushes(WatchList watchList, int sessionId, DataOutputStream output,
+                                    ReentrantLock writeLock) {
+        try {
+            do {
+                for (Asset asset : watchList.takeUpdates()) {
+                    writeFrame(output, writeLock, Frame.forSession(Frame.UNSOLICITED_REQUEST_ID, sessionId,
+                            WatchList.toPushMessage(asset)));
+                }
+            } while (watchList.completeFlush());
+        } catch (IOException e) {
+            // the connection is closing, its serving thread cleans up
+        }
+    }
+
+    private static void writeFrame(DataOutputStream output, ReentrantLock writeLock, Frame frame)
+            throws IOException {
+        writeLock.lock();
+        try {
+            FrameCodec.write(output, frame);
+        } finally {
+            writeLock.unlock();
+        }
+
+        METRICS.addBytesOut(FrameCodec.encodedSize(frame));
+    }
+
+    private static void writePayload(DataOutputStream output, ReentrantLock writeLock, long requestId,
+                                     ByteBuffer payload) throws IOException {
+        writeLock.lock();
+        try {
+            FrameCodec.write(output, requestId, payload);
+        } finally {
+            writeLock.unlock();
+        }
+
+        METRICS.addBytesOut(FrameCodec.LENGTH_FIELD_SIZE + FrameCodec.HEADER_SIZE + payload.remaining());
+    }
+
+    private int readTimeoutMillis(SessionTable sessions, long connectedAtMillis) {
+        long timeout = idleTimeoutMillis;
+
+        if (!sessions.isAnyLoggedIn()) {
+            long loginRemaining = connectedAtMillis + loginTimeoutMillis - MonotonicClock.millis();
+            timeout = Math.max(1, Math.min(timeout, loginRemaining));
+        }
+
+        return (int) Math.min(timeout, Integer.MAX_VALUE);
+    }
+
+    private void closeClientChannels() {
+        clientChannels.forEach(VirtualThreadServer::closeQuietly);
+        clientChannels.clear();
+    }
+
+    private static void shutdownInputQuietly(SocketChannel clientChannel) {
+        try {
+            clientChannel.shutdownInput();
+        } catch (IOException e) {
+            // the channel is already closed
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            LOGGER.log(e, "SYSTEM");
+        }
+    }
+
+    private static void validateObjectConstruction(CommandFactory commandFactory, ServerOptions options) {
+        if (commandFactory == null) {
+            throw new IllegalArgumentException("Parameter 'commandFactory' used to construct the server is null!");
+        }
+
+        if (options == null) {
+            throw new IllegalArgumentException("Parameter 'options' used to construct the server is null!");
+        }
+
+        // connections rely on the socket adaptor for read timeouts, which Unix domain channels lack
+        if (options.getUnixSocketPath() != null) {
+            throw new IllegalArgumentException("Unix domain sockets are only served by the NIO engine!");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package server.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size direct buffers sliced from one slab. Buffers are leased only while a read or a write
+ * is in progress, so idle connections hold no buffer memory. When the slab is exhausted a fresh
+ * direct buffer is allocated and counted as a miss.
+ * Not thread-safe - every {@code WorkerReactor} owns its own pool.
+ */
+public class BufferPool {
+
+    private static final int MIN_CHUNK_SIZE = 64;
+
+    private final int chunkSize;
+    private final int maxChunks;
+    private final Deque<ByteBuffer> freeChunks;
+
+    private final LongAdder leases;
+    private final LongAdder misses;
+
+    public BufferPool(int chunkSize, int maxChunks) {
+        validateObjectConstruction(chunkSize, maxChunks);
+
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+        this.freeChunks = new ArrayDeque<>(maxChunks);
+        this.leases = new LongAdder();
+        this.misses = new LongAdder();
+
+        ByteBuffer slab = ByteBuffer.allocateDirect(chunkSize * maxChunks);
+        for (int i = 0; i < maxChunks; i++) {
+            freeChunks.addLast(slab.slice(i * chunkSize, chunkSize));
+        }
+    }
+
+    public ByteBuffer lease() {
+        leases.increment();
+
+        ByteBuffer chunk = freeChunks.pollFirst();
+
+        if (chunk == null) {
+            misses.increment();
+            chunk = ByteBuffer.allocateDirect(chunkSize);
+        }
+
+        return chunk.clear();
+    }
+
+    /**
+     * Buffers that were not leased from a pool of this size (heap, read-only or differently sized) are ignored.
+     */
+    public void release(ByteBuffer chunk) {
+        if (chunk == null || !chunk.isDirect() || chunk.isReadOnly() || chunk.capacity() != chunkSize) {
+            return;
+        }
+
+        if (freeChunks.size() < maxChunks) {
+            freeChunks.addFirst(chunk.clear());
+        }
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getFreeChunks() {
+        return freeChunks.size();
+    }
+
+    public long getLeases() {
+        return leases.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private static void validateObjectConstruction(int chunkSize, int maxChunks) {
+        if (chunkSize < MIN_CHUNK_SIZE || maxChunks <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Buffer pool chunks should be at least %d bytes and their number should be positive!",
+                    MIN_CHUNK_SIZE));
+        }
+
+        if ((long) chunkSize * maxChunks > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Buffer pool slab should not be larger than 2GB!");
+        }
+    }
+}
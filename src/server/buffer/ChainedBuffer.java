@@ -0,0 +1,164 @@
+package server.buffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Growable inbound buffer made of pooled chunks. A frame larger than one chunk simply spans
+ * several of them, and every chunk goes back to the pool as soon as its bytes are consumed.
+ */
+public class ChainedBuffer {
+
+    private static final int BYTE_MASK = 0xFF;
+
+    private final BufferPool pool;
+    private final Deque<ByteBuffer> chunks;
+    private int remaining;
+
+    public ChainedBuffer(BufferPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Parameter 'pool' used to construct ChainedBuffer is null!");
+        }
+
+        this.pool = pool;
+        this.chunks = new ArrayDeque<>();
+    }
+
+    /**
+     * Reads into the free space of the last chunk, leasing a new chunk only when the last one is full.
+     */
+    public int readFrom(ReadableByteChannel channel) throws IOException {
+        ByteBuffer tail = chunks.peekLast();
+        boolean isLeased = tail == null || tail.limit() == tail.capacity();
+
+        if (isLeased) {
+            tail = pool.lease().limit(0);
+        }
+
+        ByteBuffer writable = tail.duplicate().limit(tail.capacity()).position(tail.limit());
+        int readBytes = channel.read(writable);
+
+        if (readBytes > 0) {
+            tail.limit(tail.limit() + readBytes);
+            remaining += readBytes;
+
+            if (isLeased) {
+                chunks.addLast(tail);
+            }
+        } else if (isLeased) {
+            pool.release(tail);
+        }
+
+        return readBytes;
+    }
+
+    public void append(ByteBuffer source) {
+        while (source.hasRemaining()) {
+            ByteBuffer chunk = pool.lease();
+            int length = Math.min(chunk.remaining(), source.remaining());
+
+            chunk.put(source.slice(source.position(), length)).flip();
+            source.position(source.position() + length);
+
+            chunks.addLast(chunk);
+            remaining += length;
+        }
+    }
+
+    public int remaining() {
+        return remaining;
+    }
+
+    public boolean isEmpty() {
+        return remaining == 0;
+    }
+
+    public int peekInt() {
+        validateRemaining(Integer.BYTES);
+
+        int value = 0;
+        int bytesRead = 0;
+
+        for (ByteBuffer chunk : chunks) {
+            for (int i = chunk.position(); i < chunk.limit() && bytesRead < Integer.BYTES; i++, bytesRead++) {
+                value = (value << Byte.SIZE) | (chunk.get(i) & BYTE_MASK);
+            }
+        }
+
+        return value;
+    }
+
+    public int getInt() {
+        ByteBuffer head = chunks.peekFirst();
+
+        if (head != null && head.remaining() >= Integer.BYTES) {
+            int value = head.getInt();
+            consumedFromHead(Integer.BYTES);
+            return value;
+        }
+
+        byte[] bytes = new byte[Integer.BYTES];
+        get(bytes);
+        return ByteBuffer.wrap(bytes).getInt();
+    }
+
+    public long getLong() {
+        ByteBuffer head = chunks.peekFirst();
+
+        if (head != null && head.remaining() >= Long.BYTES) {
+            long value = head.getLong();
+            consumedFromHead(Long.BYTES);
+            return value;
+        }
+
+        byte[] bytes = new byte[Long.BYTES];
+        get(bytes);
+        return ByteBuffer.wrap(bytes).getLong();
+    }
+
+    public byte get() {
+        validateRemaining(Byte.BYTES);
+
+        byte value = chunks.peekFirst().get();
+        consumedFromHead(Byte.BYTES);
+        return value;
+    }
+
+    public void get(byte[] destination) {
+        validateRemaining(destination.length);
+
+        int offset = 0;
+        while (offset < destination.length) {
+            ByteBuffer head = chunks.peekFirst();
+            int length = Math.min(head.remaining(), destination.length - offset);
+
+            head.get(destination, offset, length);
+            offset += length;
+            consumedFromHead(length);
+        }
+    }
+
+    public void release() {
+        chunks.forEach(pool::release);
+        chunks.clear();
+        remaining = 0;
+    }
+
+    private void consumedFromHead(int bytes) {
+        remaining -= bytes;
+
+        if (!chunks.peekFirst().hasRemaining()) {
+            pool.release(chunks.pollFirst());
+        }
+    }
+
+    private void validateRemaining(int bytes) {
+        if (remaining < bytes) {
+            throw new IllegalStateException(String.format("Requested %d bytes but only %d are buffered!",
+                    bytes, remaining));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package server.config;
+
+public enum EngineType {
+
+    NIO("nio"),
+    VIRTUAL_THREADS("virtual");
+
+    private final String option;
+
+    private EngineType(String option) {
+        this.option = option;
+    }
+
+    public String getOption() {
+        return option;
+    }
+
+    public static EngineType fromOption(String option) {
+        for (EngineType engineType : values()) {
+            if (engineType.option.equalsIgnoreCase(option)) {
+                return engineType;
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("Unknown server engine '%s'! Expected nio or virtual", option));
+    }
+}
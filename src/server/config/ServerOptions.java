@@ -0,0 +1,292 @@
+package server.config;
+
+import command.type.CommandType;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+
+public final class ServerOptions {
+    private static final String FLAG_PREFIX = "--";
+    private static final String VALUE_SEPARATOR = "=";
+
+    private static final String ENGINE_FLAG = "engine";
+    private static final String PORT_FLAG = "port";
+    private static final String WORKERS_FLAG = "workers";
+    private static final String EXECUTE_THREADS_FLAG = "execute-threads";
+    private static final String QUEUE_CAPACITY_FLAG = "queue-capacity";
+    private static final String OUTBOUND_LIMIT_FLAG = "outbound-limit";
+    private static final String BUFFER_CHUNK_SIZE_FLAG = "buffer-chunk-size";
+    private static final String BUFFER_POOL_CHUNKS_FLAG = "buffer-pool-chunks";
+    private static final String IDLE_TIMEOUT_FLAG = "idle-timeout";
+    private static final String LOGIN_TIMEOUT_FLAG = "login-timeout";
+    private static final String HEARTBEAT_INTERVAL_FLAG = "heartbeat-interval";
+    private static final String SHUTDOWN_TIMEOUT_FLAG = "shutdown-timeout";
+    private static final String COMPRESSION_THRESHOLD_FLAG = "compression-threshold";
+    private static final String HTTP_PORT_FLAG = "http-port";
+    private static final String SESSION_TTL_FLAG = "session-ttl";
+    private static final String ADMINS_FLAG = "admins";
+    private static final String ADMINS_SEPARATOR = ",";
+    private static final String RATE_PER_SECOND_FLAG = "rate-per-second";
+    private static final String RATE_BURST_FLAG = "rate-burst";
+    private static final String COMMAND_COST_FLAG_PREFIX = "cost-";
+    private static final String MIN_CONCURRENCY_FLAG = "min-concurrency";
+    private static final String MAX_CONCURRENCY_FLAG = "max-concurrency";
+    private static final String UNIX_SOCKET_FLAG = "unix-socket";
+    private static final String STALL_THRESHOLD_FLAG = "stall-threshold";
+    private static final String PRICE_TABLE_FLAG = "price-table";
+
+    private static final int DEFAULT_PORT = 7777;
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static final int DEFAULT_OUTBOUND_LIMIT_BYTES = 64 * 1024;
+    private static final int DEFAULT_BUFFER_CHUNK_SIZE = 16 * 1024;
+    private static final int DEFAULT_BUFFER_POOL_CHUNKS = 512;
+    private static final int DEFAULT_IDLE_TIMEOUT_SECONDS = 30 * 60;
+    private static final int DEFAULT_LOGIN_TIMEOUT_SECONDS = 60;
+    private static final int DEFAULT_HEARTBEAT_INTERVAL_SECONDS = 0;
+    private static final int DEFAULT_SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final int DEFAULT_COMPRESSION_THRESHOLD_BYTES = 1024;
+    private static final int DEFAULT_HTTP_PORT = 0;
+    private static final int DEFAULT_SESSION_TTL_SECONDS = 60 * 60;
+    private static final int DEFAULT_RATE_PER_SECOND = 20;
+    private static final int DEFAULT_RATE_BURST = 40;
+    private static final int DEFAULT_MIN_CONCURRENCY = 8;
+    private static final int DEFAULT_MAX_CONCURRENCY = 1024;
+    private static final int DEFAULT_STALL_THRESHOLD_MILLIS = 100;
+
+    private final Map<String, String> options;
+
+    private ServerOptions(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static ServerOptions defaults() {
+        return new ServerOptions(new HashMap<>());
+    }
+
+    public static ServerOptions parse(String[] args) {
+        Map<String, String> parsed = new HashMap<>();
+
+        if (args == null) {
+            return new ServerOptions(parsed);
+        }
+
+        for (String arg : args) {
+            validateArgument(arg);
+
+            String[] keyValue = arg.substring(FLAG_PREFIX.length()).split(VALUE_SEPARATOR, 2);
+            parsed.put(keyValue[0].toLowerCase(), keyValue.length > 1 ? keyValue[1] : "");
+        }
+
+        return new ServerOptions(parsed);
+    }
+
+    public EngineType getEngineType() {
+        return EngineType.fromOption(getString(ENGINE_FLAG, EngineType.NIO.getOption()));
+    }
+
+    /**
+     * TCP port the protocol is served on.
+     */
+    public int getPort() {
+        return getPositiveInt(PORT_FLAG, DEFAULT_PORT);
+    }
+
+    public int getWorkerCount() {
+        return getPositiveInt(WORKERS_FLAG, Runtime.getRuntime().availableProcessors());
+    }
+
+    public int getExecuteThreads() {
+        return getPositiveInt(EXECUTE_THREADS_FLAG, Runtime.getRuntime().availableProcessors());
+    }
+
+    public int getQueueCapacity() {
+        return getPositiveInt(QUEUE_CAPACITY_FLAG, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public int getOutboundLimit() {
+        return getPositiveInt(OUTBOUND_LIMIT_FLAG, DEFAULT_OUTBOUND_LIMIT_BYTES);
+    }
+
+    public int getBufferChunkSize() {
+        return getPositiveInt(BUFFER_CHUNK_SIZE_FLAG, DEFAULT_BUFFER_CHUNK_SIZE);
+    }
+
+    public int getBufferPoolChunks() {
+        return getPositiveInt(BUFFER_POOL_CHUNKS_FLAG, DEFAULT_BUFFER_POOL_CHUNKS);
+    }
+
+    public long getIdleTimeoutMillis() {
+        return TimeUnit.SECONDS.toMillis(getPositiveInt(IDLE_TIMEOUT_FLAG, DEFAULT_IDLE_TIMEOUT_SECONDS));
+    }
+
+    public long getLoginTimeoutMillis() {
+        return TimeUnit.SECONDS.toMillis(getPositiveInt(LOGIN_TIMEOUT_FLAG, DEFAULT_LOGIN_TIMEOUT_SECONDS));
+    }
+
+    /**
+     * Zero, the default, disables server heartbeats.
+     */
+    public long getHeartbeatIntervalMillis() {
+        return TimeUnit.SECONDS.toMillis(getNonNegativeInt(HEARTBEAT_INTERVAL_FLAG, DEFAULT_HEARTBEAT_INTERVAL_SECONDS));
+    }
+
+    /**
+     * How long a graceful shutdown may spend answering the requests already received.
+     */
+    public long getShutdownTimeoutMillis() {
+        return TimeUnit.SECONDS.toMillis(getPositiveInt(SHUTDOWN_TIMEOUT_FLAG, DEFAULT_SHUTDOWN_TIMEOUT_SECONDS));
+    }
+
+    /**
+     * Tokens regained per second by every connection and user bucket. Zero disables rate limiting.
+     */
+    public int getRatePerSecond() {
+        return getNonNegativeInt(RATE_PER_SECOND_FLAG, DEFAULT_RATE_PER_SECOND);
+    }
+
+    public int getRateBurst() {
+        return getPositiveInt(RATE_BURST_FLAG, DEFAULT_RATE_BURST);
+    }
+
+    /**
+     * Costs overridden with --cost-&lt;command&gt;=&lt;tokens&gt;, e.g. --cost-buy=10.
+     * Commands without an override keep their default cost.
+     */
+    public Map<CommandType, Integer> getCommandCosts() {
+        Map<CommandType, Integer> costs = new EnumMap<>(CommandType.class);
+
+        for (CommandType type : CommandType.values()) {
+            String key = COMMAND_COST_FLAG_PREFIX + type.getCommand();
+
+            if (options.containsKey(key)) {
+                costs.put(type, getPositiveInt(key, type.getDefaultCost()));
+            }
+        }
+
+        return costs;
+    }
+
+    /**
+     * Lowest in-flight limit the adaptive concurrency limit may shrink to, and the one it starts from.
+     */
+    public int getMinConcurrency() {
+        return getPositiveInt(MIN_CONCURRENCY_FLAG, DEFAULT_MIN_CONCURRENCY);
+    }
+
+    /**
+     * Highest in-flight limit the adaptive concurrency limit may grow to. Zero turns load shedding off.
+     */
+    public int getMaxConcurrency() {
+        return getNonNegativeInt(MAX_CONCURRENCY_FLAG, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    /**
+     * Responses of at least this many bytes are compressed for clients that asked for it in the handshake.
+     * Zero turns compression off.
+     */
+    public int getCompressionThreshold() {
+        return getNonNegativeInt(COMPRESSION_THRESHOLD_FLAG, DEFAULT_COMPRESSION_THRESHOLD_BYTES);
+    }
+
+    /**
+     * Port of the HTTP/JSON gateway. Zero, the default, leaves the gateway off.
+     */
+    public int getHttpPort() {
+        return getNonNegativeInt(HTTP_PORT_FLAG, DEFAULT_HTTP_PORT);
+    }
+
+    /**
+     * Path of a Unix domain socket the NIO engine listens on besides the TCP port, for clients on the
+     * same host. Null, the default, leaves it off.
+     */
+    public Path getUnixSocketPath() {
+        String path = getString(UNIX_SOCKET_FLAG, "");
+        return path.isBlank() ? null : Path.of(path);
+    }
+
+    /**
+     * A selector loop iteration running longer than this many milliseconds is reported as a stall,
+     * with the stack of the blocked thread. Zero turns the stall detector off.
+     */
+    public long getStallThresholdMillis() {
+        return getNonNegativeInt(STALL_THRESHOLD_FLAG, DEFAULT_STALL_THRESHOLD_MILLIS);
+    }
+
+    /**
+     * Path of the memory-mapped price table the server processes of one host share, so that only one of them
+     * fetches the prices. Null, the default, leaves every process with its own feed.
+     */
+    public Path getPriceTablePath() {
+        String path = getString(PRICE_TABLE_FLAG, "");
+        return path.isBlank() ? null : Path.of(path);
+    }
+
+    /**
+     * How long a session token stays valid after its last use.
+     */
+    public long getSessionTtlMillis() {
+        return TimeUnit.SECONDS.toMillis(getPositiveInt(SESSION_TTL_FLAG, DEFAULT_SESSION_TTL_SECONDS));
+    }
+
+    /**
+     * Emails allowed to run admin commands, given as --admins=a@x.com,b@y.com. Nobody by default.
+     */
+    public Set<String> getAdminEmails() {
+        return Arrays.stream(getString(ADMINS_FLAG, "").split(ADMINS_SEPARATOR))
+                .map(String::strip)
+                .filter(email -> !email.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    String getString(String key, String defaultValue) {
+        return options.getOrDefault(key, defaultValue);
+    }
+
+    int getPositiveInt(String key, int defaultValue) {
+        String value = options.get(key);
+
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed <= 0) {
+                throw new IllegalArgumentException(String.format("Option '%s' should be positive!", key));
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Option '%s' expects a number, got '%s'", key, value), e);
+        }
+    }
+
+    int getNonNegativeInt(String key, int defaultValue) {
+        String value = options.get(key);
+
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < 0) {
+                throw new IllegalArgumentException(String.format("Option '%s' should not be negative!", key));
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Option '%s' expects a number, got '%s'", key, value), e);
+        }
+    }
+
+    private static void validateArgument(String arg) {
+        if (arg == null || !arg.startsWith(FLAG_PREFIX)) {
+            throw new IllegalArgumentException("Server options are expected in the format --<option>=<value>!");
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package server.http;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import logger.Logger;
+import server.CommandRunner;
+import server.session.ClientContext;
+import server.session.Session;
+import server.session.SessionRegistry;
+import server.timer.MonotonicClock;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * REST/JSON front door to the same commands the socket protocol runs. Every route is translated into
+ * the textual command and executed through the {@link CommandRunner}, so validation, rate limiting and
+ * metrics behave exactly like over TCP. Logins are kept in the {@link SessionRegistry} and presented
+ * as bearer tokens instead of living on a socket. Handlers run on virtual threads.
+ * <p>
+ * Without a socket to charge, requests before login are charged against a request bucket per remote
+ * address, which the sessions logged in from that address keep. The least recently seen addresses are
+ * forgotten once too many are tracked.
+ */
+public class HttpGateway implements HttpHandler, AutoCloseable {
+
+    private static final String API_PATH = "/api";
+    private static final String LOGIN_ROUTE = "POST /api/login";
+    private static final String LOGOUT_ROUTE = "POST /api/logout";
+
+    private static final String AUTHORIZATION_HEADER = "Authorization";
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+
+    private static final int STATUS_OK = 200;
+    private static final int STATUS_BAD_REQUEST = 400;
+    private static final int STATUS_UNAUTHORIZED = 401;
+    private static final int STATUS_NOT_FOUND = 404;
+    private static final int STATUS_SERVER_ERROR = 500;
+
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int BACKLOG = 0;
+    private static final int STOP_DELAY_SECONDS = 1;
+    private static final int MAX_TRACKED_ADDRESSES = 10_000;
+
+    private static final Logger LOGGER = Logger.getInstance();
+
+    private final CommandRunner runner;
+    private final SessionRegistry sessions;
+    private final Gson gson;
+    private final Map<String, Route> routes;
+    private final Map<InetAddress, ClientContext> addressContexts;
+    private final ExecutorService executor;
+    private final HttpServer server;
+
+    public HttpGateway(CommandRunner runner, SessionRegistry sessions, InetSocketAddress address)
+            throws IOException {
+        validateObjectConstruction(runner, sessions, address);
+
+        this.runner = runner;
+        this.sessions = sessions;
+        this.gson = new Gson();
+        this.routes = createRoutes();
+        this.addressContexts = createAddressContexts();
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.createContext(API_PATH, this);
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(STOP_DELAY_SECONDS);
+        executor.close();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) {
+        try {
+            String route = exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath();
+
+            if (route.equals(LOGIN_ROUTE)) {
+                login(exchange);
+            } else if (route.equals(LOGOUT_ROUTE)) {
+                logout(exchange);
+            } else if (routes.containsKey(route)) {
+                serve(exchange, routes.get(route));
+            } else {
+                respond(exchange, STATUS_NOT_FOUND, Map.of("error", "No such route: " + route));
+            }
+        } catch (BadRequestException e) {
+            respondQuietly(exchange, STATUS_BAD_REQUEST, Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            LOGGER.log(e, "SYSTEM_HTTP");
+        } catch (RuntimeException e) {
+            LOGGER.log(e, "SYSTEM_HTTP");
+            respondQuietly(exchange, STATUS_SERVER_ERROR, Map.of("error", "Internal server error"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void serve(HttpExchange exchange, Route route) throws IOException {
+        JsonObject body = readBody(exchange);
+        String command = route.command().apply(body);
+
+        if (!route.authenticated()) {
+            respond(exchange, STATUS_OK, Map.of("result", runner.run(command, newAnonymousContext(exchange))));
+            return;
+        }
+
+        Session session = findSession(exchange);
+
+        if (session == null) {
+            respond(exchange, STATUS_UNAUTHORIZED, Map.of("error", "Missing, invalid or expired session token"));
+            return;
+        }
+
+        respond(exchange, STATUS_OK, Map.of("result", runInSession(session, command)));
+    }
+
+    private void login(HttpExchange exchange) throws IOException {
+        JsonObject body = readBody(exchange);
+        String command = String.format("login --username=%s --password=%s",
+                requireWord(body, "email"), requireWord(body, "password"));
+
+        ClientContext context = newAnonymousContext(exchange);
+        String result = runner.run(command, context);
+
+        if (!context.isLoggedIn()) {
+            respond(exchange, STATUS_UNAUTHORIZED, Map.of("error", result));
+            return;
+        }
+
+        Session session = sessions.find(context.getSessionToken(), MonotonicClock.millis());
+
+        if (session == null) {
+            session = sessions.create(context, MonotonicClock.millis());
+        }
+
+        respond(exchange, STATUS_OK, Map.of("result", result, "token", session.getToken()));
+    }
+
+    private void logout(HttpExchange exchange) throws IOException {
+        Session session = findSession(exchange);
+
+        if (session == null) {
+            respond(exchange, STATUS_UNAUTHORIZED, Map.of("error", "Missing, invalid or expired session token"));
+            return;
+        }
+
+        String result = runInSession(session, "logout");
+        sessions.invalidate(session.getToken());
+
+        respond(exchange, STATUS_OK, Map.of("result", result));
+    }
+
+    private String runInSession(Session session, String command) {
+        session.getLock().lock();
+
+        try {
+            return runner.run(command, session.getContext());
+        } finally {
+            session.getLock().unlock();
+        }
+    }
+
+    /**
+     * A context charged against the request bucket of the caller's address.
+     */
+    private ClientContext newAnonymousContext(HttpExchange exchange) {
+        InetAddress address = exchange.getRemoteAddress().getAddress();
+
+        synchronized (addressContexts) {
+            return addressContexts.computeIfAbsent(address, ignored -> new ClientContext()).newSession();
+        }
+    }
+
+    private Session findSession(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst(AUTHORIZATION_HEADER);
+
+        if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+
+        return sessions.find(authorization.substring(BEARER_PREFIX.length()).strip(), MonotonicClock.millis());
+    }
+
+    private JsonObject readBody(HttpExchange exchange) throws IOException {
+        try (InputStream input = exchange.getRequestBody()) {
+            byte[] bytes = input.readNBytes(MAX_BODY_BYTES + 1);
+
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new BadRequestException("Request body is too large");
+            }
+
+            if (bytes.length == 0) {
+                return new JsonObject();
+            }
+
+            JsonElement json = JsonParser.parseString(new String(bytes, StandardCharsets.UTF_8));
+
+            if (!json.isJsonObject()) {
+                throw new BadRequestException("Request body should be a JSON object");
+            }
+
+            return json.getAsJsonObject();
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new BadRequestException("Request body is not valid JSON");
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, Map<String, String> body) throws IOException {
+        byte[] bytes = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, bytes.length);
+
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private void respondQuietly(HttpExchange exchange, int status, Map<String, String> body) {
+        try {
+            respond(exchange, status, body);
+        } catch (IOException e) {
+            LOGGER.log(e, "SYSTEM_HTTP");
+        }
+    }
+
+    /**
+     * Values are spliced into a whitespace separated command, so they must be single words.
+     */
+    private static String requireWord(JsonObject body, String field) {
+        JsonElement value = body.get(field);
+
+        if (value == null || !value.isJsonPrimitive() || value.getAsString().isBlank()) {
+            throw new BadRequestException(String.format("Field '%s' is required", field));
+        }
+
+        String word = value.getAsString().strip();
+
+        if (word.chars().anyMatch(Character::isWhitespace)) {
+            throw new BadRequestException(String.format("Field '%s' should not contain whitespace", field));
+        }
+
+        return word;
+    }
+
+    private static Map<String, Route> createRoutes() {
+        Map<String, Route> routes = new HashMap<>();
+
+        routes.put("GET /api/help", Route.open(body -> "help"));
+        routes.put("GET /api/offerings", Route.open(body -> "list-offerings"));
+        routes.put("POST /api/register", Route.open(body -> String.format("register --username=%s --password=%s",
+                requireWord(body, "email"), requireWord(body, "password"))));
+
+        routes.put("POST /api/deposit", Route.authenticated(body ->
+                "deposit " + requireWord(body, "amount")));
+        routes.put("POST /api/buy", Route.authenticated(body -> String.format("buy --offering=%s --money=%s",
+                requireWord(body, "offering"), requireWord(body, "money"))));
+        routes.put("POST /api/sell", Route.authenticated(body ->
+                "sell --offering=" + requireWord(body, "offering")));
+        routes.put("GET /api/wallet/summary", Route.authenticated(body -> "get-wallet-summary"));
+        routes.put("GET /api/wallet/overall-summary", Route.authenticated(body -> "get-wallet-overall-summary"));
+        routes.put("GET /api/stats", Route.authenticated(body -> "stats"));
+
+        return Map.copyOf(routes);
+    }
+
+    /**
+     * Access-ordered, so going over the limit forgets the address seen least recently instead of every
+     * address's bucket at once. Guarded by its own monitor.
+     */
+    private static Map<InetAddress, ClientContext> createAddressContexts() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<InetAddress, ClientContext> eldest) {
+                return size() > MAX_TRACKED_ADDRESSES;
+            }
+        };
+    }
+
+    private static void validateObjectConstruction(CommandRunner runner, SessionRegistry sessions,
+                                                   InetSocketAddress address) {
+        if (runner == null) {
+            throw new IllegalArgumentException("Parameter 'runner' used to construct HttpGateway is null!");
+        }
+
+        if (sessions == null) {
+            throw new IllegalArgumentException("Parameter 'sessions' used to construct HttpGateway is null!");
+        }
+
+        if (address == null) {
+            throw new IllegalArgumentException("Parameter 'address' used to construct HttpGateway is null!");
+        }
+    }
+
+    private record Route(boolean authenticated, Function<JsonObject, String> command) {
+        static Route open(Function<JsonObject, String> command) {
+            return new Route(false, command);
+        }
+
+        static Route authenticated(Function<JsonObject, String> command) {
+            return new Route(true, command);
+        }
+    }
+
+    private static class BadRequestException extends RuntimeException {
+        BadRequestException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package server.limit;
+
+import metrics.MetricsRegistry;
+
+/**
+ * Adaptive limit on the number of requests executing at once, in the spirit of the gradient limit of
+ * Netflix's concurrency-limits. Latencies are averaged over windows of samples and every window is compared
+ * with a slowly moving long-term average. When requests queue up behind a slow resource the window average
+ * rises above the long-term one and the limit shrinks in proportion; otherwise it grows by about its square
+ * root per window, but only while at least half of it is in use.
+ * <p>
+ * Requests over the limit are not queued: {@link #tryAcquire()} fails at once and the caller answers
+ * {@link #SERVER_BUSY_MESSAGE}, so clients back off instead of timing out.
+ */
+public class ConcurrencyLimiter {
+
+    public static final String SERVER_BUSY_MESSAGE = "Server is overloaded at the moment. Try again later!";
+
+    private static final int WINDOW_SAMPLES = 50;
+    private static final double LONG_WINDOWS = 600;
+    private static final double TOLERANCE = 1.5;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * A long-term average this many times the current one is stale, e.g. after an outage, and decays faster.
+     */
+    private static final double RECOVERY_RATIO = 2;
+    private static final double RECOVERY_DECAY = 0.95;
+
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final boolean adaptive;
+
+    private double limit;
+    private int inFlight;
+
+    private int windowSamples;
+    private long windowLatencyNanos;
+    private int windowMaxInFlight;
+    private double longLatencyNanos;
+
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        validateObjectConstruction(initialLimit, minLimit, maxLimit);
+
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.adaptive = true;
+        this.limit = initialLimit;
+
+        METRICS.setConcurrencyLimit(initialLimit);
+    }
+
+    private ConcurrencyLimiter() {
+        this.minLimit = Integer.MAX_VALUE;
+        this.maxLimit = Integer.MAX_VALUE;
+        this.adaptive = false;
+        this.limit = Integer.MAX_VALUE;
+    }
+
+    public static ConcurrencyLimiter unlimited() {
+        return new ConcurrencyLimiter();
+    }
+
+    /**
+     * Starts at the minimum and adapts up to the maximum. A maximum of zero turns the limit off.
+     */
+    public static ConcurrencyLimiter create(int minLimit, int maxLimit) {
+        if (maxLimit == 0) {
+            return unlimited();
+        }
+
+        return new ConcurrencyLimiter(Math.min(minLimit, maxLimit), Math.min(minLimit, maxLimit), maxLimit);
+    }
+
+    /**
+     * Returns false without waiting when the limit is reached. Every successful call must be
+     * followed by exactly one {@link #release(long)} or {@link #cancel()}.
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            METRICS.requestShed();
+            return false;
+        }
+
+        inFlight++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+        return true;
+    }
+
+    /**
+     * Completes a request and feeds its latency, measured from acquiring, into the limit.
+     */
+    public synchronized void release(long latencyNanos) {
+        inFlight--;
+
+        if (!adaptive) {
+            return;
+        }
+
+        windowSamples++;
+        windowLatencyNanos += Math.max(0, latencyNanos);
+
+        if (windowSamples >= WINDOW_SAMPLES) {
+            adjustLimit((double) windowLatencyNanos / windowSamples);
+
+            windowSamples = 0;
+            windowLatencyNanos = 0;
+            windowMaxInFlight = inFlight;
+        }
+    }
+
+    /**
+     * Completes a request that was never executed, without sampling its latency.
+     */
+    public synchronized void cancel() {
+        inFlight--;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private void adjustLimit(double windowLatencyNanos) {
+        if (longLatencyNanos == 0) {
+            longLatencyNanos = windowLatencyNanos;
+        } else {
+            longLatencyNanos += (windowLatencyNanos - longLatencyNanos) / LONG_WINDOWS;
+        }
+
+        if (longLatencyNanos > RECOVERY_RATIO * windowLatencyNanos) {
+            longLatencyNanos *= RECOVERY_DECAY;
+        }
+
+        // an idle server says nothing about how much more it could take
+        if (windowMaxInFlight < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.clamp(TOLERANCE * longLatencyNanos / windowLatencyNanos, MIN_GRADIENT, 1.0);
+        double newLimit = limit * gradient + Math.sqrt(limit);
+
+        limit = Math.clamp(limit * (1 - SMOOTHING) + newLimit * SMOOTHING, minLimit, maxLimit);
+        METRICS.setConcurrencyLimit((int) limit);
+    }
+
+    private static void validateObjectConstruction(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit <= 0) {
+            throw new IllegalArgumentException("Parameter 'minLimit' used to construct ConcurrencyLimiter should be positive!");
+        }
+
+        if (maxLimit < minLimit) {
+            throw new IllegalArgumentException(
+                    "Parameter 'maxLimit' used to construct ConcurrencyLimiter should not be below 'minLimit'!");
+        }
+
+        if (initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException(
+                    "Parameter 'initialLimit' used to construct ConcurrencyLimiter should be within the limits!");
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package server.pipeline;
+
+import command.CommandDispatcher;
+import command.type.CommandType;
+import command.type.PriorityClass;
+import logger.Logger;
+import metrics.MetricsRegistry;
+import repository.UserRepository;
+import server.limit.ConcurrencyLimiter;
+import server.session.ClientContext;
+import server.timer.Deadline;
+import server.timer.MonotonicClock;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Runs client requests through bounded stages so that nothing slow happens on a selector thread:
+ * the selector decodes the request, the execute stage runs the command, the persist stage writes
+ * the pending repository changes and the response is handed back to the selector to be written.
+ * The execute stage serves trades ahead of reports, see {@link PriorityTaskQueue}.
+ */
+public class CommandPipeline implements AutoCloseable {
+
+    public static final String PERSIST_FAILED_MESSAGE =
+            "Your request was processed but could not be saved. Try again later or contact administrator!";
+
+    private static final String EXECUTE_STAGE_NAME = "execute";
+    private static final String PERSIST_STAGE_NAME = "persist";
+    private static final int PERSIST_THREADS = 1;
+
+    private static final String EXECUTE_FAILED_MESSAGE =
+            "Your request could not be processed. Try again later or contact administrator!";
+
+    private static final ByteBuffer EXPIRED_RESPONSE = ByteBuffer.wrap(
+            Deadline.EXPIRED_MESSAGE.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+
+    private static final Logger LOGGER = Logger.getInstance();
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
+    private final CommandDispatcher dispatcher;
+    private final UserRepository repository;
+    private final ConcurrencyLimiter limiter;
+
+    private final PipelineStage executeStage;
+    private final PipelineStage persistStage;
+
+    public CommandPipeline(CommandDispatcher dispatcher, int executeThreads, int queueCapacity) {
+        this(dispatcher, executeThreads, queueCapacity, ConcurrencyLimiter.unlimited());
+    }
+
+    public CommandPipeline(CommandDispatcher dispatcher, int executeThreads, int queueCapacity,
+                           ConcurrencyLimiter limiter) {
+        validateObjectConstruction(dispatcher, limiter);
+
+        this.dispatcher = dispatcher;
+        this.repository = dispatcher.getCommandFactory().getUserRepository();
+        this.limiter = limiter;
+        this.executeStage = new PipelineStage(EXECUTE_STAGE_NAME, executeThreads, new PriorityTaskQueue(queueCapacity));
+        this.persistStage = new PipelineStage(PERSIST_STAGE_NAME, PERSIST_THREADS, queueCapacity);
+    }
+
+    /**
+     * Returns false without blocking when the concurrency limit is reached or the execute stage is saturated.
+     * Otherwise the UTF-8 encoded response is passed to the sink exactly once, from a pipeline thread.
+     * The buffer may be shared with other connections and must not be modified.
+     * The time until the response is ready, queueing and persisting included, feeds the concurrency limit.
+     */
+    public boolean submit(String clientRequest, ClientContext context, Consumer<ByteBuffer> responseSink) {
+        return submit(clientRequest, context, Deadline.NONE, responseSink);
+    }
+
+    /**
+     * A request still queued when its deadline passes is answered with {@link Deadline#EXPIRED_MESSAGE}
+     * without being executed.
+     */
+    public boolean submit(String clientRequest, ClientContext context, long deadlineNanos,
+                          Consumer<ByteBuffer> responseSink) {
+        if (!limiter.tryAcquire()) {
+            return false;
+        }
+
+        long submittedNanos = System.nanoTime();
+        AtomicBoolean answered = new AtomicBoolean();
+        Consumer<ByteBuffer> limitedSink = response -> {
+            if (answered.getAndSet(true)) {
+                return;
+            }
+
+            try {
+                responseSink.accept(response);
+            } finally {
+                limiter.release(System.nanoTime() - submittedNanos);
+            }
+        };
+
+        if (!executeStage.submit(() -> executeSafely(clientRequest, context, deadlineNanos, limitedSink),
+                priorityOf(clientRequest))) {
+            limiter.cancel();
+            return false;
+        }
+
+        return true;
+    }
+
+    public List<PipelineStage> getStages() {
+        return List.of(executeStage, persistStage);
+    }
+
+    /**
+     * Lets the execute stage finish its queued commands, then the persist stage write their changes,
+     * both within the deadline, and finally flushes whatever is still pending in the repository.
+     * Returns false if the stages could not be drained in time.
+     */
+    public boolean shutdown(long deadlineMillis) {
+        boolean executeDrained = executeStage.shutdown(deadlineMillis - MonotonicClock.millis());
+        boolean persistDrained = persistStage.shutdown(deadlineMillis - MonotonicClock.millis());
+
+        try {
+            repository.saveAllUsers();
+        } catch (RuntimeException e) {
+            LOGGER.log(e, "SYSTEM_PERSIST");
+        }
+
+        return executeDrained && persistDrained;
+    }
+
+    @Override
+    public void close() {
+        executeStage.close();
+        persistStage.close();
+    }
+
+    /**
+     * Answers every request exactly once, even when executing it fails, so its concurrency permit
+     * is always given back.
+     */
+    private void executeSafely(String clientRequest, ClientContext context, long deadlineNanos,
+                               Consumer<ByteBuffer> responseSink) {
+        try {
+            execute(clientRequest, context, deadlineNanos, responseSink);
+        } catch (RuntimeException e) {
+            LOGGER.log(e, "SYSTEM_EXECUTE");
+            responseSink.accept(ByteBuffer.wrap(EXECUTE_FAILED_MESSAGE.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    /**
+     * Only a command that may have changed a user waits for the pending changes to be written;
+     * the others reply at once, even while someone else's changes are pending.
+     */
+    private void execute(String clientRequest, ClientContext context, long deadlineNanos,
+                         Consumer<ByteBuffer> responseSink) {
+        if (Deadline.hasPassed(deadlineNanos)) {
+            METRICS.requestExpired();
+            responseSink.accept(EXPIRED_RESPONSE.duplicate());
+            return;
+        }
+
+        ByteBuffer response = dispatcher.dispatchEncoded(clientRequest, context);
+
+        if (!modifiesUsers(clientRequest) || !repository.hasPendingChanges()) {
+            responseSink.accept(response);
+            return;
+        }
+
+        if (!persistStage.submit(() -> persist(response, responseSink))) {
+            persist(response, responseSink);
+        }
+    }
+
+    private void persist(ByteBuffer response, Consumer<ByteBuffer> responseSink) {
+        try {
+            repository.flushPendingChanges();
+        } catch (RuntimeException e) {
+            LOGGER.log(e, "SYSTEM_PERSIST");
+            responseSink.accept(ByteBuffer.wrap(PERSIST_FAILED_MESSAGE.getBytes(StandardCharsets.UTF_8)));
+            return;
+        }
+
+        responseSink.accept(response);
+    }
+
+    private static boolean modifiesUsers(String clientRequest) {
+        CommandType type = CommandType.fromRequest(clientRequest);
+        return type != null && CommandType.modifiesUsers(type);
+    }
+
+    private static PriorityClass priorityOf(String clientRequest) {
+        CommandType type = CommandType.fromRequest(clientRequest);
+        return type == null ? PriorityClass.STANDARD : CommandType.priorityOf(type);
+    }
+
+    private static void validateObjectConstruction(CommandDispatcher dispatcher, ConcurrencyLimiter limiter) {
+        if (dispatcher == null) {
+            throw new IllegalArgumentException("Parameter 'dispatcher' used to construct CommandPipeline is null!");
+        }
+
+        if (limiter == null) {
+            throw new IllegalArgumentException("Parameter 'limiter' used to construct CommandPipeline is null!");
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package server.pipeline;
+
+import command.type.PriorityClass;
+import logger.Logger;
+import server.pipeline.PriorityTaskQueue.PrioritizedTask;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PipelineStage implements AutoCloseable {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    private static final long NANOS_IN_MICRO = 1_000;
+
+    private static final Logger LOGGER = Logger.getInstance();
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder submittedTasks;
+    private final LongAdder completedTasks;
+    private final LongAdder rejectedTasks;
+    private final LongAdder totalLatencyNanos;
+    private final AtomicLong maxLatencyNanos;
+
+    public PipelineStage(String name, int threads, int queueCapacity) {
+        this(name, threads, createQueue(queueCapacity));
+    }
+
+    /**
+     * The queue decides the order tasks are served in and must be bounded, since a full queue is what rejects.
+     */
+    public PipelineStage(String name, int threads, BlockingQueue<Runnable> queue) {
+        validateObjectConstruction(name, threads, queue);
+
+        this.name = name;
+        this.executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                queue, namedThreadFactory(name), new ThreadPoolExecutor.AbortPolicy());
+
+        this.submittedTasks = new LongAdder();
+        this.completedTasks = new LongAdder();
+        this.rejectedTasks = new LongAdder();
+        this.totalLatencyNanos = new LongAdder();
+        this.maxLatencyNanos = new AtomicLong();
+    }
+
+    /**
+     * Never blocks the caller - when the stage queue is full the task is rejected and false is returned.
+     */
+    public boolean submit(Runnable task) {
+        return submit(task, PriorityClass.STANDARD);
+    }
+
+    /**
+     * The priority only matters to a stage whose queue is a {@link PriorityTaskQueue}.
+     */
+    public boolean submit(Runnable task, PriorityClass priority) {
+        long enqueuedAt = System.nanoTime();
+
+        try {
+            executor.execute(new PrioritizedTask(priority, () -> runMeasured(task, enqueuedAt)));
+            submittedTasks.increment();
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejectedTasks.increment();
+            return false;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveTasks() {
+        return executor.getActiveCount();
+    }
+
+    public long getSubmittedTasks() {
+        return submittedTasks.sum();
+    }
+
+    public long getCompletedTasks() {
+        return completedTasks.sum();
+    }
+
+    public long getRejectedTasks() {
+        return rejectedTasks.sum();
+    }
+
+    public long getAverageLatencyMicros() {
+        long completed = completedTasks.sum();
+        return completed == 0 ? 0 : totalLatencyNanos.sum() / completed / NANOS_IN_MICRO;
+    }
+
+    public long getMaxLatencyMicros() {
+        return maxLatencyNanos.get() / NANOS_IN_MICRO;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Stops accepting tasks and waits for the queued ones to finish.
+     * Returns false if they did not finish in time; they are left running.
+     */
+    public boolean shutdown(long timeoutMillis) {
+        executor.shutdown();
+
+        try {
+            return executor.awaitTermination(Math.max(0, timeoutMillis), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.log(e, "SYSTEM_PIPELINE_" + name);
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: queued=%d, active=%d, completed=%d, rejected=%d, avg=%dus, max=%dus",
+                name, getQueueDepth(), getActiveTasks(), getCompletedTasks(), getRejectedTasks(),
+                getAverageLatencyMicros(), getMaxLatencyMicros());
+    }
+
+    private void runMeasured(Runnable task, long enqueuedAt) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            LOGGER.log(e, "SYSTEM_PIPELINE_" + name);
+        } finally {
+            long latency = System.nanoTime() - enqueuedAt;
+
+            completedTasks.increment();
+            totalLatencyNanos.add(latency);
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        }
+    }
+
+    private static ThreadFactory namedThreadFactory(String name) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return task -> new Thread(task, name + "-" + threadNumber.getAndIncrement());
+    }
+
+    private static BlockingQueue<Runnable> createQueue(int queueCapacity) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Pipeline stage threads and queue capacity should be positive!");
+        }
+
+        return new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    private static void validateObjectConstruction(String name, int threads, BlockingQueue<Runnable> queue) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Pipeline stage name should not be null or blank!");
+        }
+
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Pipeline stage threads and queue capacity should be positive!");
+        }
+
+        if (queue == null) {
+            throw new IllegalArgumentException("Pipeline stage queue should not be null!");
+        }
+    }
+}
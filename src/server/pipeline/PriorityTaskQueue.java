@@ -0,0 +1,320 @@
+package server.pipeline;
+
+import command.type.PriorityClass;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded work queue of a {@link PipelineStage} that serves its tasks by {@link PriorityClass} with weighted
+ * round robin: every class gets as many turns as its weight, higher classes first, and the turns are refilled
+ * once no waiting class has any left. Tasks of one class are served in arrival order.
+ * <p>
+ * Fairness between clients comes from each session having at most one request in flight:
+ * a busy session waits for its reply before its next request joins the queue behind everyone else's.
+ * Tasks that are not {@link PrioritizedTask}s are treated as {@link PriorityClass#STANDARD}.
+ */
+public class PriorityTaskQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+    private static final PriorityClass DEFAULT_PRIORITY = PriorityClass.STANDARD;
+
+    private final int capacity;
+    private final Map<PriorityClass, ArrayDeque<Runnable>> queues;
+    private final Map<PriorityClass, Integer> turns;
+
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final Condition notFull;
+
+    private int size;
+
+    public PriorityTaskQueue(int capacity) {
+        validateObjectConstruction(capacity);
+
+        this.capacity = capacity;
+        this.queues = new EnumMap<>(PriorityClass.class);
+        this.turns = new EnumMap<>(PriorityClass.class);
+        this.lock = new ReentrantLock();
+        this.notEmpty = lock.newCondition();
+        this.notFull = lock.newCondition();
+
+        for (PriorityClass priority : PriorityClass.values()) {
+            queues.put(priority, new ArrayDeque<>());
+            turns.put(priority, priority.getWeight());
+        }
+    }
+
+    @Override
+    public boolean offer(Runnable task) {
+        validateTask(task);
+
+        lock.lock();
+        try {
+            if (size == capacity) {
+                return false;
+            }
+
+            enqueue(task);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(Runnable task, long timeout, TimeUnit unit) throws InterruptedException {
+        validateTask(task);
+        long remainingNanos = unit.toNanos(timeout);
+
+        lock.lockInterruptibly();
+        try {
+            while (size == capacity) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = notFull.awaitNanos(remainingNanos);
+            }
+
+            enqueue(task);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(Runnable task) throws InterruptedException {
+        validateTask(task);
+
+        lock.lockInterruptibly();
+        try {
+            while (size == capacity) {
+                notFull.await();
+            }
+
+            enqueue(task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll() {
+        lock.lock();
+        try {
+            return size == 0 ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long remainingNanos = unit.toNanos(timeout);
+
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                if (remainingNanos <= 0) {
+                    return null;
+                }
+                remainingNanos = notEmpty.awaitNanos(remainingNanos);
+            }
+
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the task the next poll would return, without using up a turn.
+     */
+    @Override
+    public Runnable peek() {
+        lock.lock();
+        try {
+            if (size == 0) {
+                return null;
+            }
+
+            // once the round is over, the next poll refills the turns and serves the highest waiting class
+            PriorityClass next = nextClass();
+            return queues.get(next == null ? highestWaitingClass() : next).peekFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object task) {
+        lock.lock();
+        try {
+            for (ArrayDeque<Runnable> queue : queues.values()) {
+                if (queue.removeFirstOccurrence(task)) {
+                    size--;
+                    notFull.signal();
+                    return true;
+                }
+            }
+
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return capacity - size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> target) {
+        return drainTo(target, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> target, int maxElements) {
+        if (target == null || target == this) {
+            throw new IllegalArgumentException("Tasks cannot be drained to a null collection or the queue itself!");
+        }
+
+        lock.lock();
+        try {
+            int drained = 0;
+            while (drained < maxElements && size > 0) {
+                target.add(dequeue());
+                drained++;
+            }
+
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Iterates over a snapshot of the waiting tasks, highest class first; removing through it is not supported.
+     */
+    @Override
+    public Iterator<Runnable> iterator() {
+        lock.lock();
+        try {
+            List<Runnable> snapshot = new ArrayList<>(size);
+            queues.values().forEach(snapshot::addAll);
+            return List.copyOf(snapshot).iterator();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(Runnable task) {
+        queues.get(priorityOf(task)).addLast(task);
+        size++;
+        notEmpty.signal();
+    }
+
+    private Runnable dequeue() {
+        PriorityClass next = nextClass();
+        if (next == null) {
+            turns.replaceAll((priority, left) -> priority.getWeight());
+            next = nextClass();
+        }
+
+        turns.merge(next, -1, Integer::sum);
+        size--;
+        notFull.signal();
+
+        return queues.get(next).pollFirst();
+    }
+
+    /**
+     * The highest waiting class with turns left, or null when the round is over.
+     */
+    private PriorityClass nextClass() {
+        for (Map.Entry<PriorityClass, ArrayDeque<Runnable>> entry : queues.entrySet()) {
+            if (!entry.getValue().isEmpty() && turns.get(entry.getKey()) > 0) {
+                return entry.getKey();
+            }
+        }
+
+        return null;
+    }
+
+    private PriorityClass highestWaitingClass() {
+        for (Map.Entry<PriorityClass, ArrayDeque<Runnable>> entry : queues.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                return entry.getKey();
+            }
+        }
+
+        return null;
+    }
+
+    private static PriorityClass priorityOf(Runnable task) {
+        return task instanceof PrioritizedTask prioritized ? prioritized.priority() : DEFAULT_PRIORITY;
+    }
+
+    private static void validateTask(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException("Queued task should not be null!");
+        }
+    }
+
+    private static void validateObjectConstruction(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Parameter 'capacity' used to construct PriorityTaskQueue should be positive!");
+        }
+    }
+
+    /**
+     * A task tagged with the class it is scheduled in.
+     */
+    public record PrioritizedTask(PriorityClass priority, Runnable task) implements Runnable {
+
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package server.reactor;
+
+import protocol.Frame;
+import protocol.FrameCodec;
+import server.buffer.BufferPool;
+import server.buffer.ChainedBuffer;
+import server.session.ClientContext;
+import server.session.SessionTable;
+import server.timer.Deadline;
+import server.timer.HashedTimerWheel.Timeout;
+import server.timer.MonotonicClock;
+
+import java.nio.channels.SelectionKey;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Per-socket state of a connection served by a {@link WorkerReactor}.
+ * Requests of one logical session are executed one at a time and in the order they arrived;
+ * requests of different sessions multiplexed over the connection may execute concurrently.
+ * Reads are paused while too many requests are pipelined or while the outbound queue is above its limit.
+ */
+public class Connection {
+
+    private static final int LOW_WATERMARK_DIVISOR = 2;
+    private static final int MAX_PIPELINED_REQUESTS = 64;
+
+    private final SessionTable sessions;
+    private final ChainedBuffer inbound;
+    private final OutboundQueue outboundQueue;
+    private final Deque<PendingRequest> pendingRequests;
+    private final Set<Integer> sessionsInFlight;
+    private final Set<Integer> deferredPushes;
+    private final long outboundHighWatermark;
+    private final long outboundLowWatermark;
+
+    private final long connectedAtMillis;
+
+    private boolean readPausedByBackpressure;
+    private boolean readStopped;
+    private boolean compressionEnabled;
+    private long lastActivityMillis;
+    private long lastHeartbeatMillis;
+    private Timeout<?> timeout;
+
+    public Connection(ClientContext context, BufferPool pool, long outboundLimit) {
+        this(context, pool, outboundLimit, MonotonicClock.millis());
+    }
+
+    public Connection(ClientContext context, BufferPool pool, long outboundLimit, long connectedAtMillis) {
+        validateObjectConstruction(context, pool, outboundLimit);
+
+        this.sessions = new SessionTable(context);
+        this.inbound = new ChainedBuffer(pool);
+        this.outboundQueue = new OutboundQueue(pool);
+        this.pendingRequests = new ArrayDeque<>();
+        this.sessionsInFlight = new HashSet<>();
+        this.deferredPushes = new HashSet<>();
+        this.outboundHighWatermark = outboundLimit;
+        this.outboundLowWatermark = outboundLimit / LOW_WATERMARK_DIVISOR;
+        this.connectedAtMillis = connectedAtMillis;
+        this.lastActivityMillis = connectedAtMillis;
+        this.lastHeartbeatMillis = connectedAtMillis;
+    }
+
+    /**
+     * The context of the connection's default session.
+     */
+    public ClientContext getContext() {
+        return sessions.getDefault();
+    }
+
+    public SessionTable getSessions() {
+        return sessions;
+    }
+
+    public ChainedBuffer getInbound() {
+        return inbound;
+    }
+
+    public OutboundQueue getOutboundQueue() {
+        return outboundQueue;
+    }
+
+    /**
+     * Decodes the next complete request from the inbound bytes or returns null if it has not fully arrived yet.
+     */
+    public Frame decodeNextRequest(int maxRequestSize) {
+        if (inbound.remaining() < FrameCodec.LENGTH_FIELD_SIZE) {
+            return null;
+        }
+
+        int length = inbound.peekInt();
+        FrameCodec.validateLength(length, maxRequestSize);
+
+        if (inbound.remaining() < FrameCodec.LENGTH_FIELD_SIZE + length) {
+            return null;
+        }
+
+        inbound.getInt();
+        long requestId = inbound.getLong();
+        byte flags = inbound.get();
+        byte[] payload = new byte[length - FrameCodec.HEADER_SIZE];
+        inbound.get(payload);
+
+        return new Frame(requestId, flags, payload);
+    }
+
+    public void release() {
+        setTimeout(null);
+        sessions.clearWatchLists();
+        inbound.release();
+        outboundQueue.clear();
+        pendingRequests.clear();
+    }
+
+    /**
+     * The deadline of the request, if it has one, starts counting now, so waiting behind the
+     * requests pipelined before it counts as well.
+     */
+    public void addPendingRequest(Frame request) {
+        pendingRequests.addLast(new PendingRequest(request, Deadline.of(request, System.nanoTime())));
+    }
+
+    /**
+     * Returns the oldest request whose session has no request in flight, or null when there is none.
+     */
+    public PendingRequest pollNextRequest() {
+        Iterator<PendingRequest> iterator = pendingRequests.iterator();
+
+        while (iterator.hasNext()) {
+            PendingRequest request = iterator.next();
+
+            if (sessionsInFlight.add(request.frame().sessionId())) {
+                iterator.remove();
+                return request;
+            }
+        }
+
+        return null;
+    }
+
+    public void completeRequest() {
+        completeRequest(Frame.DEFAULT_SESSION_ID);
+    }
+
+    public void completeRequest(int sessionId) {
+        sessionsInFlight.remove(sessionId);
+    }
+
+    public boolean hasRequestInFlight() {
+        return !sessionsInFlight.isEmpty();
+    }
+
+    public long getConnectedAtMillis() {
+        return connectedAtMillis;
+    }
+
+    public long getLastActivityMillis() {
+        return lastActivityMillis;
+    }
+
+    public void recordActivity(long nowMillis) {
+        lastActivityMillis = nowMillis;
+    }
+
+    public long getLastHeartbeatMillis() {
+        return lastHeartbeatMillis;
+    }
+
+    public void recordHeartbeat(long nowMillis) {
+        lastHeartbeatMillis = nowMillis;
+    }
+
+    /**
+     * Replaces the pending timeout check of this connection, cancelling the previous one.
+     */
+    public void setTimeout(Timeout<?> timeout) {
+        if (this.timeout != null) {
+            this.timeout.cancel();
+        }
+
+        this.timeout = timeout;
+    }
+
+    public boolean isReadPaused() {
+        return readStopped || pendingRequests.size() >= MAX_PIPELINED_REQUESTS || readPausedByBackpressure;
+    }
+
+    /**
+     * Stops reading for good, e.g. while the server shuts down. Requests already read are still served.
+     */
+    public void stopReading() {
+        readStopped = true;
+    }
+
+    /**
+     * True when every request read so far has been answered and the answers are written out.
+     */
+    public boolean isIdle() {
+        return sessionsInFlight.isEmpty() && pendingRequests.isEmpty() && outboundQueue.isEmpty();
+    }
+
+    public void enableCompression() {
+        compressionEnabled = true;
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    /**
+     * Price pushes are only queued while the outbound queue is below its low watermark. Otherwise they are
+     * deferred and keep conflating in the watch list until the socket catches up.
+     */
+    public boolean canAcceptPushes() {
+        return outboundQueue.getQueuedBytes() <= outboundLowWatermark;
+    }
+
+    public void deferPush(int sessionId) {
+        deferredPushes.add(sessionId);
+    }
+
+    /**
+     * Returns, once, the sessions whose deferred pushes can now be written.
+     */
+    public List<Integer> resumeDeferredPushes() {
+        if (deferredPushes.isEmpty() || !canAcceptPushes()) {
+            return List.of();
+        }
+
+        List<Integer> resumed = new ArrayList<>(deferredPushes);
+        deferredPushes.clear();
+        return resumed;
+    }
+
+    public int getInterestOps() {
+        updateBackpressure();
+
+        int interestOps = 0;
+
+        if (!isReadPaused()) {
+            interestOps |= SelectionKey.OP_READ;
+        }
+
+        if (!outboundQueue.isEmpty()) {
+            interestOps |= SelectionKey.OP_WRITE;
+        }
+
+        return interestOps;
+    }
+
+    private void updateBackpressure() {
+        long queuedBytes = outboundQueue.getQueuedBytes();
+
+        if (queuedBytes > outboundHighWatermark) {
+            readPausedByBackpressure = true;
+        } else if (queuedBytes <= outboundLowWatermark) {
+            readPausedByBackpressure = false;
+        }
+    }
+
+    private static void validateObjectConstruction(ClientContext context, BufferPool pool, long outboundLimit) {
+        if (context == null) {
+            throw new IllegalArgumentException("Parameter 'context' used to construct Connection is null!");
+        }
+
+        if (pool == null) {
+            throw new IllegalArgumentException("Parameter 'pool' used to construct Connection is null!");
+        }
+
+        if (outboundLimit <= 0) {
+            throw new IllegalArgumentException("The outbound limit of a connection should be positive!");
+        }
+    }
+
+    public record PendingRequest(Frame frame, long deadlineNanos) {
+    }
+}
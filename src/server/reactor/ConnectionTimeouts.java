@@ -0,0 +1,78 @@
+package server.reactor;
+
+/**
+ * Decides when a {@link Connection} has to be reaped or probed with a heartbeat.
+ * A connection expires when it sends nothing for the idle timeout or does not log in within the login timeout.
+ * Connections with a request in flight are never reaped - the silence is on our side.
+ */
+public class ConnectionTimeouts {
+
+    public static final long HEARTBEAT_DISABLED = 0;
+
+    private final long idleTimeoutMillis;
+    private final long loginTimeoutMillis;
+    private final long heartbeatIntervalMillis;
+
+    public ConnectionTimeouts(long idleTimeoutMillis, long loginTimeoutMillis, long heartbeatIntervalMillis) {
+        validateObjectConstruction(idleTimeoutMillis, loginTimeoutMillis, heartbeatIntervalMillis);
+
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.loginTimeoutMillis = loginTimeoutMillis;
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+    }
+
+    public boolean isExpired(Connection connection, long nowMillis) {
+        if (connection.hasRequestInFlight()) {
+            return false;
+        }
+
+        return nowMillis >= idleDeadline(connection) || nowMillis >= loginDeadline(connection);
+    }
+
+    public boolean isHeartbeatDue(Connection connection, long nowMillis) {
+        return nowMillis >= heartbeatDeadline(connection);
+    }
+
+    /**
+     * The earliest moment at which {@link #isExpired} or {@link #isHeartbeatDue} may change its answer.
+     */
+    public long nextCheckAt(Connection connection) {
+        return Math.min(idleDeadline(connection), Math.min(loginDeadline(connection), heartbeatDeadline(connection)));
+    }
+
+    private long idleDeadline(Connection connection) {
+        return connection.getLastActivityMillis() + idleTimeoutMillis;
+    }
+
+    private long loginDeadline(Connection connection) {
+        if (connection.getSessions().isAnyLoggedIn()) {
+            return Long.MAX_VALUE;
+        }
+
+        return connection.getConnectedAtMillis() + loginTimeoutMillis;
+    }
+
+    private long heartbeatDeadline(Connection connection) {
+        if (heartbeatIntervalMillis == HEARTBEAT_DISABLED) {
+            return Long.MAX_VALUE;
+        }
+
+        return Math.max(connection.getLastActivityMillis(), connection.getLastHeartbeatMillis())
+                + heartbeatIntervalMillis;
+    }
+
+    private static void validateObjectConstruction(long idleTimeoutMillis, long loginTimeoutMillis,
+                                                   long heartbeatIntervalMillis) {
+        if (idleTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Idle timeout should be positive!");
+        }
+
+        if (loginTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Login timeout should be positive!");
+        }
+
+        if (heartbeatIntervalMillis < 0) {
+            throw new IllegalArgumentException("Heartbeat interval should not be negative!");
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package server.reactor;
+
+import protocol.Frame;
+import protocol.FrameCodec;
+import server.buffer.BufferPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Buffers waiting to be written to one connection. Only the owning selector thread touches it.
+ * Frames are encoded straight into pooled direct buffers, which go back to the pool once written.
+ */
+public class OutboundQueue {
+
+    private static final int MAX_BUFFERS_PER_WRITE = 16;
+
+    private final BufferPool pool;
+    private final Deque<ByteBuffer> buffers;
+    private long queuedBytes;
+
+    public OutboundQueue(BufferPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Parameter 'pool' used to construct OutboundQueue is null!");
+        }
+
+        this.pool = pool;
+        this.buffers = new ArrayDeque<>();
+    }
+
+    public void enqueue(Frame frame) {
+        if (frame == null) {
+            throw new IllegalArgumentException("Frame passed to the outbound queue is null!");
+        }
+
+        byte[] payload = frame.payload();
+
+        ByteBuffer chunk = pool.lease();
+        FrameCodec.putHeader(chunk, frame);
+
+        int offset = 0;
+        while (true) {
+            int length = Math.min(chunk.remaining(), payload.length - offset);
+            chunk.put(payload, offset, length);
+            offset += length;
+
+            enqueue(chunk.flip());
+
+            if (offset == payload.length) {
+                return;
+            }
+
+            chunk = pool.lease();
+        }
+    }
+
+    /**
+     * Queues a frame without flags whose payload is the remaining content of the buffer. Payloads that fit
+     * next to the header are copied; larger ones, e.g. shared cached responses, are queued as they are
+     * and written straight from the buffer, which must not change until written.
+     */
+    public void enqueue(long requestId, ByteBuffer payload) {
+        if (payload == null) {
+            throw new IllegalArgumentException("Payload passed to the outbound queue is null!");
+        }
+
+        ByteBuffer chunk = pool.lease();
+        FrameCodec.putHeader(chunk, requestId, Frame.NO_FLAGS, payload.remaining());
+
+        if (payload.remaining() <= chunk.remaining()) {
+            enqueue(chunk.put(payload.duplicate()).flip());
+            return;
+        }
+
+        enqueue(chunk.flip());
+        enqueue(payload.duplicate());
+    }
+
+    public void enqueue(ByteBuffer buffer) {
+        if (buffer == null) {
+            throw new IllegalArgumentException("Buffer passed to the outbound queue is null!");
+        }
+
+        if (!buffer.hasRemaining()) {
+            pool.release(buffer);
+            return;
+        }
+
+        buffers.addLast(buffer);
+        queuedBytes += buffer.remaining();
+    }
+
+    /**
+     * Writes as much as the channel accepts without blocking and keeps the rest for the next OP_WRITE.
+     */
+    public long writeTo(GatheringByteChannel channel) throws IOException {
+        long totalWritten = 0;
+
+        while (!buffers.isEmpty()) {
+            ByteBuffer[] batch = buffers.stream().limit(MAX_BUFFERS_PER_WRITE).toArray(ByteBuffer[]::new);
+            long written = channel.write(batch);
+
+            totalWritten += written;
+            queuedBytes -= written;
+            removeWrittenBuffers();
+
+            if (batch[batch.length - 1].hasRemaining()) {
+                break;
+            }
+        }
+
+        return totalWritten;
+    }
+
+    public boolean isEmpty() {
+        return buffers.isEmpty();
+    }
+
+    public long getQueuedBytes() {
+        return queuedBytes;
+    }
+
+    public void clear() {
+        buffers.forEach(pool::release);
+        buffers.clear();
+        queuedBytes = 0;
+    }
+
+    private void removeWrittenBuffers() {
+        while (!buffers.isEmpty() && !buffers.peekFirst().hasRemaining()) {
+            pool.release(buffers.removeFirst());
+        }
+    }
+}
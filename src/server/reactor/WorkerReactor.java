@@ -0,0 +1,500 @@
+package server.reactor;
+
+import exception.MalformedFrameException;
+import logger.Logger;
+import metrics.MetricsRegistry;
+import protocol.Frame;
+import protocol.FrameCodec;
+import protocol.FrameCompressor;
+import server.buffer.BufferPool;
+import server.limit.ConcurrencyLimiter;
+import server.pipeline.CommandPipeline;
+import server.reactor.Connection.PendingRequest;
+import server.session.ClientContext;
+import server.session.SessionTable;
+import server.subscription.WatchList;
+import server.timer.HashedTimerWheel;
+import server.timer.MonotonicClock;
+import server.watchdog.LoopProbe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+public class WorkerReactor implements Runnable {
+
+    private static final long TIMER_TICK_MILLIS = 100;
+    private static final int TIMER_WHEEL_SIZE = 512;
+
+    private static final Logger LOGGER = Logger.getInstance();
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
+    private final CommandPipeline pipeline;
+    private final BufferPool bufferPool;
+    private final long outboundLimit;
+    private final ConnectionTimeouts timeouts;
+    private final HashedTimerWheel<SelectionKey> timerWheel;
+    private final FrameCompressor compressor;
+    private final Selector selector;
+    private final Queue<SocketChannel> pendingChannels;
+    private final Queue<CompletedResponse> completedResponses;
+    private final Queue<PendingPush> pendingPushes;
+    private final LongAdder expiredConnections;
+    private final LoopProbe probe;
+
+    private volatile boolean isWorking;
+    private volatile boolean isDraining;
+    private volatile long drainDeadlineMillis;
+
+    /**
+     * A zero compression threshold makes the reactor decline compression in client handshakes.
+     */
+    public WorkerReactor(CommandPipeline pipeline, BufferPool bufferPool, long outboundLimit,
+                         ConnectionTimeouts timeouts, int compressionThreshold) throws IOException {
+        this(pipeline, bufferPool, outboundLimit, timeouts, compressionThreshold, LoopProbe.unwatched());
+    }
+
+    /**
+     * The probe is told about every loop iteration, so a stall detector can catch the loop blocking.
+     */
+    public WorkerReactor(CommandPipeline pipeline, BufferPool bufferPool, long outboundLimit,
+                         ConnectionTimeouts timeouts, int compressionThreshold, LoopProbe probe) throws IOException {
+        validateObjectConstruction(pipeline, bufferPool, outboundLimit, timeouts, compressionThreshold);
+        if (probe == null) {
+            throw new IllegalArgumentException("Parameter 'probe' used to construct WorkerReactor is null!");
+        }
+
+        this.pipeline = pipeline;
+        this.bufferPool = bufferPool;
+        this.outboundLimit = outboundLimit;
+        this.timeouts = timeouts;
+        this.timerWheel = new HashedTimerWheel<>(TIMER_TICK_MILLIS, TIMER_WHEEL_SIZE, MonotonicClock.millis());
+        this.compressor = compressionThreshold > 0 ? new FrameCompressor(compressionThreshold) : null;
+        this.selector = Selector.open();
+        this.pendingChannels = new ConcurrentLinkedQueue<>();
+        this.completedResponses = new ConcurrentLinkedQueue<>();
+        this.pendingPushes = new ConcurrentLinkedQueue<>();
+        this.expiredConnections = new LongAdder();
+        this.probe = probe;
+        this.isWorking = true;
+    }
+
+    public void register(SocketChannel clientChannel) {
+        pendingChannels.add(clientChannel);
+        selector.wakeup();
+    }
+
+    public BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    public int getConnectedClients() {
+        return selector.isOpen() ? selector.keys().size() : 0;
+    }
+
+    public long getExpiredConnections() {
+        return expiredConnections.sum();
+    }
+
+    public void stop() {
+        isWorking = false;
+        selector.wakeup();
+    }
+
+    /**
+     * Stops reading new requests and keeps serving the ones already read until every connection is idle
+     * or the deadline passes, after which the reactor stops.
+     */
+    public void drain(long deadlineMillis) {
+        drainDeadlineMillis = deadlineMillis;
+        isDraining = true;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        boolean readsStopped = false;
+        probe.beginIteration();
+
+        try (selector) {
+            while (isWorking) {
+                registerPendingChannels();
+                writeCompletedResponses();
+                writePendingPushes();
+
+                if (isDraining && !readsStopped) {
+                    stopReading();
+                    readsStopped = true;
+                }
+
+                if (isDraining && (isDrained() || MonotonicClock.millis() >= drainDeadlineMillis)) {
+                    break;
+                }
+
+                handleReadyChannels();
+                timerWheel.advance(MonotonicClock.millis(), this::checkTimeouts);
+            }
+            closeClientChannels();
+        } catch (IOException e) {
+            LOGGER.log(e, "Problem with worker reactor occurred!");
+        } finally {
+            probe.endIteration();
+            if (compressor != null) {
+                compressor.close();
+            }
+        }
+    }
+
+    private void registerPendingChannels() {
+        SocketChannel clientChannel;
+
+        while ((clientChannel = pendingChannels.poll()) != null) {
+            if (isDraining) {
+                closeQuietly(clientChannel);
+                continue;
+            }
+
+            try {
+                Connection connection =
+                        new Connection(new ClientContext(), bufferPool, outboundLimit, MonotonicClock.millis());
+
+                clientChannel.configureBlocking(false);
+                SelectionKey key = clientChannel.register(selector, SelectionKey.OP_READ, connection);
+
+                connection.getSessions().setPushNotifiers((sessionId, watchList) -> () -> schedulePush(key, sessionId));
+                scheduleTimeoutCheck(key);
+                METRICS.connectionOpened();
+            } catch (IOException e) {
+                LOGGER.log(e, "SYSTEM");
+                closeQuietly(clientChannel);
+            }
+        }
+    }
+
+    private void stopReading() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.isValid()) {
+                Connection connection = (Connection) key.attachment();
+
+                connection.stopReading();
+                key.interestOps(connection.getInterestOps());
+            }
+        }
+    }
+
+    private boolean isDrained() {
+        if (!completedResponses.isEmpty()) {
+            return false;
+        }
+
+        for (SelectionKey key : selector.keys()) {
+            if (key.isValid() && !((Connection) key.attachment()).isIdle()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void handleReadyChannels() throws IOException {
+        probe.endIteration();
+        int readyChannels = selector.select(timerWheel.getTickMillis());
+        probe.beginIteration();
+
+        if (readyChannels == 0) {
+            return;
+        }
+
+        Iterator<SelectionKey> selectionKeyIterator = selector.selectedKeys().iterator();
+
+        while (selectionKeyIterator.hasNext()) {
+            SelectionKey key = selectionKeyIterator.next();
+            selectionKeyIterator.remove();
+
+            if (!key.isValid()) {
+                continue;
+            }
+
+            handleClientSafely(key);
+        }
+    }
+
+    private void handleClientSafely(SelectionKey key) {
+        try {
+            if (key.isWritable()) {
+                flushOutbound(key);
+            }
+
+            if (key.isValid() && key.isReadable()) {
+                handleReadable(key);
+            }
+        } catch (IOException e) {
+            LOGGER.log(e, "SYSTEM");
+            closeConnection(key);
+        } catch (MalformedFrameException e) {
+            LOGGER.log(e, "CLIENT_PROTOCOL");
+            closeConnection(key);
+        }
+    }
+
+    private void handleReadable(SelectionKey key) throws IOException {
+        SocketChannel clientChannel = (SocketChannel) key.channel();
+        Connection connection = (Connection) key.attachment();
+
+        int readBytesFromClient = connection.getInbound().readFrom(clientChannel);
+
+        if (readBytesFromClient == -1) {
+            closeConnection(key);
+            return;
+        }
+
+        METRICS.addBytesIn(readBytesFromClient);
+        connection.recordActivity(MonotonicClock.millis());
+        decodeRequests(connection);
+        executeNextRequest(key);
+        flushOutbound(key);
+    }
+
+    private void decodeRequests(Connection connection) {
+        Frame request;
+        while ((request = connection.decodeNextRequest(FrameCodec.MAX_REQUEST_SIZE)) != null) {
+            if (request.hasFlag(Frame.FLAG_HEARTBEAT)) {
+                connection.getOutboundQueue().enqueue(Frame.heartbeat(request.requestId()));
+            } else if (request.hasFlag(Frame.FLAG_HANDSHAKE)) {
+                String accepted = negotiate(connection, request);
+                connection.getOutboundQueue().enqueue(Frame.handshake(request.requestId(), accepted));
+            } else {
+                connection.addPendingRequest(request);
+            }
+        }
+    }
+
+    private String negotiate(Connection connection, Frame handshake) {
+        if (compressor == null || !FrameCompressor.isRequested(handshake.payloadAsString())) {
+            return "";
+        }
+
+        connection.enableCompression();
+        return FrameCompressor.DEFLATE_OPTION;
+    }
+
+    private void executeNextRequest(SelectionKey key) {
+        Connection connection = (Connection) key.attachment();
+
+        PendingRequest request;
+        while ((request = connection.pollNextRequest()) != null) {
+            long requestId = request.frame().requestId();
+            int sessionId = request.frame().sessionId();
+            String clientRequest = request.frame().payloadAsString().strip();
+            ClientContext context = connection.getSessions().get(sessionId);
+
+            if (context == null) {
+                connection.completeRequest(sessionId);
+                connection.getOutboundQueue().enqueue(Frame.of(requestId, SessionTable.TOO_MANY_SESSIONS_MESSAGE));
+                continue;
+            }
+
+            boolean submitted = pipeline.submit(clientRequest, context, request.deadlineNanos(),
+                    response -> complete(key, requestId, sessionId, response));
+
+            if (!submitted) {
+                connection.completeRequest(sessionId);
+                connection.getOutboundQueue().enqueue(Frame.of(requestId, ConcurrencyLimiter.SERVER_BUSY_MESSAGE));
+            }
+        }
+    }
+
+    private void complete(SelectionKey key, long requestId, int sessionId, ByteBuffer response) {
+        completedResponses.add(new CompletedResponse(key, requestId, sessionId, response));
+        selector.wakeup();
+    }
+
+    private void writeCompletedResponses() {
+        Set<SelectionKey> keysToFlush = new LinkedHashSet<>();
+
+        CompletedResponse completed;
+        while ((completed = completedResponses.poll()) != null) {
+            SelectionKey key = completed.key();
+
+            if (key.isValid()) {
+                Connection connection = (Connection) key.attachment();
+
+                connection.completeRequest(completed.sessionId());
+                enqueueResponse(connection, completed.requestId(), completed.response());
+                executeNextRequest(key);
+                keysToFlush.add(key);
+            }
+        }
+
+        keysToFlush.forEach(this::flushOutboundSafely);
+    }
+
+    private void schedulePush(SelectionKey key, int sessionId) {
+        pendingPushes.add(new PendingPush(key, sessionId));
+        selector.wakeup();
+    }
+
+    private void writePendingPushes() {
+        PendingPush push;
+        while ((push = pendingPushes.poll()) != null) {
+            if (push.key().isValid()) {
+                writePush(push.key(), push.sessionId());
+            }
+        }
+    }
+
+    /**
+     * Writes the conflated price updates of a session, or defers them while the socket is behind.
+     * Deferred updates stay in the watch list, which keeps only the latest price per asset.
+     */
+    private void writePush(SelectionKey key, int sessionId) {
+        Connection connection = (Connection) key.attachment();
+        WatchList watchList = connection.getSessions().find(sessionId).getWatchList();
+
+        if (!connection.canAcceptPushes()) {
+            connection.deferPush(sessionId);
+            return;
+        }
+
+        watchList.takeUpdates().forEach(asset -> connection.getOutboundQueue()
+                .enqueue(Frame.forSession(Frame.UNSOLICITED_REQUEST_ID, sessionId, WatchList.toPushMessage(asset))));
+        flushOutboundSafely(key);
+
+        if (key.isValid() && watchList.completeFlush()) {
+            pendingPushes.add(new PendingPush(key, sessionId));
+        }
+    }
+
+    private void enqueueResponse(Connection connection, long requestId, ByteBuffer response) {
+        if (connection.isCompressionEnabled()) {
+            connection.getOutboundQueue().enqueue(compressor.compress(Frame.of(requestId, response)));
+        } else {
+            connection.getOutboundQueue().enqueue(requestId, response);
+        }
+    }
+
+    private void scheduleTimeoutCheck(SelectionKey key) {
+        Connection connection = (Connection) key.attachment();
+        connection.setTimeout(timerWheel.schedule(key, timeouts.nextCheckAt(connection)));
+    }
+
+    private void checkTimeouts(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+
+        Connection connection = (Connection) key.attachment();
+        long now = MonotonicClock.millis();
+
+        if (timeouts.isExpired(connection, now)) {
+            expireConnection(key);
+            return;
+        }
+
+        if (timeouts.isHeartbeatDue(connection, now)) {
+            connection.recordHeartbeat(now);
+            connection.getOutboundQueue().enqueue(Frame.heartbeat(Frame.UNSOLICITED_REQUEST_ID));
+            flushOutboundSafely(key);
+        }
+
+        if (key.isValid()) {
+            scheduleTimeoutCheck(key);
+        }
+    }
+
+    private void expireConnection(SelectionKey key) {
+        Connection connection = (Connection) key.attachment();
+
+        connection.getSessions().logoutAll();
+        expiredConnections.increment();
+        closeConnection(key);
+    }
+
+    private void flushOutboundSafely(SelectionKey key) {
+        try {
+            flushOutbound(key);
+        } catch (IOException e) {
+            LOGGER.log(e, "SYSTEM");
+            closeConnection(key);
+        }
+    }
+
+    private void flushOutbound(SelectionKey key) throws IOException {
+        if (!key.isValid()) {
+            return;
+        }
+
+        SocketChannel clientChannel = (SocketChannel) key.channel();
+        Connection connection = (Connection) key.attachment();
+
+        METRICS.addBytesOut(connection.getOutboundQueue().writeTo(clientChannel));
+        key.interestOps(connection.getInterestOps());
+
+        connection.resumeDeferredPushes().forEach(sessionId -> pendingPushes.add(new PendingPush(key, sessionId)));
+    }
+
+    private static void closeConnection(SelectionKey key) {
+        Connection connection = (Connection) key.attachment();
+
+        key.cancel();
+        connection.release();
+        closeQuietly(key.channel());
+        METRICS.connectionClosed();
+    }
+
+    private void closeClientChannels() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.isValid()) {
+                closeConnection(key);
+            }
+        }
+    }
+
+    private static void closeQuietly(Channel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.log(e, "SYSTEM");
+        }
+    }
+
+    private static void validateObjectConstruction(CommandPipeline pipeline, BufferPool bufferPool,
+                                                   long outboundLimit, ConnectionTimeouts timeouts,
+                                                   int compressionThreshold) {
+        if (pipeline == null) {
+            throw new IllegalArgumentException("Parameter 'pipeline' used to construct WorkerReactor is null!");
+        }
+
+        if (bufferPool == null) {
+            throw new IllegalArgumentException("Parameter 'bufferPool' used to construct WorkerReactor is null!");
+        }
+
+        if (outboundLimit <= 0) {
+            throw new IllegalArgumentException("Outbound limit used to construct WorkerReactor should be positive!");
+        }
+
+        if (timeouts == null) {
+            throw new IllegalArgumentException("Parameter 'timeouts' used to construct WorkerReactor is null!");
+        }
+
+        if (compressionThreshold < 0) {
+            throw new IllegalArgumentException(
+                    "Compression threshold used to construct WorkerReactor should not be negative!");
+        }
+    }
+
+    private record CompletedResponse(SelectionKey key, long requestId, int sessionId, ByteBuffer response) {
+    }
+
+    private record PendingPush(SelectionKey key, int sessionId) {
+    }
+}
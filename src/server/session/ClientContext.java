@@ -1,18 +1,32 @@
 package server.session;
 
+import command.ratelimit.TokenBucket;
 import exception.UserAlreadyLoggedInException;
 import model.User;
+import server.subscription.WatchList;
 
-import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class ClientContext {
-    private static final int BUFFER_SIZE = 2048;
-
-    private final ByteBuffer buffer;
     private User loggedUser;
+    private final AtomicReference<TokenBucket> requestBucket;
+    private String sessionToken;
+    private final WatchList watchList = new WatchList();
 
     public ClientContext() {
-        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this(new AtomicReference<>());
+    }
+
+    private ClientContext(AtomicReference<TokenBucket> requestBucket) {
+        this.requestBucket = requestBucket;
+    }
+
+    /**
+     * Returns a context for another logical session of the same client: it logs in and watches on its own
+     * but is charged against the same request bucket, so opening sessions does not multiply the rate limit.
+     */
+    public ClientContext newSession() {
+        return new ClientContext(requestBucket);
     }
 
     public void login(User toLogin) {
@@ -35,7 +49,34 @@ public class ClientContext {
         return loggedUser;
     }
 
-    public ByteBuffer getBuffer() {
-        return buffer;
+    public TokenBucket getRequestBucket() {
+        return requestBucket.get();
+    }
+
+    public void setRequestBucket(TokenBucket requestBucket) {
+        this.requestBucket.set(requestBucket);
+    }
+
+    /**
+     * Sets the bucket unless the client already has one, e.g. set by a session executing concurrently,
+     * and returns that one, or null if the given bucket was set.
+     */
+    public TokenBucket putRequestBucketIfAbsent(TokenBucket bucket) {
+        return requestBucket.compareAndExchange(null, bucket);
+    }
+
+    /**
+     * Token of the resumable session this connection logged in with or resumed, null if there is none.
+     */
+    public String getSessionToken() {
+        return sessionToken;
+    }
+
+    public void setSessionToken(String sessionToken) {
+        this.sessionToken = sessionToken;
+    }
+
+    public WatchList getWatchList() {
+        return watchList;
     }
 }
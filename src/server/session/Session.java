@@ -0,0 +1,42 @@
+package server.session;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A login that outlives a single connection, identified by an opaque token.
+ * Requests of one session are serialized with its lock, the same way a connection runs them one at a time.
+ */
+public final class Session {
+    private final String token;
+    private final ClientContext context;
+    private final ReentrantLock lock;
+
+    private volatile long expiresAtMillis;
+
+    Session(String token, ClientContext context, long expiresAtMillis) {
+        this.token = token;
+        this.context = context;
+        this.lock = new ReentrantLock();
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public ClientContext getContext() {
+        return context;
+    }
+
+    public ReentrantLock getLock() {
+        return lock;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    void extendUntil(long expiresAtMillis) {
+        this.expiresAtMillis = expiresAtMillis;
+    }
+}
@@ -0,0 +1,101 @@
+package server.session;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-side table of sessions keyed by random bearer tokens. Lookups are O(1);
+ * every successful lookup slides the expiry forward by the time to live.
+ */
+public class SessionRegistry {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final long timeToLiveMillis;
+    private final SecureRandom random;
+    private final Base64.Encoder encoder;
+    private final Map<String, Session> sessions;
+    private final AtomicLong lastPurgeMillis;
+
+    public SessionRegistry(long timeToLiveMillis) {
+        validateObjectConstruction(timeToLiveMillis);
+
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.random = new SecureRandom();
+        this.encoder = Base64.getUrlEncoder().withoutPadding();
+        this.sessions = new ConcurrentHashMap<>();
+        this.lastPurgeMillis = new AtomicLong();
+    }
+
+    public Session create(ClientContext context, long nowMillis) {
+        if (context == null || !context.isLoggedIn()) {
+            throw new IllegalArgumentException("Sessions can only be created for a logged in context!");
+        }
+
+        long lastPurge = lastPurgeMillis.get();
+        if (nowMillis - lastPurge >= timeToLiveMillis && lastPurgeMillis.compareAndSet(lastPurge, nowMillis)) {
+            purgeExpired(nowMillis);
+        }
+
+        Session session = new Session(newToken(), context, nowMillis + timeToLiveMillis);
+        sessions.put(session.getToken(), session);
+
+        return session;
+    }
+
+    /**
+     * Returns the live session of the token or null if there is none or it has expired.
+     */
+    public Session find(String token, long nowMillis) {
+        if (token == null) {
+            return null;
+        }
+
+        Session session = sessions.get(token);
+
+        if (session == null) {
+            return null;
+        }
+
+        if (session.isExpired(nowMillis) || !session.getContext().isLoggedIn()) {
+            sessions.remove(token, session);
+            return null;
+        }
+
+        session.extendUntil(nowMillis + timeToLiveMillis);
+        return session;
+    }
+
+    public void invalidate(String token) {
+        if (token != null) {
+            sessions.remove(token);
+        }
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Expired sessions are dropped on lookup; this sweep removes the ones nobody asks for anymore.
+     * {@link #create} runs it at most once per time to live, so logins stay O(1) amortized.
+     */
+    public void purgeExpired(long nowMillis) {
+        sessions.values().removeIf(session -> session.isExpired(nowMillis));
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return encoder.encodeToString(bytes);
+    }
+
+    private static void validateObjectConstruction(long timeToLiveMillis) {
+        if (timeToLiveMillis <= 0) {
+            throw new IllegalArgumentException("Session time to live should be positive!");
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package server.session;
+
+import protocol.Frame;
+import server.subscription.WatchList;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * The logical sessions multiplexed over one connection, each with its own {@link ClientContext}, so a gateway
+ * can keep many users logged in over a few sockets. The sessions share the request bucket of the connection:
+ * only the login state and the watch list are per session. Session {@value Frame#DEFAULT_SESSION_ID} always exists;
+ * the others are created by their first request. Not thread-safe: only the thread serving the connection
+ * should use it.
+ */
+public class SessionTable {
+
+    public static final int MAX_SESSIONS = 1024;
+
+    public static final String TOO_MANY_SESSIONS_MESSAGE =
+            "Too many sessions on this connection. Open another connection for more!";
+
+    private final Map<Integer, ClientContext> contexts;
+    private BiFunction<Integer, WatchList, Runnable> pushNotifiers;
+
+    public SessionTable(ClientContext defaultContext) {
+        if (defaultContext == null) {
+            throw new IllegalArgumentException("Parameter 'defaultContext' used to construct SessionTable is null!");
+        }
+
+        this.contexts = new HashMap<>();
+        this.contexts.put(Frame.DEFAULT_SESSION_ID, defaultContext);
+    }
+
+    public ClientContext getDefault() {
+        return contexts.get(Frame.DEFAULT_SESSION_ID);
+    }
+
+    /**
+     * Returns the context of the session, creating it on first use, or null when the connection
+     * already has {@value #MAX_SESSIONS} sessions.
+     */
+    public ClientContext get(int sessionId) {
+        ClientContext context = contexts.get(sessionId);
+
+        if (context != null || contexts.size() >= MAX_SESSIONS) {
+            return context;
+        }
+
+        context = getDefault().newSession();
+        if (pushNotifiers != null) {
+            context.getWatchList().setPushNotifier(pushNotifiers.apply(sessionId, context.getWatchList()));
+        }
+
+        contexts.put(sessionId, context);
+        return context;
+    }
+
+    /**
+     * Returns null for a session that was never used.
+     */
+    public ClientContext find(int sessionId) {
+        return contexts.get(sessionId);
+    }
+
+    /**
+     * Lets the watch lists of all sessions, present and future, push price updates. The factory gets the
+     * session id and its watch list and returns the notifier of that watch list.
+     */
+    public void setPushNotifiers(BiFunction<Integer, WatchList, Runnable> pushNotifiers) {
+        this.pushNotifiers = pushNotifiers;
+        contexts.forEach((sessionId, context) ->
+                context.getWatchList().setPushNotifier(pushNotifiers.apply(sessionId, context.getWatchList())));
+    }
+
+    public int size() {
+        return contexts.size();
+    }
+
+    public boolean isAnyLoggedIn() {
+        return contexts.values().stream().anyMatch(ClientContext::isLoggedIn);
+    }
+
+    public void logoutAll() {
+        contexts.values().forEach(ClientContext::logout);
+    }
+
+    /**
+     * Drops the subscriptions of every session, e.g. when the connection closes.
+     */
+    public void clearWatchLists() {
+        contexts.values().forEach(context -> context.getWatchList().clear());
+    }
+}
@@ -0,0 +1,49 @@
+package server.subscription;
+
+import api.PriceListener;
+import model.Asset;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fans price changes reported by the asset cache out to the watch lists subscribed to each asset.
+ * Offering an update never blocks, so one refresh costs a single pass over the subscribers.
+ */
+public class SubscriptionHub implements PriceListener {
+
+    private final Map<String, Set<WatchList>> subscribers;
+
+    public SubscriptionHub() {
+        this.subscribers = new ConcurrentHashMap<>();
+    }
+
+    public void subscribe(String assetId, WatchList watchList) {
+        subscribers.computeIfAbsent(assetId, id -> ConcurrentHashMap.newKeySet()).add(watchList);
+    }
+
+    public void unsubscribe(String assetId, WatchList watchList) {
+        subscribers.computeIfPresent(assetId, (id, watchers) -> {
+            watchers.remove(watchList);
+            return watchers.isEmpty() ? null : watchers;
+        });
+    }
+
+    public int getSubscriberCount(String assetId) {
+        Set<WatchList> watchers = subscribers.get(assetId);
+        return watchers == null ? 0 : watchers.size();
+    }
+
+    @Override
+    public void onPricesChanged(List<Asset> changedAssets) {
+        for (Asset asset : changedAssets) {
+            Set<WatchList> watchers = subscribers.get(asset.id().toUpperCase());
+
+            if (watchers != null) {
+                watchers.forEach(watchList -> watchList.offer(asset));
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package server.subscription;
+
+import model.Asset;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The offerings one session watches and the price updates waiting to be pushed to it.
+ * Updates are conflated: only the latest price of every asset is kept, so a slow consumer holds
+ * at most one pending update per watched asset. The push notifier is called once per flush round;
+ * the engine takes the updates, writes them and calls {@link #completeFlush()}.
+ */
+public class WatchList {
+
+    private static final String PUSH_MESSAGE_PREFIX = "Price update: ";
+
+    private final Set<String> assetIds;
+    private final Map<String, Asset> pendingUpdates;
+    private final AtomicBoolean flushScheduled;
+
+    private volatile Runnable pushNotifier;
+    private volatile SubscriptionHub hub;
+
+    public WatchList() {
+        this.assetIds = ConcurrentHashMap.newKeySet();
+        this.pendingUpdates = new ConcurrentHashMap<>();
+        this.flushScheduled = new AtomicBoolean();
+    }
+
+    /**
+     * Set by engines that can push unsolicited frames. Without a notifier nothing can be watched.
+     */
+    public void setPushNotifier(Runnable pushNotifier) {
+        this.pushNotifier = pushNotifier;
+    }
+
+    public boolean isPushSupported() {
+        return pushNotifier != null;
+    }
+
+    public boolean watch(String assetId, SubscriptionHub hub) {
+        this.hub = hub;
+
+        if (!assetIds.add(assetId)) {
+            return false;
+        }
+
+        hub.subscribe(assetId, this);
+        return true;
+    }
+
+    public boolean unwatch(String assetId) {
+        if (!assetIds.remove(assetId)) {
+            return false;
+        }
+
+        hub.unsubscribe(assetId, this);
+        pendingUpdates.remove(assetId);
+        return true;
+    }
+
+    /**
+     * Drops every subscription, e.g. when the connection closes.
+     */
+    public void clear() {
+        for (String assetId : Set.copyOf(assetIds)) {
+            unwatch(assetId);
+        }
+
+        pendingUpdates.clear();
+    }
+
+    public Set<String> getWatchedAssetIds() {
+        return Set.copyOf(assetIds);
+    }
+
+    public static String toPushMessage(Asset asset) {
+        return PUSH_MESSAGE_PREFIX + asset.toString().strip();
+    }
+
+    public void offer(Asset asset) {
+        pendingUpdates.put(asset.id(), asset);
+
+        Runnable notifier = pushNotifier;
+        if (notifier != null && flushScheduled.compareAndSet(false, true)) {
+            notifier.run();
+        }
+    }
+
+    public List<Asset> takeUpdates() {
+        List<Asset> updates = new ArrayList<>(pendingUpdates.size());
+
+        for (String assetId : List.copyOf(pendingUpdates.keySet())) {
+            Asset update = pendingUpdates.remove(assetId);
+
+            if (update != null) {
+                updates.add(update);
+            }
+        }
+
+        return updates;
+    }
+
+    /**
+     * Ends a flush round. Returns true when updates arrived meanwhile and the caller should flush again.
+     */
+    public boolean completeFlush() {
+        flushScheduled.set(false);
+        return !pendingUpdates.isEmpty() && flushScheduled.compareAndSet(false, true);
+    }
+}
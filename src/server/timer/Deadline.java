@@ -0,0 +1,33 @@
+package server.timer;
+
+import protocol.Frame;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request deadlines as absolute {@link System#nanoTime()} values.
+ */
+public final class Deadline {
+
+    public static final long NONE = Long.MAX_VALUE;
+
+    public static final String EXPIRED_MESSAGE = "Request timed out before it could be executed. Try again!";
+
+    private Deadline() {
+    }
+
+    /**
+     * The deadline of a request received at the given time, or {@link #NONE} if it carries no timeout.
+     */
+    public static long of(Frame request, long receivedNanos) {
+        if (!request.hasFlag(Frame.FLAG_DEADLINE)) {
+            return NONE;
+        }
+
+        return receivedNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, request.timeoutMillis()));
+    }
+
+    public static boolean hasPassed(long deadlineNanos) {
+        return deadlineNanos != NONE && System.nanoTime() - deadlineNanos > 0;
+    }
+}
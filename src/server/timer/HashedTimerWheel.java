@@ -0,0 +1,125 @@
+package server.timer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel: scheduling and cancelling a timeout are O(1) and every tick only visits one bucket.
+ * Timeouts further away than one rotation stay in their bucket until their deadline tick comes around.
+ * Not thread-safe - it is advanced from the selector loop that owns it.
+ */
+public class HashedTimerWheel<T> {
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final int mask;
+    private final Deque<Timeout<T>>[] buckets;
+
+    private long currentTick;
+    private int pendingTimeouts;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public HashedTimerWheel(long tickMillis, int wheelSize, long startMillis) {
+        validateObjectConstruction(tickMillis, wheelSize);
+
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.mask = wheelSize - 1;
+        this.buckets = new Deque[wheelSize];
+
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+    }
+
+    public Timeout<T> schedule(T target, long deadlineMillis) {
+        long deadlineTick = Math.max(tickOf(deadlineMillis), currentTick + 1);
+        Timeout<T> timeout = new Timeout<>(target, deadlineTick);
+
+        buckets[(int) (deadlineTick & mask)].addLast(timeout);
+        pendingTimeouts++;
+
+        return timeout;
+    }
+
+    /**
+     * Moves the wheel to the given time and passes the target of every expired timeout to the consumer.
+     * The consumer is free to schedule new timeouts.
+     */
+    public void advance(long nowMillis, Consumer<T> onExpired) {
+        long targetTick = tickOf(nowMillis);
+        long ticksToProcess = Math.min(targetTick - currentTick, buckets.length);
+
+        for (long i = 1; i <= ticksToProcess; i++) {
+            expireBucket((int) ((currentTick + i) & mask), targetTick, onExpired);
+        }
+
+        currentTick = Math.max(currentTick, targetTick);
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public int getPendingTimeouts() {
+        return pendingTimeouts;
+    }
+
+    private void expireBucket(int bucketIndex, long targetTick, Consumer<T> onExpired) {
+        Deque<Timeout<T>> bucket = buckets[bucketIndex];
+        buckets[bucketIndex] = new ArrayDeque<>();
+
+        for (Timeout<T> timeout : bucket) {
+            if (timeout.isCancelled()) {
+                pendingTimeouts--;
+            } else if (timeout.deadlineTick <= targetTick) {
+                pendingTimeouts--;
+                timeout.cancel();
+                onExpired.accept(timeout.target);
+            } else {
+                buckets[bucketIndex].addLast(timeout);
+            }
+        }
+    }
+
+    private long tickOf(long millis) {
+        return Math.max(0, millis - startMillis) / tickMillis;
+    }
+
+    private static void validateObjectConstruction(long tickMillis, int wheelSize) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Timer wheel tick should be positive!");
+        }
+
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Timer wheel size should be a positive power of two!");
+        }
+    }
+
+    public static final class Timeout<T> {
+        private final T target;
+        private final long deadlineTick;
+        private boolean cancelled;
+
+        private Timeout(T target, long deadlineTick) {
+            this.target = target;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getTarget() {
+            return target;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Cancelled timeouts are dropped lazily the next time their bucket is visited.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
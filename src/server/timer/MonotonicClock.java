@@ -0,0 +1,16 @@
+package server.timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Milliseconds from {@link System#nanoTime()}, so timeouts are not affected by wall clock adjustments.
+ */
+public final class MonotonicClock {
+
+    private MonotonicClock() {
+    }
+
+    public static long millis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+}
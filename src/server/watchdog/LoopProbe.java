@@ -0,0 +1,92 @@
+package server.watchdog;
+
+import metrics.MetricsRegistry;
+
+/**
+ * Timestamps the iterations of one selector loop, for a {@link StallDetector} to watch. An iteration runs
+ * from the wakeup of the selector to its next select; the time spent waiting in select is idle, not a stall.
+ * Only the loop thread may call the begin and end methods.
+ */
+public class LoopProbe {
+
+    private static final long IDLE = Long.MIN_VALUE;
+
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
+    private final String loopName;
+    private final long thresholdNanos;
+
+    private volatile Thread loopThread;
+    private volatile long iteration;
+    private volatile long iterationStartNanos;
+
+    private long reportedIteration;
+
+    LoopProbe(String loopName, long thresholdNanos) {
+        this.loopName = loopName;
+        this.thresholdNanos = thresholdNanos;
+        this.iterationStartNanos = IDLE;
+    }
+
+    /**
+     * A probe nobody watches, for loops run without a detector.
+     */
+    public static LoopProbe unwatched() {
+        return new LoopProbe("unwatched", Long.MAX_VALUE);
+    }
+
+    public String getLoopName() {
+        return loopName;
+    }
+
+    public void beginIteration() {
+        if (loopThread == null) {
+            loopThread = Thread.currentThread();
+        }
+
+        iteration++;
+        iterationStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Iterations that took at least the threshold are recorded as stalls, whether or not the detector
+     * caught them in the act.
+     */
+    public void endIteration() {
+        long startNanos = iterationStartNanos;
+        iterationStartNanos = IDLE;
+
+        long iterationNanos = System.nanoTime() - startNanos;
+        if (startNanos != IDLE && iterationNanos >= thresholdNanos) {
+            METRICS.recordEventLoopStall(iterationNanos);
+        }
+    }
+
+    /**
+     * Returns the stall the loop is in, at most once per iteration, or null. Called by the detector thread only.
+     */
+    Stall detectStall(long nowNanos) {
+        long currentIteration = iteration;
+        long startNanos = iterationStartNanos;
+
+        if (startNanos == IDLE || nowNanos - startNanos < thresholdNanos || currentIteration == reportedIteration) {
+            return null;
+        }
+
+        StackTraceElement[] stackTrace = loopThread.getStackTrace();
+
+        // the loop moved on while the stack was taken, so it would show the wrong iteration
+        if (iteration != currentIteration || iterationStartNanos == IDLE) {
+            return null;
+        }
+
+        reportedIteration = currentIteration;
+        return new Stall(loopName, nowNanos - startNanos, stackTrace);
+    }
+
+    /**
+     * A loop caught blocking, with the stack it was blocked in.
+     */
+    record Stall(String loopName, long blockedNanos, StackTraceElement[] stackTrace) {
+    }
+}
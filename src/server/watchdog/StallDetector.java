@@ -0,0 +1,126 @@
+package server.watchdog;
+
+import exception.EventLoopStallException;
+import logger.Logger;
+import metrics.MetricsRegistry;
+import server.watchdog.LoopProbe.Stall;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watchdog for the selector loops: anything slow on a selector thread, a synchronous cache refresh, a users file
+ * rewrite or the logger opening its file, freezes every connection of that loop. A daemon thread checks the
+ * {@link LoopProbe}s every half threshold; a loop whose current iteration has run for longer than the threshold
+ * has its stack captured and logged, and is counted in the metrics.
+ */
+public class StallDetector implements AutoCloseable {
+
+    private static final String THREAD_NAME = "stall-detector";
+    private static final long MIN_CHECK_INTERVAL_MILLIS = 1;
+
+    private static final Logger LOGGER = Logger.getInstance();
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
+    private final long thresholdMillis;
+    private final List<LoopProbe> probes;
+
+    private volatile boolean isWatching;
+    private Thread watchdogThread;
+
+    /**
+     * A zero threshold turns the detector off: the probes it hands out are never checked.
+     */
+    public StallDetector(long thresholdMillis) {
+        validateObjectConstruction(thresholdMillis);
+
+        this.thresholdMillis = thresholdMillis;
+        this.probes = new CopyOnWriteArrayList<>();
+    }
+
+    public LoopProbe register(String loopName) {
+        if (loopName == null || loopName.isBlank()) {
+            throw new IllegalArgumentException("Parameter 'loopName' passed to StallDetector is null or blank!");
+        }
+
+        if (thresholdMillis == 0) {
+            return LoopProbe.unwatched();
+        }
+
+        LoopProbe probe = new LoopProbe(loopName, TimeUnit.MILLISECONDS.toNanos(thresholdMillis));
+        probes.add(probe);
+        return probe;
+    }
+
+    public synchronized void start() {
+        if (thresholdMillis == 0 || watchdogThread != null) {
+            return;
+        }
+
+        isWatching = true;
+        watchdogThread = Thread.ofPlatform().name(THREAD_NAME).daemon().start(this::watch);
+    }
+
+    @Override
+    public synchronized void close() {
+        isWatching = false;
+
+        if (watchdogThread != null) {
+            watchdogThread.interrupt();
+            watchdogThread = null;
+        }
+    }
+
+    /**
+     * Checks every loop once and returns how many were caught stalling.
+     */
+    int check(long nowNanos) {
+        int stalls = 0;
+
+        for (LoopProbe probe : probes) {
+            Stall stall = probe.detectStall(nowNanos);
+
+            if (stall != null) {
+                report(stall);
+                stalls++;
+            }
+        }
+
+        return stalls;
+    }
+
+    private void watch() {
+        long checkIntervalMillis = Math.max(MIN_CHECK_INTERVAL_MILLIS, thresholdMillis / 2);
+
+        while (isWatching) {
+            try {
+                Thread.sleep(checkIntervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            check(System.nanoTime());
+        }
+    }
+
+    private static void report(Stall stall) {
+        METRICS.eventLoopStallCaptured();
+
+        String message = String.format("Selector loop '%s' blocked for %d ms",
+                stall.loopName(), TimeUnit.NANOSECONDS.toMillis(stall.blockedNanos()));
+
+        try {
+            LOGGER.log(new EventLoopStallException(message, stall.stackTrace()), "SYSTEM_STALL");
+        } catch (RuntimeException e) {
+            System.err.println(message);
+        }
+    }
+
+    private static void validateObjectConstruction(long thresholdMillis) {
+        if (thresholdMillis < 0) {
+            throw new IllegalArgumentException(
+                    "Parameter 'thresholdMillis' used to construct StallDetector should not be negative!");
+        }
+    }
+}
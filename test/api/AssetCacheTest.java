@@ -4,9 +4,16 @@ import model.Asset;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -15,6 +22,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 public class AssetCacheTest {
@@ -86,11 +94,121 @@ public class AssetCacheTest {
             assertThrows(UnsupportedOperationException.class, () -> values.remove(0));
         }
 
+        @Test
+        void testChangesSinceGenerationZeroAreTheWholeCache() {
+            AssetCache.Changes changes = assetCache.getChangesSince(0);
+
+            assertEquals(1, changes.generation());
+            assertEquals(2, changes.changed().size());
+            assertTrue(changes.removed().isEmpty());
+        }
+
+        @Test
+        void testNoChangesSinceTheCurrentGeneration() {
+            assertTrue(assetCache.getChangesSince(assetCache.getGeneration()).isEmpty());
+        }
+
+        @Test
+        void testFollowerReadsThePublishedPricesWithoutFetching(@TempDir Path directory) throws Exception {
+            Path path = directory.resolve("prices");
+            ApiCall followerApiCall = mock(ApiCall.class);
+
+            try (PriceTable publisherTable = PriceTable.open(path);
+                 AssetCache publisher = new AssetCache(apiCallMock, publisherTable);
+                 PriceTable followerTable = PriceTable.open(path);
+                 AssetCache follower = new AssetCache(followerApiCall, followerTable)) {
+
+                assertTrue(publisherTable.isPublisher());
+                assertFalse(followerTable.isPublisher());
+
+                assertEquals(publisher.getGeneration(), follower.getGeneration());
+                assertEquals(43251.23, follower.getAssetPrice("BTC"), 0.001);
+                assertEquals(2, follower.getAssetCount());
+                assertTrue(follower.containsAsset("eth"));
+                verifyNoInteractions(followerApiCall);
+            }
+        }
+
+        @Test
+        void testNewPublisherKeepsAFreshTableWithoutFetching(@TempDir Path directory) throws Exception {
+            Path path = directory.resolve("prices");
+            ApiCall successorApiCall = mock(ApiCall.class);
+
+            try (PriceTable previousTable = PriceTable.open(path)) {
+                new AssetCache(apiCallMock, previousTable).close();
+            }
+
+            try (PriceTable successorTable = PriceTable.open(path);
+                 AssetCache successor = new AssetCache(successorApiCall, successorTable)) {
+
+                assertTrue(successorTable.isPublisher());
+                assertEquals(1, successor.getGeneration());
+                assertEquals(43251.23, successor.getAssetPrice("BTC"), 0.001);
+                assertEquals(2, successor.getAssetCount());
+                verifyNoInteractions(successorApiCall);
+            }
+        }
+
+        @Test
+        void testFollowerKeepsItsAssetsWhileAPublishDoesNotSettle(@TempDir Path directory) throws Exception {
+            Path path = directory.resolve("prices");
+
+            try (PriceTable publisherTable = PriceTable.open(path);
+                 AssetCache publisher = new AssetCache(apiCallMock, publisherTable);
+                 PriceTable followerTable = PriceTable.open(path);
+                 AssetCache follower = new AssetCache(mock(ApiCall.class), followerTable)) {
+
+                long loadedGeneration = publisher.getGeneration();
+                leaveMidWrite(path);
+
+                assertEquals(loadedGeneration, follower.getGeneration());
+                assertEquals(43251.23, follower.getAssetPrice("BTC"), 0.001);
+                assertEquals(2, follower.getCachedValues().size());
+                assertFalse(followerTable.isPublisher(), "The publisher still holds the lock, so it is alive");
+            }
+        }
+
+        @Test
+        void testFollowerTakesOverATableItsPublisherDiedWriting(@TempDir Path directory) throws Exception {
+            Path path = directory.resolve("prices");
+            PriceTable publisherTable = PriceTable.open(path);
+            AssetCache publisher = new AssetCache(apiCallMock, publisherTable);
+
+            try (PriceTable followerTable = PriceTable.open(path);
+                 AssetCache follower = new AssetCache(apiCallMock, followerTable)) {
+
+                leaveMidWrite(path);
+                publisher.close();
+                publisherTable.close();
+
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (followerTable.getGeneration() == PriceTable.UNSETTLED && System.nanoTime() < deadline) {
+                    Thread.sleep(50);
+                }
+
+                assertTrue(followerTable.isPublisher());
+                assertEquals(2, followerTable.getGeneration(), "The new publisher should rewrite the table at once");
+                assertEquals(2, follower.getGeneration());
+            } finally {
+                publisher.close();
+                publisherTable.close();
+            }
+        }
+
         @Test
         void testValidationLogic() {
             assertThrows(IllegalArgumentException.class, () -> assetCache.getAssetById(""));
             assertThrows(IllegalArgumentException.class, () -> assetCache.getAssetById(null));
         }
 
+        /**
+         * Bumps the sequence to odd the way a publisher dying in the middle of a publish would leave it.
+         */
+        private static void leaveMidWrite(Path path) throws Exception {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer sequence = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.nativeOrder());
+                channel.read(sequence, 0);
+                channel.write(sequence.putLong(0, sequence.getLong(0) + 1).clear(), 0);
+            }
+        }
 }
-
@@ -0,0 +1,148 @@
+package api;
+
+import model.Asset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PriceTableTest {
+
+    private static final Asset BTC = new Asset("BTC", "Bitcoin", 1, 43251.23);
+    private static final Asset ETH = new Asset("ETH", "Ethereum", 1, 2310.45);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testOnlyOneTableBecomesThePublisher() throws Exception {
+        Path path = directory.resolve("prices");
+
+        PriceTable first = PriceTable.open(path);
+
+        try (PriceTable second = PriceTable.open(path)) {
+            assertTrue(first.tryBecomePublisher());
+            assertTrue(first.tryBecomePublisher());
+            assertFalse(second.tryBecomePublisher());
+            assertThrows(IllegalStateException.class, () -> second.publish(List.of(BTC), 1));
+
+            first.close();
+
+            assertTrue(second.tryBecomePublisher(), "The lock should pass on when the publisher closes");
+        } finally {
+            first.close();
+        }
+    }
+
+    @Test
+    void testReadersSeeWhatThePublisherPublished() throws Exception {
+        Path path = directory.resolve("prices");
+
+        try (PriceTable publisher = PriceTable.open(path); PriceTable reader = PriceTable.open(path)) {
+            assertEquals(0, reader.getGeneration());
+            assertTrue(reader.read().assets().isEmpty());
+
+            publisher.tryBecomePublisher();
+            publisher.publish(List.of(BTC, ETH), 3);
+
+            assertEquals(3, reader.getGeneration());
+            assertEquals(List.of(BTC, ETH), reader.read().assets());
+            assertEquals(2310.45, reader.getPrice("eth"), 0.0001);
+            assertNull(reader.getPrice("SOL"));
+
+            publisher.publish(List.of(ETH), 4);
+
+            assertEquals(List.of(ETH), reader.read().assets());
+            assertNull(reader.getPrice("BTC"));
+        }
+    }
+
+    @Test
+    void testReadsNeverSeeAHalfWrittenTable() throws Exception {
+        Path path = directory.resolve("prices");
+
+        try (PriceTable publisher = PriceTable.open(path); PriceTable reader = PriceTable.open(path)) {
+            publisher.tryBecomePublisher();
+            AtomicBoolean publishing = new AtomicBoolean(true);
+
+            Thread writer = Thread.ofPlatform().start(() -> {
+                for (int generation = 1; publishing.get(); generation++) {
+                    publisher.publish(assetsPricedAt(generation), generation);
+                }
+            });
+
+            for (int i = 0; i < 10_000; i++) {
+                PriceTable.Snapshot snapshot = reader.read();
+                if (snapshot != null) {
+                    snapshot.assets().forEach(asset -> assertEquals(snapshot.generation(), asset.price(), 0.0));
+                }
+            }
+
+            publishing.set(false);
+            writer.join();
+        }
+    }
+
+    @Test
+    void testTableLeftMidWriteIsRewrittenByTheNextPublisher() throws Exception {
+        Path path = directory.resolve("prices");
+
+        try (PriceTable publisher = PriceTable.open(path); PriceTable reader = PriceTable.open(path)) {
+            publisher.tryBecomePublisher();
+            publisher.publish(List.of(BTC), 1);
+            leaveMidWrite(path);
+
+            assertEquals(PriceTable.UNSETTLED, reader.getGeneration(),
+                    "Readers should give up on a publish that never finishes");
+            assertNull(reader.read());
+            assertNull(reader.getPrice("BTC"));
+            assertEquals(1, publisher.getPublishedGeneration());
+
+            publisher.publish(List.of(ETH), 2);
+
+            assertEquals(2, reader.getGeneration());
+            assertEquals(List.of(ETH), reader.read().assets());
+            assertTrue(reader.read().publishedAtMillis() > PriceTable.NEVER_PUBLISHED);
+        }
+    }
+
+    @Test
+    void testLongNamesAreCut() throws Exception {
+        try (PriceTable table = PriceTable.open(directory.resolve("prices"))) {
+            table.tryBecomePublisher();
+            table.publish(List.of(new Asset("LONG", "x".repeat(200), 1, 1.0)), 1);
+
+            assertEquals(103, table.read().assets().getFirst().name().length());
+        }
+    }
+
+    /**
+     * Bumps the sequence to odd the way a publisher dying in the middle of a publish would leave it.
+     */
+    private static void leaveMidWrite(Path path) throws Exception {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer sequence = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.nativeOrder());
+            channel.read(sequence, 0);
+            channel.write(sequence.putLong(0, sequence.getLong(0) + 1).clear(), 0);
+        }
+    }
+
+    private static List<Asset> assetsPricedAt(int generation) {
+        return IntStream.range(0, PriceTable.MAX_ASSETS)
+                .mapToObj(i -> new Asset("A" + i, "Asset " + i, 1, (double) generation))
+                .toList();
+    }
+}
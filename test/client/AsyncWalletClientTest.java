@@ -0,0 +1,164 @@
+package client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import protocol.Frame;
+import protocol.FrameCodec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncWalletClientTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private ServerSocketChannel testServer;
+    private InetSocketAddress address;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testServer = ServerSocketChannel.open();
+        testServer.bind(new InetSocketAddress("localhost", 0));
+        address = (InetSocketAddress) testServer.getLocalAddress();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        testServer.close();
+    }
+
+    @Test
+    void testRepliesAreMatchedToOutstandingCommandsByRequestId() throws Exception {
+        try (AsyncWalletClient client = AsyncWalletClient.connect(address);
+             Socket server = testServer.accept().socket()) {
+            DataInputStream input = new DataInputStream(server.getInputStream());
+            DataOutputStream output = new DataOutputStream(server.getOutputStream());
+
+            assertTrue(FrameCodec.read(input, FrameCodec.MAX_FRAME_SIZE).hasFlag(Frame.FLAG_HANDSHAKE));
+
+            List<CompletableFuture<Response>> responses = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                responses.add(client.buy("BTC", i + 1));
+            }
+
+            List<Frame> requests = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                requests.add(FrameCodec.read(input, FrameCodec.MAX_FRAME_SIZE));
+            }
+
+            assertEquals(100, client.getOutstandingCount());
+
+            for (Frame request : requests.reversed()) {
+                FrameCodec.write(output, Frame.of(request.requestId(), "echo " + request.payloadAsString()));
+            }
+
+            for (int i = 0; i < 100; i++) {
+                Response response = responses.get(i).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                assertEquals("echo buy --offering=BTC --money=" + (double) (i + 1), response.message());
+            }
+
+            assertEquals(0, client.getOutstandingCount());
+        }
+    }
+
+    @Test
+    void testPushedUpdatesGoToTheListener() throws Exception {
+        List<String> updates = new CopyOnWriteArrayList<>();
+
+        try (AsyncWalletClient client = AsyncWalletClient.connect(address);
+             Socket server = testServer.accept().socket()) {
+            DataInputStream input = new DataInputStream(server.getInputStream());
+            DataOutputStream output = new DataOutputStream(server.getOutputStream());
+            client.setPushListener(updates::add);
+
+            FrameCodec.read(input, FrameCodec.MAX_FRAME_SIZE);
+            CompletableFuture<Response> response = client.watch("BTC");
+            Frame request = FrameCodec.read(input, FrameCodec.MAX_FRAME_SIZE);
+
+            FrameCodec.write(output, Frame.heartbeat(Frame.UNSOLICITED_REQUEST_ID));
+            FrameCodec.write(output, Frame.of(Frame.UNSOLICITED_REQUEST_ID, "Price update: Bitcoin"));
+            FrameCodec.write(output, Frame.of(request.requestId(), "Watching BTC"));
+
+            assertEquals("Watching BTC", response.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).message());
+            assertEquals(List.of("Price update: Bitcoin"), updates);
+        }
+    }
+
+    @Test
+    void testLostConnectionFailsOutstandingAndLaterCommands() throws Exception {
+        try (AsyncWalletClient client = AsyncWalletClient.connect(address)) {
+            CompletableFuture<Response> response;
+
+            try (Socket server = testServer.accept().socket()) {
+                DataInputStream input = new DataInputStream(server.getInputStream());
+                FrameCodec.read(input, FrameCodec.MAX_FRAME_SIZE);
+
+                response = client.getWalletSummary();
+                FrameCodec.read(input, FrameCodec.MAX_FRAME_SIZE);
+            }
+
+            ExecutionException outstanding = assertThrows(ExecutionException.class,
+                    () -> response.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertInstanceOf(IOException.class, outstanding.getCause());
+            assertFalse(client.isOpen());
+
+            ExecutionException later = assertThrows(ExecutionException.class,
+                    () -> client.listOfferings().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertInstanceOf(IOException.class, later.getCause());
+        }
+    }
+
+    @Test
+    void testSendRejectsBlankCommands() throws IOException {
+        try (AsyncWalletClient client = AsyncWalletClient.connect(address)) {
+            assertThrows(IllegalArgumentException.class, () -> client.send(" "));
+        }
+    }
+
+    @Test
+    void testConnectsOverAUnixDomainSocket(@TempDir Path directory) throws Exception {
+        UnixDomainSocketAddress socketAddress = UnixDomainSocketAddress.of(directory.resolve("wallet.sock"));
+
+        try (ServerSocketChannel unixServer = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            unixServer.bind(socketAddress);
+
+            try (AsyncWalletClient client = AsyncWalletClient.connect(socketAddress);
+                 SocketChannel server = unixServer.accept()) {
+                DataInputStream input = new DataInputStream(Channels.newInputStream(server));
+                DataOutputStream output = new DataOutputStream(Channels.newOutputStream(server));
+
+                assertTrue(FrameCodec.read(input, FrameCodec.MAX_FRAME_SIZE).hasFlag(Frame.FLAG_HANDSHAKE));
+
+                CompletableFuture<Response> response = client.send("help", 100);
+                Frame request = FrameCodec.read(input, FrameCodec.MAX_FRAME_SIZE);
+                assertEquals(100, request.timeoutMillis());
+                FrameCodec.write(output, Frame.of(request.requestId(), "usage"));
+
+                assertEquals("usage", response.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).message());
+            }
+        }
+    }
+}
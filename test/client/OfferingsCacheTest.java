@@ -0,0 +1,65 @@
+package client;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class OfferingsCacheTest {
+
+    private static final String NEW_LINE = System.lineSeparator();
+
+    private static final String FULL_LIST = "All the latest offerings:" + NEW_LINE
+            + "Bitcoin (BTC) — $50000.00 " + NEW_LINE
+            + "Solana (SOL) — $98.77 " + NEW_LINE
+            + "Generation: 3";
+
+    @Test
+    void testListIsSentPlainUntilAFullListIsSeen() {
+        OfferingsCache cache = new OfferingsCache();
+
+        assertEquals("list-offerings", cache.toRequest("list-offerings"));
+        assertEquals(FULL_LIST, cache.onReply("list-offerings", FULL_LIST));
+        assertEquals("list-offerings --since=3", cache.toRequest(" list-offerings "));
+        assertEquals("help", cache.toRequest("help"));
+    }
+
+    @Test
+    void testChangesAreMergedIntoTheFullList() {
+        OfferingsCache cache = new OfferingsCache();
+        cache.onReply("list-offerings", FULL_LIST);
+
+        String changes = "Offerings changed since generation 3:" + NEW_LINE
+                + "Bitcoin (BTC) — $51000.00 " + NEW_LINE
+                + "Ether (ETH) — $3000.00 " + NEW_LINE
+                + "Removed: SOL" + NEW_LINE
+                + "Generation: 5";
+
+        assertEquals("All the latest offerings:" + NEW_LINE
+                + "Bitcoin (BTC) — $51000.00 " + NEW_LINE
+                + "Ether (ETH) — $3000.00 " + NEW_LINE
+                + "Generation: 5", cache.onReply("list-offerings", changes));
+        assertEquals(5, cache.getGeneration());
+    }
+
+    @Test
+    void testNotModifiedShowsTheCachedList() {
+        OfferingsCache cache = new OfferingsCache();
+        cache.onReply("list-offerings", FULL_LIST);
+
+        String notModified = "Offerings not modified since generation 3." + NEW_LINE + "Generation: 3";
+
+        assertEquals(FULL_LIST, cache.onReply("list-offerings", notModified));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void testOtherRepliesAreLeftAlone() {
+        OfferingsCache cache = new OfferingsCache();
+        cache.onReply("list-offerings", FULL_LIST);
+
+        assertEquals("No information available!", cache.onReply("list-offerings", "No information available!"));
+        assertEquals(FULL_LIST, cache.onReply("help", FULL_LIST));
+        assertEquals(3, cache.getGeneration());
+        assertEquals(2, cache.size());
+    }
+}
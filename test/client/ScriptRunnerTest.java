@@ -0,0 +1,216 @@
+package client;
+
+import command.ratelimit.RateLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import protocol.Frame;
+import protocol.FrameCodec;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ScriptRunnerTest {
+
+    private ServerSocketChannel testServer;
+    private InetSocketAddress address;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testServer = ServerSocketChannel.open();
+        testServer.bind(new InetSocketAddress("localhost", 0));
+        address = (InetSocketAddress) testServer.getLocalAddress();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        testServer.close();
+    }
+
+    @Test
+    void testResultsAreWrittenInScriptOrder() throws Exception {
+        String script = """
+                # provisioning
+                register --username=a@b.com --password=secret1
+
+                login --username=a@b.com --password=secret1
+                get-wallet-summary
+                """;
+        StringWriter results = new StringWriter();
+
+        try (AsyncWalletClient client = AsyncWalletClient.connect(address)) {
+            Thread server = Thread.ofVirtual().start(() -> echo(3));
+
+            ScriptRunner.Summary summary = new ScriptRunner(client, 2)
+                    .run(new BufferedReader(new StringReader(script)), new PrintWriter(results));
+            server.join();
+
+            assertEquals(3, summary.sent());
+            assertEquals(0, summary.failed());
+        }
+
+        String[] lines = results.toString().split(System.lineSeparator());
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].matches("2\t\\d+\\.\\d{3}\tregister --username=a@b\\.com --password=secret1\t"
+                + "done: register --username=a@b\\.com --password=secret1\\\\nok"), lines[0]);
+        assertTrue(lines[1].startsWith("4\t"), lines[1]);
+        assertTrue(lines[2].startsWith("5\t") && lines[2].endsWith("\tdone: get-wallet-summary\\nok"), lines[2]);
+    }
+
+    @Test
+    void testCommandsAreReportedAsFailedWhenTheConnectionIsLost() throws Exception {
+        StringWriter results = new StringWriter();
+
+        try (AsyncWalletClient client = AsyncWalletClient.connect(address)) {
+            Thread server = Thread.ofVirtual().start(() -> echo(0));
+
+            ScriptRunner.Summary summary = new ScriptRunner(client, 1)
+                    .run(new BufferedReader(new StringReader("help\nhelp\n")), new PrintWriter(results));
+            server.join();
+
+            assertEquals(summary.sent(), summary.failed());
+            assertTrue(summary.sent() >= 1);
+        }
+
+        assertTrue(results.toString().contains("\tERROR: "));
+    }
+
+    @Test
+    void testThrottledCommandsAreRetried() throws Exception {
+        StringWriter results = new StringWriter();
+
+        try (AsyncWalletClient client = AsyncWalletClient.connect(address)) {
+            Thread server = Thread.ofVirtual().start(() -> throttleThenEcho(2, 1));
+
+            ScriptRunner.Summary summary = new ScriptRunner(client, 1)
+                    .run(new BufferedReader(new StringReader("help\n")), new PrintWriter(results));
+            server.join();
+
+            assertEquals(1, summary.sent());
+            assertEquals(0, summary.failed());
+            assertEquals(2, summary.retried());
+        }
+
+        assertTrue(results.toString().strip().endsWith("\tdone: help\\nok"), results.toString());
+    }
+
+    @Test
+    void testNothingIsSentAfterAThrottledLoginUntilItIsAccepted() throws Exception {
+        String script = """
+                login --username=b@b.com --password=secret1
+                deposit 20
+                get-wallet-summary
+                """;
+        List<String> received = new CopyOnWriteArrayList<>();
+        StringWriter results = new StringWriter();
+
+        try (AsyncWalletClient client = AsyncWalletClient.connect(address)) {
+            Thread server = Thread.ofVirtual().start(() -> throttleFirstLogin(received, 4));
+
+            ScriptRunner.Summary summary = new ScriptRunner(client, 4)
+                    .run(new BufferedReader(new StringReader(script)), new PrintWriter(results));
+            server.join();
+
+            assertEquals(0, summary.failed());
+            assertEquals(1, summary.retried());
+        }
+
+        String login = "login --username=b@b.com --password=secret1";
+        assertEquals(List.of(login, login, "deposit 20", "get-wallet-summary"), received,
+                "The deposit has to land in the wallet of the new login");
+        assertTrue(results.toString().startsWith("1\t"), results.toString());
+    }
+
+    @Test
+    void testWindowMustBePositive() throws IOException {
+        try (AsyncWalletClient client = AsyncWalletClient.connect(address)) {
+            assertThrows(IllegalArgumentException.class, () -> new ScriptRunner(client, 0));
+        }
+    }
+
+    /**
+     * Throttles the first requests, then answers the given number of requests and closes the connection.
+     */
+    private void throttleThenEcho(int throttled, int requests) {
+        try (Socket server = testServer.accept().socket()) {
+            DataInputStream input = new DataInputStream(server.getInputStream());
+            DataOutputStream output = new DataOutputStream(server.getOutputStream());
+
+            FrameCodec.read(input, FrameCodec.MAX_FRAME_SIZE);
+            for (int i = 0; i < throttled; i++) {
+                Frame request = FrameCodec.read(input, FrameCodec.MAX_FRAME_SIZE);
+                FrameCodec.write(output, Frame.of(request.requestId(), RateLimiter.SLOW_DOWN_MESSAGE));
+            }
+
+            for (int i = 0; i < requests; i++) {
+                Frame request = FrameCodec.read(input, FrameCodec.MAX_FRAME_SIZE);
+                FrameCodec.write(output, Frame.of(request.requestId(), "done: " + request.payloadAsString() + "\nok"));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Records the requests in the order they arrive, throttling the first login, and answers the given number
+     * of them before closing the connection.
+     */
+    private void throttleFirstLogin(List<String> received, int requests) {
+        try (Socket server = testServer.accept().socket()) {
+            DataInputStream input = new DataInputStream(server.getInputStream());
+            DataOutputStream output = new DataOutputStream(server.getOutputStream());
+            boolean throttled = false;
+
+            FrameCodec.read(input, FrameCodec.MAX_FRAME_SIZE);
+            for (int i = 0; i < requests; i++) {
+                Frame request = FrameCodec.read(input, FrameCodec.MAX_FRAME_SIZE);
+                received.add(request.payloadAsString());
+
+                if (!throttled && request.payloadAsString().startsWith("login")) {
+                    throttled = true;
+                    FrameCodec.write(output, Frame.of(request.requestId(), RateLimiter.SLOW_DOWN_MESSAGE));
+                } else {
+                    FrameCodec.write(output, Frame.of(request.requestId(), "done"));
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Answers the given number of requests, then closes the connection.
+     */
+    private void echo(int requests) {
+        try (Socket server = testServer.accept().socket()) {
+            DataInputStream input = new DataInputStream(server.getInputStream());
+            DataOutputStream output = new DataOutputStream(server.getOutputStream());
+
+            FrameCodec.read(input, FrameCodec.MAX_FRAME_SIZE);
+            for (int i = 0; i < requests; i++) {
+                Frame request = FrameCodec.read(input, FrameCodec.MAX_FRAME_SIZE);
+                FrameCodec.write(output, Frame.of(request.requestId(), "done: " + request.payloadAsString() + "\nok"));
+            }
+
+            if (requests == 0) {
+                FrameCodec.read(input, FrameCodec.MAX_FRAME_SIZE);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
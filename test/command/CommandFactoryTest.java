@@ -6,14 +6,20 @@ import command.commands.BuyCommand;
 import command.commands.Command;
 import command.commands.DepositCommand;
 import command.commands.HelpCommand;
+import command.commands.ListChangesCommand;
 import command.commands.ListCommand;
 import command.commands.LoginCommand;
 import command.commands.LogoutCommand;
 import command.commands.RegisterCommand;
+import command.commands.ResumeCommand;
 import command.commands.SellCommand;
 import command.commands.SummaryCommand;
 import command.commands.SummaryOverallCommand;
+import command.commands.UnwatchCommand;
+import command.commands.WatchCommand;
+import command.ratelimit.RateLimiter;
 import exception.InvalidCommandException;
+import exception.RateLimitExceededException;
 import model.Asset;
 import model.User;
 import model.Wallet;
@@ -25,6 +31,7 @@ import server.session.ClientContext;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
@@ -32,6 +39,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 public class CommandFactoryTest {
@@ -106,6 +114,33 @@ public class CommandFactoryTest {
         assertThrows(InvalidCommandException.class, ()->commandFactory.getCommand("register --username=example@abv.bg --pass=example123", contextMock), "InvalidCommandException is expected when command's flags are invalid");
     }
 
+    @Test
+    void testGetResumeCommand() {
+        assertInstanceOf(ResumeCommand.class, commandFactory.getCommand("resume --token=abc", contextMock));
+        assertThrows(InvalidCommandException.class, () -> commandFactory.getCommand("resume abc", contextMock),
+                "InvalidCommandException is expected when command's flags are invalid");
+        assertThrows(InvalidCommandException.class, () -> commandFactory.getCommand("resume --token=", contextMock),
+                "InvalidCommandException is expected when the token is missing");
+    }
+
+    @Test
+    void testGetWatchAndUnwatchCommands() {
+        ClientContext context = new ClientContext();
+
+        assertInstanceOf(WatchCommand.class, commandFactory.getCommand("watch --offering=BTC", context));
+        assertInstanceOf(UnwatchCommand.class, commandFactory.getCommand("unwatch --offering=BTC", context));
+    }
+
+    @Test
+    void testGetWatchCommandInvalidFlags() {
+        ClientContext context = new ClientContext();
+
+        assertThrows(InvalidCommandException.class, () -> commandFactory.getCommand("watch BTC", context),
+                "InvalidCommandException is expected when command's flags are invalid");
+        assertThrows(InvalidCommandException.class, () -> commandFactory.getCommand("unwatch --offering=", context),
+                "InvalidCommandException is expected when the offering is missing");
+    }
+
 //        sb.append("list-offerings
 //        sb.append("help
 //
@@ -186,6 +221,23 @@ public class CommandFactoryTest {
         assertInstanceOf(ListCommand.class, listCmd);
     }
 
+    @Test
+    void testListChangesCommand() {
+        Command listCmd = commandFactory.getCommand("list-offerings --since=3", contextMock);
+
+        assertInstanceOf(ListChangesCommand.class, listCmd);
+    }
+
+    @Test
+    void testListChangesCommandInvalidGeneration() {
+        assertThrows(InvalidCommandException.class,
+                () -> commandFactory.getCommand("list-offerings --since=-1", contextMock));
+        assertThrows(InvalidCommandException.class,
+                () -> commandFactory.getCommand("list-offerings --since=abc", contextMock));
+        assertThrows(InvalidCommandException.class,
+                () -> commandFactory.getCommand("list-offerings 3", contextMock));
+    }
+
     @Test
     void testLogoutCommand() {
         Command logoutCmd = commandFactory.getCommand("logout", contextMock);
@@ -221,6 +273,40 @@ public class CommandFactoryTest {
         assertThrows(InvalidCommandException.class, ()->commandFactory.getCommand("invalid-command", contextMock));
     }
 
+    @Test
+    void testConstructionOnNullRateLimiter() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new CommandFactory(repositoryMock, assetCacheMock, null));
+    }
+
+    @Test
+    void testGetCommandRateLimitedBeforeBuilding() {
+        RateLimiter rateLimiter = new RateLimiter(0.001, 5, Map.of());
+        CommandFactory limitedFactory = new CommandFactory(repositoryMock, assetCacheMock, rateLimiter);
+        ClientContext context = new ClientContext();
+
+        limitedFactory.getCommand("register --username=a@abv.bg --password=secret1", context);
+
+        assertThrows(RateLimitExceededException.class,
+                () -> limitedFactory.getCommand("register --username=a@abv.bg --password=secret1", context));
+        verifyNoInteractions(repositoryMock);
+    }
+
+    @Test
+    void testUnknownCommandsAreRateLimitedToo() {
+        RateLimiter rateLimiter = new RateLimiter(0.001, 5, Map.of());
+        CommandFactory limitedFactory = new CommandFactory(repositoryMock, assetCacheMock, rateLimiter);
+        ClientContext context = new ClientContext();
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(InvalidCommandException.class, () -> limitedFactory.getCommand("invalid-command", context));
+        }
+        assertThrows(InvalidCommandException.class, () -> limitedFactory.getCommand(" ", context));
+
+        assertThrows(RateLimitExceededException.class, () -> limitedFactory.getCommand("invalid-command", context),
+                "Rejected requests should use up the connection's tokens");
+    }
+
     @Test
     void testGetAssetCacheSameObject() {
         assertSame(assetCacheMock, commandFactory.getAssetCache());
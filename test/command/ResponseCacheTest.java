@@ -0,0 +1,65 @@
+package command;
+
+import command.type.CommandType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResponseCacheTest {
+
+    private final ResponseCache cache = new ResponseCache();
+    private final AtomicInteger renders = new AtomicInteger();
+
+    @Test
+    void testResponseIsRenderedOncePerGeneration() {
+        assertEquals("offerings 1", decode(cache.get(CommandType.LIST, 1, () -> render("offerings 1"))));
+        assertEquals("offerings 1", decode(cache.get(CommandType.LIST, 1, () -> render("offerings 2"))));
+
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    void testNewGenerationIsRenderedAgain() {
+        cache.get(CommandType.LIST, 1, () -> render("offerings 1"));
+
+        assertEquals("offerings 2", decode(cache.get(CommandType.LIST, 2, () -> render("offerings 2"))));
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    void testCommandTypesAreCachedSeparately() {
+        cache.get(CommandType.LIST, 0, () -> render("offerings"));
+        cache.get(CommandType.HELP, 0, () -> render("help"));
+
+        assertEquals(2, cache.size());
+        assertEquals("help", decode(cache.get(CommandType.HELP, 0, () -> render("other"))));
+    }
+
+    @Test
+    void testCallersGetIndependentReadOnlyViews() {
+        ByteBuffer first = cache.get(CommandType.HELP, 0, () -> render("help"));
+        first.position(first.limit());
+
+        ByteBuffer second = cache.get(CommandType.HELP, 0, () -> render("help"));
+
+        assertTrue(second.isReadOnly());
+        assertEquals(4, second.remaining(), "Consuming one view should not affect another");
+        assertThrows(ReadOnlyBufferException.class, () -> second.put(0, (byte) 'x'));
+    }
+
+    private String render(String response) {
+        renders.incrementAndGet();
+        return response;
+    }
+
+    private static String decode(ByteBuffer payload) {
+        return StandardCharsets.UTF_8.decode(payload).toString();
+    }
+}
@@ -0,0 +1,67 @@
+package command.commands;
+
+import api.AssetCache;
+import model.Asset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+public class ListChangesCommandTest {
+
+    private static final String NEW_LINE = System.lineSeparator();
+
+    private AssetCache assetCacheMock;
+
+    @BeforeEach
+    void setUp() {
+        assetCacheMock = Mockito.mock(AssetCache.class);
+    }
+
+    @Test
+    void testConstructListChangesCommandInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> new ListChangesCommand(null, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ListChangesCommand(assetCacheMock, -1));
+    }
+
+    @Test
+    void testNotModifiedWhenNothingChanged() {
+        when(assetCacheMock.getChangesSince(4)).thenReturn(new AssetCache.Changes(4, List.of(), List.of()));
+
+        String result = new ListChangesCommand(assetCacheMock, 4).execute();
+
+        assertEquals("Offerings not modified since generation 4." + NEW_LINE + "Generation: 4", result);
+    }
+
+    @Test
+    void testOnlyChangedAndRemovedOfferingsAreListed() {
+        Asset btc = new Asset("BTC", "Bitcoin", 1, 50000.0);
+        when(assetCacheMock.getChangesSince(2)).thenReturn(new AssetCache.Changes(3, List.of(btc), List.of("SOL")));
+
+        String result = new ListChangesCommand(assetCacheMock, 2).execute();
+
+        assertEquals("Offerings changed since generation 2:" + NEW_LINE + btc + "Removed: SOL" + NEW_LINE
+                + "Generation: 3", result);
+    }
+
+    @Test
+    void testFutureGenerationGetsTheFullList() {
+        Asset btc = new Asset("BTC", "Bitcoin", 1, 50000.0);
+        when(assetCacheMock.getChangesSince(9)).thenReturn(new AssetCache.Changes(2, List.of(), List.of()));
+        when(assetCacheMock.getGeneration()).thenReturn(2L);
+        when(assetCacheMock.getCachedValues()).thenReturn(List.of(btc));
+
+        String result = new ListChangesCommand(assetCacheMock, 9).execute();
+
+        assertTrue(result.startsWith("All the latest offerings:"));
+        assertFalse(result.contains("not modified"));
+        assertTrue(result.endsWith("Generation: 2"));
+    }
+}
@@ -36,6 +36,7 @@ public class ListCommandTest {
         List<Asset> assets = List.of(btc, eth);
 
         when(assetCacheMock.getCachedValues()).thenReturn(assets);
+        when(assetCacheMock.getGeneration()).thenReturn(7L);
 
         ListCommand command = new ListCommand(assetCacheMock);
 
@@ -45,6 +46,7 @@ public class ListCommandTest {
         assertTrue(result.contains("All the latest offerings:"));
         assertTrue(result.contains(btc.toString()));
         assertTrue(result.contains(eth.toString()));
+        assertTrue(result.endsWith("Generation: 7"));
     }
 
     @Test
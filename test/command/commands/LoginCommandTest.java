@@ -1,5 +1,6 @@
 package command.commands;
 
+import command.ratelimit.TokenBucket;
 import exception.InvalidCommandException;
 import model.User;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,8 +8,12 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import repository.UserRepository;
 import server.session.ClientContext;
+import server.session.Session;
+import server.session.SessionRegistry;
+import server.timer.MonotonicClock;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -99,4 +104,23 @@ public class LoginCommandTest {
 
         assertEquals("Invalid password.", result);
     }
+
+    @Test
+    void testSessionKeepsTheRequestBucketItLoggedInWith() {
+        String email = "mihaela@gmail.com";
+        User user = Mockito.mock(User.class);
+        when(userRepositoryMock.findByEmail(email)).thenReturn(user);
+        when(user.checkPassword("password")).thenReturn(true);
+
+        TokenBucket bucket = Mockito.mock(TokenBucket.class);
+        ClientContext context = new ClientContext();
+        context.setRequestBucket(bucket);
+        SessionRegistry sessions = new SessionRegistry(60_000);
+
+        new LoginCommand(userRepositoryMock, email, "password", context, sessions).execute();
+        Session session = sessions.find(context.getSessionToken(), MonotonicClock.millis());
+
+        assertSame(bucket, session.getContext().getRequestBucket(),
+                "Logging in should not hand the session a fresh rate limit");
+    }
 }
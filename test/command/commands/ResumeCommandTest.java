@@ -0,0 +1,123 @@
+package command.commands;
+
+import model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import repository.UserRepository;
+import server.session.ClientContext;
+import server.session.SessionRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ResumeCommandTest {
+
+    private static final String EMAIL = "mihaela@gmail.com";
+    private static final String PASSWORD = "123456";
+
+    private UserRepository userRepositoryMock;
+    private User userMock;
+    private SessionRegistry sessions;
+
+    @BeforeEach
+    void setUp() {
+        userRepositoryMock = Mockito.mock(UserRepository.class);
+        userMock = Mockito.mock(User.class);
+        sessions = new SessionRegistry(60_000);
+
+        when(userMock.email()).thenReturn(EMAIL);
+        when(userMock.checkPassword(PASSWORD)).thenReturn(true);
+        when(userRepositoryMock.findByEmail(EMAIL)).thenReturn(userMock);
+    }
+
+    @Test
+    void testConstructResumeCommandInvalid() {
+        ClientContext context = new ClientContext();
+
+        assertThrows(IllegalArgumentException.class, () ->
+                new ResumeCommand(" ", context, sessions, userRepositoryMock));
+        assertThrows(IllegalArgumentException.class, () ->
+                new ResumeCommand("token", null, sessions, userRepositoryMock));
+        assertThrows(IllegalArgumentException.class, () ->
+                new ResumeCommand("token", context, null, userRepositoryMock));
+        assertThrows(IllegalArgumentException.class, () ->
+                new ResumeCommand("token", context, sessions, null));
+    }
+
+    @Test
+    void testLoginReturnsTokenThatResumesOnAnotherConnection() {
+        ClientContext firstConnection = new ClientContext();
+        String login = new LoginCommand(userRepositoryMock, EMAIL, PASSWORD, firstConnection, sessions).execute();
+        String token = firstConnection.getSessionToken();
+
+        assertNotNull(token);
+        assertTrue(login.contains(ResumeCommand.TOKEN_MESSAGE_PREFIX + token));
+
+        firstConnection.logout();
+        ClientContext secondConnection = new ClientContext();
+        String result = new ResumeCommand(token, secondConnection, sessions, userRepositoryMock).execute();
+
+        assertEquals("Session resumed! Welcome back, " + EMAIL, result);
+        assertSame(userMock, secondConnection.getLoggedInUser());
+        assertEquals(token, secondConnection.getSessionToken());
+        verify(userMock, Mockito.times(1)).checkPassword(anyString());
+    }
+
+    @Test
+    void testUnknownTokenIsRejected() {
+        ClientContext context = new ClientContext();
+
+        String result = new ResumeCommand("unknown", context, sessions, userRepositoryMock).execute();
+
+        assertEquals("The session has expired or does not exist. Please log in!", result);
+        assertFalse(context.isLoggedIn());
+    }
+
+    @Test
+    void testLogoutEndsTheSession() {
+        ClientContext firstConnection = new ClientContext();
+        new LoginCommand(userRepositoryMock, EMAIL, PASSWORD, firstConnection, sessions).execute();
+        String token = firstConnection.getSessionToken();
+
+        new LogoutCommand(firstConnection, sessions).execute(null);
+
+        assertNull(firstConnection.getSessionToken());
+        assertEquals(0, sessions.size());
+        assertEquals("The session has expired or does not exist. Please log in!",
+                new ResumeCommand(token, new ClientContext(), sessions, userRepositoryMock).execute());
+    }
+
+    @Test
+    void testResumeWhenAlreadyLoggedIn() {
+        ClientContext context = new ClientContext();
+        context.login(userMock);
+
+        String result = new ResumeCommand("token", context, sessions, userRepositoryMock).execute();
+
+        assertEquals("You are already logged in as " + EMAIL, result);
+        verify(userRepositoryMock, never()).findByEmail(anyString());
+    }
+
+    @Test
+    void testResumeOfDeletedUserIsRejected() {
+        ClientContext firstConnection = new ClientContext();
+        new LoginCommand(userRepositoryMock, EMAIL, PASSWORD, firstConnection, sessions).execute();
+        when(userRepositoryMock.findByEmail(EMAIL)).thenReturn(null);
+
+        String result = new ResumeCommand(firstConnection.getSessionToken(), new ClientContext(), sessions,
+                userRepositoryMock).execute();
+
+        assertEquals("The session has expired or does not exist. Please log in!", result);
+        assertEquals(0, sessions.size());
+    }
+}
@@ -0,0 +1,67 @@
+package command.commands;
+
+import command.type.CommandType;
+import exception.UnauthenticatedException;
+import metrics.MetricsRegistry;
+import model.User;
+import org.junit.jupiter.api.Test;
+import server.session.ClientContext;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StatsCommandTest {
+
+    private static final String ADMIN = "admin@abv.bg";
+
+    private final MetricsRegistry metrics = new MetricsRegistry();
+
+    @Test
+    void testConstructionWithNullArguments() {
+        ClientContext context = loggedInAs(ADMIN);
+
+        assertThrows(IllegalArgumentException.class, () -> new StatsCommand(null, metrics, Set.of(ADMIN)));
+        assertThrows(IllegalArgumentException.class, () -> new StatsCommand(context, null, Set.of(ADMIN)));
+        assertThrows(IllegalArgumentException.class, () -> new StatsCommand(context, metrics, null));
+    }
+
+    @Test
+    void testStatsRequireLogin() {
+        ClientContext context = mock(ClientContext.class);
+        when(context.isLoggedIn()).thenReturn(false);
+
+        assertThrows(UnauthenticatedException.class, () -> new StatsCommand(context, metrics, Set.of(ADMIN)));
+    }
+
+    @Test
+    void testStatsRequireAdmin() {
+        ClientContext context = loggedInAs("user@abv.bg");
+
+        assertThrows(UnauthenticatedException.class, () -> new StatsCommand(context, metrics, Set.of(ADMIN)));
+    }
+
+    @Test
+    void testExecuteReportsPercentilesPerCommand() {
+        metrics.recordCommand(CommandType.BUY, 2_000_000);
+
+        String result = new StatsCommand(loggedInAs(ADMIN), metrics, Set.of(ADMIN)).execute(null);
+
+        assertTrue(result.contains("p50") && result.contains("p99") && result.contains("p999"),
+                "Stats should report percentiles");
+        assertTrue(result.contains("buy"), "Stats should list commands that were executed");
+    }
+
+    private static ClientContext loggedInAs(String email) {
+        User user = mock(User.class);
+        when(user.email()).thenReturn(email);
+
+        ClientContext context = mock(ClientContext.class);
+        when(context.isLoggedIn()).thenReturn(true);
+        when(context.getLoggedInUser()).thenReturn(user);
+        return context;
+    }
+}
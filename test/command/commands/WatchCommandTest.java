@@ -0,0 +1,81 @@
+package command.commands;
+
+import api.AssetCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.session.ClientContext;
+import server.subscription.SubscriptionHub;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WatchCommandTest {
+
+    private AssetCache assetCacheMock;
+    private SubscriptionHub hub;
+    private ClientContext context;
+
+    @BeforeEach
+    void setUp() {
+        assetCacheMock = mock(AssetCache.class);
+        hub = new SubscriptionHub();
+        context = new ClientContext();
+        context.getWatchList().setPushNotifier(() -> { });
+
+        when(assetCacheMock.containsAsset("BTC")).thenReturn(true);
+    }
+
+    @Test
+    void testConstructionWithInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new WatchCommand(" ", context, hub, assetCacheMock));
+        assertThrows(IllegalArgumentException.class, () -> new WatchCommand("BTC", null, hub, assetCacheMock));
+        assertThrows(IllegalArgumentException.class, () -> new WatchCommand("BTC", context, null, assetCacheMock));
+        assertThrows(IllegalArgumentException.class, () -> new WatchCommand("BTC", context, hub, null));
+    }
+
+    @Test
+    void testWatchSubscribesToAsset() {
+        String result = new WatchCommand("btc", context, hub, assetCacheMock).execute();
+
+        assertTrue(result.startsWith("Watching BTC"));
+        assertEquals(Set.of("BTC"), context.getWatchList().getWatchedAssetIds());
+        assertEquals(1, hub.getSubscriberCount("BTC"));
+    }
+
+    @Test
+    void testWatchTwiceIsReported() {
+        new WatchCommand("BTC", context, hub, assetCacheMock).execute();
+
+        assertEquals("You are already watching BTC!", new WatchCommand("BTC", context, hub, assetCacheMock).execute());
+    }
+
+    @Test
+    void testWatchUnknownAsset() {
+        assertEquals("No such offering available: XYZ", new WatchCommand("XYZ", context, hub, assetCacheMock).execute());
+        assertEquals(0, hub.getSubscriberCount("XYZ"));
+    }
+
+    @Test
+    void testWatchWithoutPushSupport() {
+        ClientContext statelessContext = new ClientContext();
+
+        String result = new WatchCommand("BTC", statelessContext, hub, assetCacheMock).execute();
+
+        assertEquals("Watching prices needs a persistent connection to the server!", result);
+        assertEquals(0, hub.getSubscriberCount("BTC"));
+    }
+
+    @Test
+    void testUnwatchStopsSubscription() {
+        new WatchCommand("BTC", context, hub, assetCacheMock).execute();
+
+        assertEquals("Stopped watching BTC.", new UnwatchCommand("btc", context).execute());
+        assertEquals("You are not watching BTC!", new UnwatchCommand("BTC", context).execute());
+        assertEquals(0, hub.getSubscriberCount("BTC"));
+    }
+}
@@ -0,0 +1,101 @@
+package command.ratelimit;
+
+import command.type.CommandType;
+import exception.RateLimitExceededException;
+import model.User;
+import org.junit.jupiter.api.Test;
+import server.session.ClientContext;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RateLimiterTest {
+
+    private static final double SLOW_REFILL = 0.001;
+
+    @Test
+    void testConstructionWithInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0, 10, Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(1, 0, Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(1, 10, null));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(1, 10, Map.of(CommandType.BUY, 11)),
+                "A command costing more than the burst could never run");
+    }
+
+    @Test
+    void testConfiguredCostOverridesDefault() {
+        RateLimiter limiter = new RateLimiter(1, 10, Map.of(CommandType.HELP, 3));
+
+        assertEquals(3, limiter.getCost(CommandType.HELP));
+        assertEquals(CommandType.BUY.getDefaultCost(), limiter.getCost(CommandType.BUY));
+    }
+
+    @Test
+    void testMutatingCommandsAreLimitedHarder() {
+        RateLimiter limiter = new RateLimiter(SLOW_REFILL, 10, Map.of());
+        ClientContext context = new ClientContext();
+
+        limiter.acquire(CommandType.REGISTER, context);
+        limiter.acquire(CommandType.REGISTER, context);
+
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire(CommandType.REGISTER, context));
+
+        ClientContext other = new ClientContext();
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(CommandType.HELP, other);
+        }
+    }
+
+    @Test
+    void testRejectedRequestsAreChargedToTheConnection() {
+        RateLimiter limiter = new RateLimiter(SLOW_REFILL, 10, Map.of());
+        ClientContext context = new ClientContext();
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquireRejected(context);
+        }
+
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire(CommandType.HELP, context));
+        assertDoesNotThrow(() -> RateLimiter.unlimited().acquireRejected(context));
+    }
+
+    @Test
+    void testUserIsLimitedAcrossConnections() {
+        RateLimiter limiter = new RateLimiter(SLOW_REFILL, 10, Map.of());
+        User user = new User("user@abv.bg", "hash", null);
+
+        ClientContext first = new ClientContext();
+        first.login(user);
+        ClientContext second = new ClientContext();
+        second.login(user);
+
+        limiter.acquire(CommandType.DEPOSIT, first);
+        limiter.acquire(CommandType.DEPOSIT, second);
+
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire(CommandType.DEPOSIT, second),
+                "Second connection of the same user should share the user's bucket");
+    }
+
+    @Test
+    void testMockedContextWithoutBucketIsHandled() {
+        RateLimiter limiter = new RateLimiter(SLOW_REFILL, 10, Map.of());
+        ClientContext context = mock(ClientContext.class);
+        when(context.getRequestBucket()).thenReturn(null);
+
+        assertDoesNotThrow(() -> limiter.acquire(CommandType.HELP, context));
+    }
+
+    @Test
+    void testUnlimitedNeverRejects() {
+        ClientContext context = new ClientContext();
+
+        for (int i = 0; i < 1_000; i++) {
+            RateLimiter.unlimited().acquire(CommandType.BUY, context);
+        }
+    }
+}
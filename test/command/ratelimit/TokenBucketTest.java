@@ -0,0 +1,47 @@
+package command.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void testConstructionWithInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0, 0));
+    }
+
+    @Test
+    void testBurstIsAllowedUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(10, 1, 0);
+
+        assertTrue(bucket.tryConsume(5, 0));
+        assertTrue(bucket.tryConsume(5, 0));
+        assertFalse(bucket.tryConsume(1, 0), "Bucket should be empty after the burst");
+    }
+
+    @Test
+    void testTokensAreRegainedOverTimeUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+        bucket.tryConsume(10, 0);
+
+        assertEquals(4, bucket.getAvailableTokens(2 * SECOND), 1e-9);
+        assertEquals(10, bucket.getAvailableTokens(60 * SECOND), 1e-9);
+    }
+
+    @Test
+    void testRefundDoesNotExceedCapacity() {
+        TokenBucket bucket = new TokenBucket(10, 1, 0);
+        bucket.tryConsume(3, 0);
+
+        bucket.refund(5);
+
+        assertEquals(10, bucket.getAvailableTokens(0), 1e-9);
+    }
+}
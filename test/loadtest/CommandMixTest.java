@@ -0,0 +1,54 @@
+package loadtest;
+
+import command.type.CommandType;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandMixTest {
+
+    private static final List<String> ASSET_IDS = List.of("LT1", "LT2");
+
+    @Test
+    void testNextFollowsTheWeights() {
+        CommandMix mix = CommandMix.parse("buy:1,list-offerings:3", ASSET_IDS);
+        Random random = new Random(7);
+        Map<CommandType, Integer> picks = new EnumMap<>(CommandType.class);
+
+        for (int i = 0; i < 10_000; i++) {
+            picks.merge(mix.next(random), 1, Integer::sum);
+        }
+
+        assertEquals(Set.of(CommandType.BUY, CommandType.LIST), mix.getCommandTypes());
+        assertEquals(7_500, picks.get(CommandType.LIST), 300);
+        assertEquals(2_500, picks.get(CommandType.BUY), 300);
+    }
+
+    @Test
+    void testToRequestBuildsValidCommands() {
+        CommandMix mix = CommandMix.parse(CommandMix.DEFAULT_MIX, ASSET_IDS);
+        Random random = new Random(7);
+
+        assertEquals("deposit 5", mix.toRequest(CommandType.DEPOSIT, random));
+        assertTrue(mix.toRequest(CommandType.BUY, random).matches("buy --offering=LT[12] --money=5"));
+        assertTrue(mix.toRequest(CommandType.SELL, random).matches("sell --offering=LT[12]"));
+        assertEquals("get-wallet-summary", mix.toRequest(CommandType.SUMMARY, random));
+    }
+
+    @Test
+    void testParseRejectsInvalidMixes() {
+        assertThrows(IllegalArgumentException.class, () -> CommandMix.parse("transfer:10", ASSET_IDS));
+        assertThrows(IllegalArgumentException.class, () -> CommandMix.parse("login:10", ASSET_IDS));
+        assertThrows(IllegalArgumentException.class, () -> CommandMix.parse("buy:0", ASSET_IDS));
+        assertThrows(IllegalArgumentException.class, () -> CommandMix.parse("buy:many", ASSET_IDS));
+        assertThrows(IllegalArgumentException.class, () -> CommandMix.parse("buy:1", List.of()));
+    }
+}
@@ -0,0 +1,110 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void testBucketBoundsContainTheirValues() {
+        for (long value : new long[] {0, 1, 31, 32, 33, 63, 64, 100, 1_000, 123_456, 987_654_321L}) {
+            int index = LatencyHistogram.indexOf(value);
+
+            assertTrue(LatencyHistogram.lowerBoundOf(index) <= value, "Lower bound above " + value);
+            assertTrue(LatencyHistogram.upperBoundOf(index) >= value, "Upper bound below " + value);
+        }
+    }
+
+    @Test
+    void testRelativeErrorIsBounded() {
+        for (long value = 32; value < 10_000_000; value = value * 3 + 7) {
+            long upper = LatencyHistogram.upperBoundOf(LatencyHistogram.indexOf(value));
+
+            assertTrue((upper - value) / (double) value <= 1.0 / 32, "Bucket too wide around " + value);
+        }
+    }
+
+    @Test
+    void testPercentilesOfUniformValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 1; i <= 1_000; i++) {
+            histogram.recordMicros(i);
+        }
+
+        assertEquals(1_000, histogram.getCount());
+        assertEquals(1_000, histogram.getMaxMicros());
+        assertEquals(500, histogram.getMeanMicros());
+        assertEquals(500, histogram.getPercentileMicros(50), 500 / 32.0);
+        assertEquals(990, histogram.getPercentileMicros(99), 990 / 32.0);
+        assertEquals(1_000, histogram.getPercentileMicros(99.9), 1_000 / 32.0);
+        assertEquals(1_000, histogram.getPercentileMicros(100));
+    }
+
+    @Test
+    void testTailIsVisibleInHighPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 0; i < 999; i++) {
+            histogram.recordMicros(100);
+        }
+        histogram.recordMicros(1_000_000);
+
+        assertTrue(histogram.getPercentileMicros(99) < 110);
+        assertEquals(1_000_000, histogram.getPercentileMicros(100));
+    }
+
+    @Test
+    void testCorrectedRecordingBackFillsMissedRequests() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.recordMicrosCorrected(100, 1_000);
+        histogram.recordMicrosCorrected(10_000, 1_000);
+
+        assertEquals(11, histogram.getCount());
+        assertEquals(10_000, histogram.getMaxMicros());
+        assertEquals(1_000, histogram.getPercentileMicros(10), 1_000 / 32.0);
+    }
+
+    @Test
+    void testCorrectedRecordingWithoutIntervalRecordsOnce() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.recordMicrosCorrected(10_000, 0);
+
+        assertEquals(1, histogram.getCount());
+    }
+
+    @Test
+    void testEmptyHistogramAndInvalidPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getPercentileMicros(99));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentileMicros(0));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentileMicros(101));
+    }
+
+    @Test
+    void testConcurrentRecordingLosesNothing() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.recordMicros(i % 500);
+                }
+            });
+            threads[t].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(40_000, histogram.getCount());
+    }
+}
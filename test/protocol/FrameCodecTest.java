@@ -0,0 +1,103 @@
+package protocol;
+
+import exception.MalformedFrameException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FrameCodecTest {
+
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        ByteBuffer encoded = FrameCodec.encode(Frame.of(42, "buy --offering=BTC --money=100"));
+
+        Frame decoded = FrameCodec.decode(encoded, FrameCodec.MAX_FRAME_SIZE);
+
+        assertEquals(42, decoded.requestId());
+        assertEquals("buy --offering=BTC --money=100", decoded.payloadAsString());
+        assertEquals(0, encoded.remaining(), "The whole frame should be consumed");
+    }
+
+    @Test
+    void testDecodeIncompleteFrameReturnsNullWithoutConsuming() {
+        ByteBuffer encoded = FrameCodec.encode(Frame.of(1, "help"));
+        ByteBuffer partial = encoded.slice(0, encoded.remaining() - 1);
+
+        assertNull(FrameCodec.decode(partial, FrameCodec.MAX_FRAME_SIZE), "Incomplete frame should not be decoded");
+        assertEquals(0, partial.position(), "Incomplete frame should stay in the buffer");
+    }
+
+    @Test
+    void testDecodeSeveralPipelinedFrames() {
+        ByteBuffer first = FrameCodec.encode(Frame.of(1, "help"));
+        ByteBuffer second = FrameCodec.encode(Frame.of(2, "list-offerings"));
+        ByteBuffer both = ByteBuffer.allocate(first.remaining() + second.remaining()).put(first).put(second).flip();
+
+        assertEquals(1, FrameCodec.decode(both, FrameCodec.MAX_FRAME_SIZE).requestId());
+        assertEquals(2, FrameCodec.decode(both, FrameCodec.MAX_FRAME_SIZE).requestId());
+        assertNull(FrameCodec.decode(both, FrameCodec.MAX_FRAME_SIZE));
+    }
+
+    @Test
+    void testDecodeTooLargeFrameThrowsException() {
+        ByteBuffer encoded = FrameCodec.encode(Frame.of(1, "a very long command"));
+
+        assertThrows(MalformedFrameException.class, () -> FrameCodec.decode(encoded, FrameCodec.HEADER_SIZE));
+    }
+
+    @Test
+    void testWriteReadStreamRoundTrip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        FrameCodec.write(new DataOutputStream(bytes), Frame.of(7, "get-wallet-summary"));
+
+        Frame read = FrameCodec.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+                FrameCodec.MAX_FRAME_SIZE);
+
+        assertEquals(7, read.requestId());
+        assertEquals("get-wallet-summary", read.payloadAsString());
+    }
+
+    @Test
+    void testDeadlineFrameRoundTrip() {
+        ByteBuffer encoded = FrameCodec.encode(Frame.withDeadline(3, "buy --offering=BTC --money=100", 250));
+
+        Frame decoded = FrameCodec.decode(encoded, FrameCodec.MAX_FRAME_SIZE);
+
+        assertTrue(decoded.hasFlag(Frame.FLAG_DEADLINE));
+        assertEquals(250, decoded.timeoutMillis());
+        assertEquals("buy --offering=BTC --money=100", decoded.payloadAsString());
+        assertEquals(0, Frame.of(3, "help").timeoutMillis(), "A frame without the flag should have no timeout");
+    }
+
+    @Test
+    void testDeadlineFrameWithoutTimeoutIsMalformed() {
+        ByteBuffer encoded = FrameCodec.encode(new Frame(1, Frame.NO_FLAGS, new byte[] {0, 0}));
+        encoded.put(FrameCodec.LENGTH_FIELD_SIZE + Long.BYTES, Frame.FLAG_DEADLINE);
+
+        assertThrows(MalformedFrameException.class, () -> FrameCodec.decode(encoded, FrameCodec.MAX_FRAME_SIZE));
+    }
+
+    @Test
+    void testSessionFrameRoundTrip() {
+        ByteBuffer encoded = FrameCodec.encode(Frame.request(4, 17, "get-wallet-summary", 500));
+
+        Frame decoded = FrameCodec.decode(encoded, FrameCodec.MAX_FRAME_SIZE);
+
+        assertEquals(17, decoded.sessionId());
+        assertEquals(500, decoded.timeoutMillis());
+        assertEquals("get-wallet-summary", decoded.payloadAsString());
+        assertEquals(Frame.DEFAULT_SESSION_ID, Frame.of(4, "help").sessionId());
+        assertEquals(Frame.NO_FLAGS, Frame.forSession(4, Frame.DEFAULT_SESSION_ID, "help").flags(),
+                "The default session should not need the session field");
+    }
+}
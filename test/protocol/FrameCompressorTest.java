@@ -0,0 +1,106 @@
+package protocol;
+
+import exception.MalformedFrameException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FrameCompressorTest {
+
+    private static final int THRESHOLD = 64;
+
+    private final FrameCompressor compressor = new FrameCompressor(THRESHOLD);
+    private final FrameDecompressor decompressor = new FrameDecompressor(FrameCodec.MAX_FRAME_SIZE);
+
+    @AfterEach
+    void tearDown() {
+        compressor.close();
+        decompressor.close();
+    }
+
+    @Test
+    void testConstructionWithInvalidThreshold() {
+        assertThrows(IllegalArgumentException.class, () -> new FrameCompressor(0));
+        assertThrows(IllegalArgumentException.class, () -> new FrameDecompressor(0));
+    }
+
+    @Test
+    void testSmallPayloadIsNotCompressed() {
+        Frame frame = Frame.of(1, "help");
+
+        assertSame(frame, compressor.compress(frame));
+    }
+
+    @Test
+    void testLargePayloadRoundTrip() {
+        Frame frame = Frame.of(7, "Bitcoin (BTC) — $43251.23 \n".repeat(100));
+
+        Frame compressed = compressor.compress(frame);
+
+        assertTrue(compressed.hasFlag(Frame.FLAG_COMPRESSED));
+        assertTrue(compressed.payload().length < frame.payload().length);
+        assertEquals(7, compressed.requestId());
+
+        Frame inflated = decompressor.decompress(compressed);
+
+        assertFalse(inflated.hasFlag(Frame.FLAG_COMPRESSED));
+        assertArrayEquals(frame.payload(), inflated.payload());
+    }
+
+    @Test
+    void testCompressorIsReusedAcrossFrames() {
+        for (int i = 0; i < 10; i++) {
+            Frame frame = Frame.of(i, ("response " + i + " ").repeat(50));
+
+            assertEquals(frame.payloadAsString(), decompressor.decompress(compressor.compress(frame)).payloadAsString());
+        }
+    }
+
+    @Test
+    void testIncompressiblePayloadIsSentAsIs() {
+        byte[] random = new byte[THRESHOLD * 4];
+        new Random(42).nextBytes(random);
+        Frame frame = new Frame(1, Frame.NO_FLAGS, random);
+
+        assertSame(frame, compressor.compress(frame));
+    }
+
+    @Test
+    void testUncompressedFrameIsNotInflated() {
+        Frame frame = Frame.of(1, "help");
+
+        assertSame(frame, decompressor.decompress(frame));
+    }
+
+    @Test
+    void testInflatingBeyondLimitIsRejected() {
+        try (FrameDecompressor limited = new FrameDecompressor(100)) {
+            Frame compressed = compressor.compress(Frame.of(1, "a".repeat(10_000)));
+
+            assertThrows(MalformedFrameException.class, () -> limited.decompress(compressed));
+        }
+    }
+
+    @Test
+    void testCorruptedPayloadIsRejected() {
+        Frame corrupted = new Frame(1, Frame.FLAG_COMPRESSED, new byte[] {1, 2, 3, 4});
+
+        assertThrows(MalformedFrameException.class, () -> decompressor.decompress(corrupted));
+    }
+
+    @Test
+    void testHandshakeOptionParsing() {
+        assertTrue(FrameCompressor.isRequested(FrameCompressor.DEFLATE_OPTION));
+        assertTrue(FrameCompressor.isRequested("something, " + FrameCompressor.DEFLATE_OPTION));
+        assertFalse(FrameCompressor.isRequested(""));
+        assertFalse(FrameCompressor.isRequested("compression=gzip"));
+    }
+}
@@ -13,6 +13,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -100,6 +101,26 @@ public class UserRepositoryTest {
         assertEquals("mihaela@abv.bg", found.email());
     }
 
+    @Test
+    void testExclusiveRepositoryIsTheSingleOwnerOfItsFile() throws IOException {
+        String exclusiveFileName = "exclusive_" + testFileName;
+        Path lockPath = DIRECTORY_PATH.resolve(exclusiveFileName + ".lock");
+
+        UserRepository owner = new UserRepository(exclusiveFileName, true, true);
+
+        try {
+            assertThrows(IllegalStateException.class, () -> new UserRepository(exclusiveFileName, true, true),
+                    "A second owner of the same users file is expected to be refused");
+            assertNotNull(new UserRepository(exclusiveFileName), "Repositories that do not claim the file still open");
+        } finally {
+            owner.releaseOwnership();
+        }
+
+        UserRepository nextOwner = new UserRepository(exclusiveFileName, true, true);
+        nextOwner.releaseOwnership();
+        Files.deleteIfExists(lockPath);
+    }
+
     @Test
     void testConstructUserRepositoryWithInvalidName() {
         assertThrows(IllegalArgumentException.class, () -> new UserRepository(null), "Filename passed is null, IllegalArgumentException expected");
@@ -177,4 +198,52 @@ public class UserRepositoryTest {
     void testRegisterUserWithNullFields() {
         assertThrows(InvalidCommandException.class, () -> userRepository.findByEmail(""));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testDeferredPersistenceWritesOnlyOnFlush() throws IOException {
+        UserRepository deferredRepository = new UserRepository(testFileName, true);
+
+        deferredRepository.registerUser(new User("deferred@gmail.com", "password", new Wallet()));
+
+        assertTrue(deferredRepository.hasPendingChanges(), "Registering should only mark the repository as dirty");
+        assertFalse(Files.exists(testFilePath), "Nothing should be written before flushing");
+
+        deferredRepository.flushPendingChanges();
+
+        assertFalse(deferredRepository.hasPendingChanges(), "Flushing should clear the pending changes");
+        assertTrue(Files.readString(testFilePath).contains("deferred@gmail.com"), "Flushed file should hold the user");
+    }
+
+    @Test
+    void testImmediatePersistenceHasNoPendingChanges() {
+        userRepository.registerUser(new User("immediate@gmail.com", "password", new Wallet()));
+
+        assertFalse(userRepository.hasPendingChanges(), "Default repository should save on every modification");
+        assertTrue(Files.exists(testFilePath), "Default repository should write the file right away");
+    }
+
+    @Test
+    void testSavingWhileWalletsChangeWritesWholeTrades() throws Exception {
+        UserRepository deferredRepository = new UserRepository(testFileName, true);
+        User user = new User("trader@gmail.com", "password", new Wallet());
+        user.wallet().deposit(1_000_000);
+        deferredRepository.registerUser(user);
+
+        Thread trader = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                user.wallet().buy("BTC", 1.0, 1.0);
+            }
+        });
+
+        while (trader.isAlive()) {
+            deferredRepository.saveAllUsers();
+        }
+        trader.join();
+
+        deferredRepository.saveAllUsers();
+        Wallet saved = new UserRepository(testFileName).findByEmail("trader@gmail.com").wallet();
+
+        assertEquals(20_001, saved.getTransactionHistory().size());
+        assertEquals(1_000_000 - 20_000, saved.getBalanceUsd(), 0.0001);
+    }
+}
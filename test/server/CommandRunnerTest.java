@@ -0,0 +1,62 @@
+package server;
+
+import command.CommandDispatcher;
+import command.CommandFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import repository.UserRepository;
+import server.pipeline.CommandPipeline;
+import server.session.ClientContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CommandRunnerTest {
+
+    private CommandDispatcher dispatcherMock;
+    private UserRepository repositoryMock;
+    private CommandRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        dispatcherMock = Mockito.mock(CommandDispatcher.class);
+        repositoryMock = Mockito.mock(UserRepository.class);
+        CommandFactory factoryMock = Mockito.mock(CommandFactory.class);
+
+        when(dispatcherMock.getCommandFactory()).thenReturn(factoryMock);
+        when(factoryMock.getUserRepository()).thenReturn(repositoryMock);
+
+        runner = new CommandRunner(dispatcherMock);
+    }
+
+    @Test
+    void testReadOnlyCommandDoesNotWriteOtherUsersChanges() {
+        when(dispatcherMock.dispatch(anyString(), any())).thenReturn("offerings");
+        doThrow(new RuntimeException("disk full")).when(repositoryMock).flushPendingChanges();
+
+        assertEquals("offerings", runner.run("list-offerings", new ClientContext()));
+        verify(repositoryMock, never()).flushPendingChanges();
+    }
+
+    @Test
+    void testModifyingCommandRepliesOnlyOnceSaved() {
+        when(dispatcherMock.dispatch(anyString(), any())).thenReturn("$100.00 deposited");
+
+        assertEquals("$100.00 deposited", runner.run("deposit 100", new ClientContext()));
+        verify(repositoryMock).flushPendingChanges();
+    }
+
+    @Test
+    void testFailedSaveIsReported() {
+        when(dispatcherMock.dispatch(anyString(), any())).thenReturn("$100.00 deposited");
+        doThrow(new RuntimeException("disk full")).when(repositoryMock).flushPendingChanges();
+
+        assertEquals(CommandPipeline.PERSIST_FAILED_MESSAGE, runner.run("deposit 100", new ClientContext()));
+    }
+}
@@ -0,0 +1,133 @@
+package server;
+
+import api.AssetCache;
+import client.AsyncWalletClient;
+import client.Response;
+import command.CommandFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import repository.UserRepository;
+import server.config.ServerOptions;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class VirtualThreadServerTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+    private static final String EMAIL = "user@abv.bg";
+    private static final int CLIENTS = 4;
+
+    private UserRepository repositoryMock;
+    private int port;
+    private VirtualThreadServer server;
+    private Thread serverThread;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        repositoryMock = mock(UserRepository.class);
+        port = freePort();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (server != null) {
+            server.stop();
+            serverThread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        }
+    }
+
+    @Test
+    void testEveryConnectionIsAnsweredOnItsOwnThread() throws Exception {
+        start("--port=" + port);
+
+        List<AsyncWalletClient> clients = new ArrayList<>();
+        try {
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.add(connect(new InetSocketAddress("localhost", port)));
+            }
+
+            List<CompletableFuture<Response>> replies = new ArrayList<>();
+            for (AsyncWalletClient client : clients) {
+                replies.add(client.send("help"));
+                replies.add(client.send("get-wallet-summary"));
+            }
+
+            for (int i = 0; i < replies.size(); i += 2) {
+                assertTrue(replies.get(i).get(TIMEOUT_SECONDS, TimeUnit.SECONDS).message()
+                        .contains("Available Commands:"));
+                assertFalse(replies.get(i + 1).get(TIMEOUT_SECONDS, TimeUnit.SECONDS).message().isBlank(),
+                        "A command refused for a guest should still be answered");
+            }
+        } finally {
+            clients.forEach(AsyncWalletClient::close);
+        }
+    }
+
+    @Test
+    void testStopAnswersTheRequestInFlightBeforeReturning() throws Exception {
+        CountDownLatch executing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repositoryMock.findByEmail(EMAIL)).thenAnswer(invocation -> {
+            executing.countDown();
+            release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            return null;
+        });
+        start("--port=" + port, "--shutdown-timeout=" + TIMEOUT_SECONDS);
+
+        try (AsyncWalletClient client = connect(new InetSocketAddress("localhost", port))) {
+            CompletableFuture<Response> reply = client.login(EMAIL, "secret1");
+            assertTrue(executing.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+            server.stop();
+            release.countDown();
+
+            assertEquals("No such email has been registered",
+                    reply.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).message());
+            serverThread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+            assertFalse(serverThread.isAlive(), "The server should return once the request in flight is answered");
+        }
+    }
+
+    private void start(String... args) {
+        CommandFactory factory = new CommandFactory(repositoryMock, mock(AssetCache.class));
+        server = new VirtualThreadServer(factory, ServerOptions.parse(args));
+        serverThread = Thread.ofPlatform().name("test-server").start(server::start);
+    }
+
+    private static AsyncWalletClient connect(SocketAddress address) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+
+        while (true) {
+            try {
+                return AsyncWalletClient.connect(address);
+            } catch (ConnectException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package server.buffer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChainedBufferTest {
+
+    @Test
+    void testPoolConstructionWithInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new BufferPool(8, 4));
+        assertThrows(IllegalArgumentException.class, () -> new BufferPool(64, 0));
+    }
+
+    @Test
+    void testPoolFallsBackToFreshBuffersWhenExhausted() {
+        BufferPool pool = new BufferPool(64, 1);
+
+        ByteBuffer first = pool.lease();
+        ByteBuffer second = pool.lease();
+
+        assertEquals(1, pool.getMisses(), "Second lease should be a miss");
+        pool.release(first);
+        pool.release(second);
+        assertEquals(1, pool.getFreeChunks(), "The pool should not grow above its size");
+    }
+
+    @Test
+    void testReadsSpanningSeveralChunks() throws IOException {
+        BufferPool pool = new BufferPool(64, 4);
+        ChainedBuffer buffer = new ChainedBuffer(pool);
+        byte[] data = new byte[100];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(data));
+        while (buffer.readFrom(channel) > 0) {
+            assertTrue(buffer.remaining() <= data.length);
+        }
+
+        assertEquals(100, buffer.remaining());
+        assertEquals(0x00010203, buffer.peekInt());
+
+        byte[] read = new byte[100];
+        buffer.get(read);
+
+        assertArrayEquals(data, read);
+        assertEquals(4, pool.getFreeChunks(), "Consumed chunks should go back to the pool");
+    }
+
+    @Test
+    void testPrimitiveReadsAcrossChunkBoundary() {
+        BufferPool pool = new BufferPool(64, 4);
+        ChainedBuffer buffer = new ChainedBuffer(pool);
+
+        buffer.append(ByteBuffer.allocate(74).putInt(62, 42).putLong(66, 7L));
+
+        buffer.get(new byte[62]);
+
+        assertEquals(42, buffer.getInt());
+        assertEquals(7L, buffer.getLong());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    void testGetMoreThanBufferedThrowsException() {
+        ChainedBuffer buffer = new ChainedBuffer(new BufferPool(64, 1));
+
+        assertThrows(IllegalStateException.class, buffer::getLong);
+    }
+}
@@ -0,0 +1,136 @@
+package server.http;
+
+import command.CommandDispatcher;
+import command.CommandFactory;
+import command.ratelimit.TokenBucket;
+import model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import repository.UserRepository;
+import server.CommandRunner;
+import server.session.ClientContext;
+import server.session.SessionRegistry;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class HttpGatewayTest {
+
+    private static final String EMAIL = "user@abv.bg";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private CommandDispatcher dispatcher;
+    private HttpGateway gateway;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        CommandFactory factory = mock(CommandFactory.class);
+        when(factory.getUserRepository()).thenReturn(mock(UserRepository.class));
+
+        dispatcher = mock(CommandDispatcher.class);
+        when(dispatcher.getCommandFactory()).thenReturn(factory);
+
+        gateway = new HttpGateway(new CommandRunner(dispatcher), new SessionRegistry(60_000),
+                new InetSocketAddress("localhost", 0));
+        gateway.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        gateway.close();
+    }
+
+    @Test
+    void testPublicRouteIsTranslatedToCommand() throws Exception {
+        when(dispatcher.dispatch(eq("help"), any())).thenReturn("Available Commands:");
+
+        HttpResponse<String> response = send("GET", "/api/help", null, null);
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("Available Commands:"));
+    }
+
+    @Test
+    void testLoginReturnsTokenUsableForAuthenticatedRoutes() throws Exception {
+        doAnswer(invocation -> {
+            invocation.getArgument(1, ClientContext.class).login(mock(User.class));
+            return "Login successful!";
+        }).when(dispatcher).dispatch(eq("login --username=" + EMAIL + " --password=secret1"), any());
+        when(dispatcher.dispatch(eq("deposit 100"), any())).thenReturn("$100.00 deposited");
+
+        HttpResponse<String> login = send("POST", "/api/login",
+                "{\"email\":\"" + EMAIL + "\",\"password\":\"secret1\"}", null);
+        assertEquals(200, login.statusCode());
+
+        String token = login.body().replaceAll(".*\"token\":\"([^\"]+)\".*", "$1");
+        HttpResponse<String> deposit = send("POST", "/api/deposit", "{\"amount\":\"100\"}", token);
+
+        assertEquals(200, deposit.statusCode());
+        assertTrue(deposit.body().contains("deposited"));
+    }
+
+    @Test
+    void testFailedLoginIsUnauthorized() throws Exception {
+        when(dispatcher.dispatch(any(), any())).thenReturn("Invalid password.");
+
+        HttpResponse<String> response = send("POST", "/api/login",
+                "{\"email\":\"" + EMAIL + "\",\"password\":\"wrong\"}", null);
+
+        assertEquals(401, response.statusCode());
+    }
+
+    @Test
+    void testAuthenticatedRouteWithoutTokenIsUnauthorized() throws Exception {
+        assertEquals(401, send("GET", "/api/wallet/summary", null, null).statusCode());
+        assertEquals(401, send("GET", "/api/wallet/summary", null, "forged").statusCode());
+    }
+
+    @Test
+    void testRequestsBeforeLoginShareTheAddressRateLimit() throws Exception {
+        TokenBucket bucket = mock(TokenBucket.class);
+        doAnswer(invocation -> {
+            ClientContext context = invocation.getArgument(1, ClientContext.class);
+            return context.putRequestBucketIfAbsent(bucket) == null ? "first" : "charged";
+        }).when(dispatcher).dispatch(eq("help"), any());
+
+        assertTrue(send("GET", "/api/help", null, null).body().contains("first"));
+        assertTrue(send("GET", "/api/help", null, null).body().contains("charged"),
+                "A second request from the same address should find the bucket of the first");
+    }
+
+    @Test
+    void testInvalidRequests() throws Exception {
+        assertEquals(404, send("GET", "/api/unknown", null, null).statusCode());
+        assertEquals(400, send("POST", "/api/register", "not json", null).statusCode());
+        assertEquals(400, send("POST", "/api/register", "{\"email\":\"a b\",\"password\":\"x\"}", null)
+                .statusCode(), "Values with whitespace would change the command");
+    }
+
+    private HttpResponse<String> send(String method, String path, String body, String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + gateway.getPort() + path))
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body));
+
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
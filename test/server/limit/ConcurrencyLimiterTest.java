@@ -0,0 +1,118 @@
+package server.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConcurrencyLimiterTest {
+
+    private static final long FAST_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Test
+    void testRequestsOverTheLimitAreRejectedAtOnce() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 2, 2);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.release(FAST_NANOS);
+
+        assertTrue(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void testLimitGrowsWhileBusyAndFast() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(16, 4, 1024);
+
+        runWindows(limiter, 16, FAST_NANOS, 20);
+
+        assertTrue(limiter.getLimit() > 16, "Limit should grow, was " + limiter.getLimit());
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyRises() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(64, 4, 1024);
+
+        runWindows(limiter, 64, FAST_NANOS, 10);
+        int fastLimit = limiter.getLimit();
+        runWindows(limiter, 64, SLOW_NANOS, 10);
+
+        assertTrue(limiter.getLimit() < fastLimit / 2,
+                String.format("Limit should shrink from %d, was %d", fastLimit, limiter.getLimit()));
+    }
+
+    @Test
+    void testLimitStaysWithinItsBounds() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(8, 8, 10);
+
+        runWindows(limiter, 10, FAST_NANOS, 50);
+        assertEquals(10, limiter.getLimit());
+
+        runWindows(limiter, 10, SLOW_NANOS, 50);
+        assertEquals(8, limiter.getLimit());
+    }
+
+    @Test
+    void testIdleLimitDoesNotGrow() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(16, 4, 1024);
+
+        runWindows(limiter, 1, FAST_NANOS, 100);
+
+        assertEquals(16, limiter.getLimit());
+    }
+
+    @Test
+    void testCancelDoesNotSample() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 1);
+
+        assertTrue(limiter.tryAcquire());
+        limiter.cancel();
+
+        assertEquals(0, limiter.getInFlight());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void testZeroMaximumTurnsTheLimitOff() {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.create(8, 0);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+    }
+
+    @Test
+    void testInvalidBoundsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimiter(1, 0, 4));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimiter(4, 8, 4));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimiter(16, 4, 8));
+    }
+
+    /**
+     * Runs batches of requests that are all in flight together until the given number of sample windows is full.
+     */
+    private static void runWindows(ConcurrencyLimiter limiter, int concurrency, long latencyNanos, int windows) {
+        int samples = 0;
+
+        while (samples < windows * 50) {
+            int acquired = 0;
+            while (acquired < concurrency && limiter.tryAcquire()) {
+                acquired++;
+            }
+
+            for (int i = 0; i < acquired; i++) {
+                limiter.release(latencyNanos);
+            }
+
+            samples += acquired;
+        }
+    }
+}
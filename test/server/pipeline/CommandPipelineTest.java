@@ -0,0 +1,93 @@
+package server.pipeline;
+
+import command.CommandDispatcher;
+import command.CommandFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import repository.UserRepository;
+import server.limit.ConcurrencyLimiter;
+import server.session.ClientContext;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CommandPipelineTest {
+
+    private CommandDispatcher dispatcherMock;
+    private UserRepository repositoryMock;
+    private ConcurrencyLimiter limiter;
+    private CommandPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        dispatcherMock = Mockito.mock(CommandDispatcher.class);
+        repositoryMock = Mockito.mock(UserRepository.class);
+        CommandFactory factoryMock = Mockito.mock(CommandFactory.class);
+
+        when(dispatcherMock.getCommandFactory()).thenReturn(factoryMock);
+        when(factoryMock.getUserRepository()).thenReturn(repositoryMock);
+
+        limiter = new ConcurrencyLimiter(4, 4, 4);
+        pipeline = new CommandPipeline(dispatcherMock, 1, 16, limiter);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.close();
+    }
+
+    @Test
+    void testReadOnlyCommandDoesNotWaitForPendingChanges() throws Exception {
+        when(dispatcherMock.dispatchEncoded(anyString(), any())).thenReturn(encode("offerings"));
+        when(repositoryMock.hasPendingChanges()).thenReturn(true);
+
+        assertEquals("offerings", submit("list-offerings"));
+        verify(repositoryMock, never()).flushPendingChanges();
+    }
+
+    @Test
+    void testModifyingCommandWaitsForTheFlush() throws Exception {
+        when(dispatcherMock.dispatchEncoded(anyString(), any())).thenReturn(encode("bought"));
+        when(repositoryMock.hasPendingChanges()).thenReturn(true);
+
+        assertEquals("bought", submit("buy --offering=BTC --money=10"));
+        verify(repositoryMock).flushPendingChanges();
+    }
+
+    @Test
+    void testFailingDispatchIsAnsweredAndGivesThePermitBack() throws Exception {
+        when(dispatcherMock.dispatchEncoded(anyString(), any())).thenThrow(new IllegalStateException("boom"));
+
+        assertTrue(submit("help").startsWith("Your request could not be processed."));
+
+        // the permit is given back right after the response is handed over
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.getInFlight() > 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    private String submit(String request) throws Exception {
+        CompletableFuture<ByteBuffer> response = new CompletableFuture<>();
+
+        assertTrue(pipeline.submit(request, new ClientContext(), response::complete));
+        return StandardCharsets.UTF_8.decode(response.get(5, TimeUnit.SECONDS)).toString();
+    }
+
+    private static ByteBuffer encode(String response) {
+        return ByteBuffer.wrap(response.getBytes(StandardCharsets.UTF_8));
+    }
+}
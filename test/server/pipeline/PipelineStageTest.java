@@ -0,0 +1,103 @@
+package server.pipeline;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PipelineStageTest {
+
+    private PipelineStage stage;
+
+    @BeforeEach
+    void setUp() {
+        stage = new PipelineStage("test", 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stage.close();
+    }
+
+    @Test
+    void testConstructionWithInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new PipelineStage(" ", 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new PipelineStage("stage", 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new PipelineStage("stage", 1, 0));
+    }
+
+    @Test
+    void testSubmitRunsTaskAndCountsIt() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+
+        assertTrue(stage.submit(done::countDown), "Task should be accepted by an idle stage");
+        assertTrue(done.await(1, TimeUnit.SECONDS), "Task should be executed");
+
+        assertEquals(1, stage.getSubmittedTasks());
+    }
+
+    @Test
+    void testSubmitRejectsWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        stage.submit(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        started.await(1, TimeUnit.SECONDS);
+
+        assertTrue(stage.submit(() -> { }), "Second task should wait in the queue");
+        assertEquals(1, stage.getQueueDepth(), "Queue depth should count the waiting task");
+        assertFalse(stage.submit(() -> { }), "Third task should be rejected without blocking");
+        assertEquals(1, stage.getRejectedTasks());
+
+        release.countDown();
+    }
+
+    @Test
+    void testShutdownWaitsForQueuedTasks() {
+        AtomicInteger executed = new AtomicInteger();
+
+        stage.submit(() -> sleepQuietly(50));
+        stage.submit(executed::incrementAndGet);
+
+        assertTrue(stage.shutdown(1_000), "Queued tasks should finish before the timeout");
+        assertEquals(1, executed.get());
+        assertFalse(stage.submit(executed::incrementAndGet), "Stage should not accept tasks after shutdown");
+    }
+
+    @Test
+    void testShutdownReportsTasksNotFinishedInTime() {
+        CountDownLatch release = new CountDownLatch(1);
+        stage.submit(() -> awaitQuietly(release));
+
+        assertFalse(stage.shutdown(10));
+
+        release.countDown();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package server.pipeline;
+
+import command.type.PriorityClass;
+import org.junit.jupiter.api.Test;
+import server.pipeline.PriorityTaskQueue.PrioritizedTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PriorityTaskQueueTest {
+
+    @Test
+    void testTradesAreServedBeforeReportsThatArrivedEarlier() {
+        PriorityTaskQueue queue = new PriorityTaskQueue(8);
+        Runnable report = task(PriorityClass.REPORTING);
+        Runnable trade = task(PriorityClass.TRADE);
+
+        queue.offer(report);
+        queue.offer(trade);
+
+        assertSame(trade, queue.peek());
+        assertSame(trade, queue.poll());
+        assertSame(report, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void testEveryClassGetsItsWeightedShare() {
+        PriorityTaskQueue queue = new PriorityTaskQueue(100);
+        for (int i = 0; i < 20; i++) {
+            queue.offer(task(PriorityClass.REPORTING));
+            queue.offer(task(PriorityClass.STANDARD));
+            queue.offer(task(PriorityClass.TRADE));
+        }
+
+        List<PriorityClass> served = new ArrayList<>();
+        for (int i = 0; i < 13; i++) {
+            served.add(((PrioritizedTask) queue.poll()).priority());
+        }
+
+        assertEquals(8, served.stream().filter(PriorityClass.TRADE::equals).count());
+        assertEquals(4, served.stream().filter(PriorityClass.STANDARD::equals).count());
+        assertEquals(PriorityClass.REPORTING, served.getLast(), "Reports should get a turn every round");
+    }
+
+    @Test
+    void testPeekSeesTheNextTaskOnceTheRoundIsOver() {
+        PriorityTaskQueue queue = new PriorityTaskQueue(16);
+        for (int i = 0; i < PriorityClass.TRADE.getWeight() + 1; i++) {
+            queue.offer(task(PriorityClass.TRADE));
+        }
+        for (int i = 0; i < PriorityClass.TRADE.getWeight(); i++) {
+            queue.poll();
+        }
+
+        Runnable next = queue.peek();
+
+        assertNotNull(next, "Trades used up their turns, but one is still waiting");
+        assertSame(next, queue.poll());
+    }
+
+    @Test
+    void testTasksOfOneClassKeepTheirOrder() {
+        PriorityTaskQueue queue = new PriorityTaskQueue(8);
+        Runnable first = task(PriorityClass.TRADE);
+        Runnable second = task(PriorityClass.TRADE);
+        Runnable untagged = () -> { };
+
+        queue.offer(first);
+        queue.offer(untagged);
+        queue.offer(second);
+
+        assertSame(first, queue.poll());
+        assertSame(second, queue.poll());
+        assertSame(untagged, queue.poll(), "Untagged tasks should be scheduled as standard ones");
+    }
+
+    @Test
+    void testOfferFailsWhenFull() throws InterruptedException {
+        PriorityTaskQueue queue = new PriorityTaskQueue(1);
+
+        assertTrue(queue.offer(task(PriorityClass.REPORTING)));
+        assertFalse(queue.offer(task(PriorityClass.TRADE)), "Priority should not bypass the capacity");
+        assertFalse(queue.offer(task(PriorityClass.TRADE), 1, TimeUnit.MILLISECONDS));
+        assertEquals(0, queue.remainingCapacity());
+    }
+
+    @Test
+    void testRemoveAndDrain() {
+        PriorityTaskQueue queue = new PriorityTaskQueue(4);
+        Runnable removed = task(PriorityClass.STANDARD);
+        queue.offer(task(PriorityClass.REPORTING));
+        queue.offer(removed);
+        queue.offer(task(PriorityClass.TRADE));
+
+        assertTrue(queue.remove(removed));
+        assertEquals(2, queue.size());
+
+        List<Runnable> drained = new ArrayList<>();
+        assertEquals(2, queue.drainTo(drained));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void testPollTimesOutWhenEmpty() throws InterruptedException {
+        assertNull(new PriorityTaskQueue(1).poll(1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testCapacityMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new PriorityTaskQueue(0));
+    }
+
+    private static Runnable task(PriorityClass priority) {
+        return new PrioritizedTask(priority, () -> { });
+    }
+}
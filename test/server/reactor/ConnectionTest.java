@@ -0,0 +1,133 @@
+package server.reactor;
+
+import org.junit.jupiter.api.Test;
+import protocol.Frame;
+import protocol.FrameCodec;
+import server.buffer.BufferPool;
+import server.session.ClientContext;
+import server.timer.Deadline;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConnectionTest {
+
+    private final BufferPool pool = new BufferPool(64, 4);
+
+    @Test
+    void testConstructionWithInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new Connection(null, pool, 10));
+        assertThrows(IllegalArgumentException.class, () -> new Connection(new ClientContext(), pool, 0));
+    }
+
+    @Test
+    void testIdleConnectionIsInterestedInReadsOnly() {
+        Connection connection = new Connection(new ClientContext(), pool, 10);
+
+        assertEquals(SelectionKey.OP_READ, connection.getInterestOps());
+    }
+
+    @Test
+    void testPipelinedRequestsAreExecutedOneAtATimeInOrder() {
+        Connection connection = new Connection(new ClientContext(), pool, 10);
+
+        connection.addPendingRequest(Frame.of(1, "help"));
+        connection.addPendingRequest(Frame.of(2, "list-offerings"));
+
+        assertEquals(1, connection.pollNextRequest().frame().requestId());
+        assertNull(connection.pollNextRequest(), "No request should start while another one is in flight");
+
+        connection.completeRequest();
+
+        assertEquals(2, connection.pollNextRequest().frame().requestId());
+    }
+
+    @Test
+    void testSessionsOfOneConnectionDoNotWaitForEachOther() {
+        Connection connection = new Connection(new ClientContext(), pool, 10);
+
+        connection.addPendingRequest(Frame.forSession(1, 5, "get-wallet-summary"));
+        connection.addPendingRequest(Frame.forSession(2, 5, "buy --offering=BTC --money=10"));
+        connection.addPendingRequest(Frame.forSession(3, 6, "help"));
+
+        assertEquals(1, connection.pollNextRequest().frame().requestId());
+        assertEquals(3, connection.pollNextRequest().frame().requestId(), "Another session should not wait");
+        assertNull(connection.pollNextRequest(), "Requests of a session should run one at a time");
+
+        connection.completeRequest(5);
+
+        assertEquals(2, connection.pollNextRequest().frame().requestId());
+        assertTrue(connection.hasRequestInFlight());
+    }
+
+    @Test
+    void testDeadlineOfARequestIsCountedFromWhenItWasRead() {
+        Connection connection = new Connection(new ClientContext(), pool, 10);
+        long beforeNanos = System.nanoTime();
+
+        connection.addPendingRequest(Frame.withDeadline(1, "buy --offering=BTC --money=10", 1_000));
+        connection.addPendingRequest(Frame.of(2, "help"));
+
+        long deadlineNanos = connection.pollNextRequest().deadlineNanos();
+        assertTrue(deadlineNanos - beforeNanos >= 1_000_000_000L);
+        assertFalse(Deadline.hasPassed(deadlineNanos));
+
+        connection.completeRequest();
+
+        assertEquals(Deadline.NONE, connection.pollNextRequest().deadlineNanos());
+    }
+
+    @Test
+    void testReadsArePausedAboveOutboundLimit() {
+        Connection connection = new Connection(new ClientContext(), pool, 10);
+
+        connection.getOutboundQueue().enqueue(ByteBuffer.allocate(11));
+
+        assertEquals(SelectionKey.OP_WRITE, connection.getInterestOps(),
+                "Connection over its outbound limit should only wait for writes");
+
+        connection.getOutboundQueue().clear();
+        connection.getOutboundQueue().enqueue(ByteBuffer.allocate(3));
+
+        assertEquals(SelectionKey.OP_READ | SelectionKey.OP_WRITE, connection.getInterestOps(),
+                "Reads should resume once the queue drains below the low watermark");
+    }
+
+    @Test
+    void testDecodeNextRequestWaitsForTheWholeFrame() {
+        Connection connection = new Connection(new ClientContext(), pool, 10);
+        ByteBuffer encoded = FrameCodec.encode(Frame.of(3, "get-wallet-overall-summary --with-a-long-tail-to-span-chunks"));
+
+        connection.getInbound().append(encoded.slice(0, 20));
+        assertNull(connection.decodeNextRequest(FrameCodec.MAX_REQUEST_SIZE), "Partial frame should not be decoded");
+
+        connection.getInbound().append(encoded.position(20));
+        Frame decoded = connection.decodeNextRequest(FrameCodec.MAX_REQUEST_SIZE);
+
+        assertEquals(3, decoded.requestId());
+        assertEquals("get-wallet-overall-summary --with-a-long-tail-to-span-chunks", decoded.payloadAsString());
+        assertTrue(connection.getInbound().isEmpty(), "Consumed bytes should not stay in the inbound buffer");
+    }
+
+    @Test
+    void testStoppedConnectionStillServesRequestsAlreadyRead() {
+        Connection connection = new Connection(new ClientContext(), pool, 10);
+        connection.addPendingRequest(Frame.of(1, "help"));
+
+        connection.stopReading();
+
+        assertEquals(0, connection.getInterestOps(), "Stopped connection should not read");
+        assertFalse(connection.isIdle(), "Pending request should keep the connection busy");
+
+        connection.pollNextRequest();
+        connection.completeRequest();
+
+        assertTrue(connection.isIdle());
+    }
+}
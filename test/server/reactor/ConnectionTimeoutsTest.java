@@ -0,0 +1,86 @@
+package server.reactor;
+
+import model.User;
+import org.junit.jupiter.api.Test;
+import protocol.Frame;
+import server.buffer.BufferPool;
+import server.session.ClientContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ConnectionTimeoutsTest {
+
+    private static final long IDLE = 1_000;
+    private static final long LOGIN = 100;
+    private static final long HEARTBEAT = 300;
+
+    private final BufferPool pool = new BufferPool(64, 4);
+    private final ConnectionTimeouts timeouts = new ConnectionTimeouts(IDLE, LOGIN, HEARTBEAT);
+
+    @Test
+    void testConstructionWithInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionTimeouts(0, LOGIN, HEARTBEAT));
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionTimeouts(IDLE, 0, HEARTBEAT));
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionTimeouts(IDLE, LOGIN, -1));
+    }
+
+    @Test
+    void testConnectionExpiresWhenNotLoggedInInTime() {
+        Connection connection = new Connection(new ClientContext(), pool, 10, 0);
+
+        assertEquals(LOGIN, timeouts.nextCheckAt(connection));
+        assertFalse(timeouts.isExpired(connection, LOGIN - 1));
+        assertTrue(timeouts.isExpired(connection, LOGIN));
+    }
+
+    @Test
+    void testLoggedInConnectionExpiresOnlyWhenIdle() {
+        Connection connection = loggedInConnection();
+        connection.recordActivity(500);
+
+        assertFalse(timeouts.isExpired(connection, 1_000));
+        assertTrue(timeouts.isExpired(connection, 500 + IDLE));
+    }
+
+    @Test
+    void testConnectionWithRequestInFlightDoesNotExpire() {
+        Connection connection = loggedInConnection();
+        connection.addPendingRequest(Frame.of(1, "help"));
+        connection.pollNextRequest();
+
+        assertFalse(timeouts.isExpired(connection, 10 * IDLE));
+    }
+
+    @Test
+    void testHeartbeatIsDueAfterSilenceAndOnlyOncePerInterval() {
+        Connection connection = loggedInConnection();
+
+        assertEquals(HEARTBEAT, timeouts.nextCheckAt(connection));
+        assertTrue(timeouts.isHeartbeatDue(connection, HEARTBEAT));
+
+        connection.recordHeartbeat(HEARTBEAT);
+
+        assertFalse(timeouts.isHeartbeatDue(connection, HEARTBEAT + 1));
+        assertEquals(2 * HEARTBEAT, timeouts.nextCheckAt(connection));
+    }
+
+    @Test
+    void testHeartbeatCanBeDisabled() {
+        ConnectionTimeouts withoutHeartbeat =
+                new ConnectionTimeouts(IDLE, LOGIN, ConnectionTimeouts.HEARTBEAT_DISABLED);
+        Connection connection = loggedInConnection();
+
+        assertFalse(withoutHeartbeat.isHeartbeatDue(connection, IDLE - 1));
+        assertEquals(IDLE, withoutHeartbeat.nextCheckAt(connection));
+    }
+
+    private Connection loggedInConnection() {
+        ClientContext context = new ClientContext();
+        context.login(mock(User.class));
+        return new Connection(context, pool, 10, 0);
+    }
+}
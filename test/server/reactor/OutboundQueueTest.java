@@ -0,0 +1,155 @@
+package server.reactor;
+
+import org.junit.jupiter.api.Test;
+import protocol.Frame;
+import protocol.FrameCodec;
+import server.buffer.BufferPool;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OutboundQueueTest {
+
+    private final BufferPool pool = new BufferPool(64, 4);
+
+    @Test
+    void testEnqueueNullBufferThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new OutboundQueue(pool).enqueue((ByteBuffer) null));
+    }
+
+    @Test
+    void testWriteToDrainsEverythingWhenChannelAcceptsAll() throws Exception {
+        OutboundQueue queue = new OutboundQueue(pool);
+        LimitedChannel channel = new LimitedChannel(Integer.MAX_VALUE);
+
+        queue.enqueue(ByteBuffer.wrap("first ".getBytes(StandardCharsets.UTF_8)));
+        queue.enqueue(ByteBuffer.wrap("second".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(12, queue.getQueuedBytes());
+        assertEquals(12, queue.writeTo(channel));
+        assertTrue(queue.isEmpty(), "Queue should be empty after a full write");
+        assertEquals("first second", channel.getWritten());
+    }
+
+    @Test
+    void testWriteToKeepsRemainderOnPartialWrite() throws Exception {
+        OutboundQueue queue = new OutboundQueue(pool);
+        LimitedChannel channel = new LimitedChannel(4);
+
+        queue.enqueue(ByteBuffer.wrap("response".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(4, queue.writeTo(channel));
+        assertFalse(queue.isEmpty(), "Unwritten bytes should stay queued");
+        assertEquals(4, queue.getQueuedBytes());
+
+        queue.writeTo(channel);
+
+        assertTrue(queue.isEmpty());
+        assertEquals("response", channel.getWritten(), "Bytes should arrive in order and without losses");
+    }
+
+    @Test
+    void testEnqueueFrameSpansPooledChunksAndReturnsThem() throws Exception {
+        OutboundQueue queue = new OutboundQueue(pool);
+        LimitedChannel channel = new LimitedChannel(Integer.MAX_VALUE);
+        Frame frame = Frame.of(5, "x".repeat(150));
+
+        queue.enqueue(frame);
+
+        assertEquals(FrameCodec.encodedSize(frame), queue.getQueuedBytes());
+        assertEquals(1, pool.getFreeChunks(), "A 163-byte frame should lease three 64-byte chunks");
+
+        queue.writeTo(channel);
+
+        assertEquals(4, pool.getFreeChunks(), "Written chunks should go back to the pool");
+        assertEquals(FrameCodec.encode(frame), ByteBuffer.wrap(channel.getBytes()));
+    }
+
+    @Test
+    void testEnqueueSmallPayloadIsCopiedNextToHeader() throws Exception {
+        OutboundQueue queue = new OutboundQueue(pool);
+        LimitedChannel channel = new LimitedChannel(Integer.MAX_VALUE);
+        Frame frame = Frame.of(3, "help");
+
+        queue.enqueue(3, ByteBuffer.wrap(frame.payload()));
+        queue.writeTo(channel);
+
+        assertEquals(FrameCodec.encode(frame), ByteBuffer.wrap(channel.getBytes()));
+        assertEquals(4, pool.getFreeChunks());
+    }
+
+    @Test
+    void testEnqueueSharedPayloadIsWrittenWithoutConsumingIt() throws Exception {
+        ByteBuffer shared = ByteBuffer.wrap("x".repeat(150).getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+        Frame frame = Frame.of(9, shared);
+
+        for (int i = 0; i < 2; i++) {
+            OutboundQueue queue = new OutboundQueue(pool);
+            LimitedChannel channel = new LimitedChannel(Integer.MAX_VALUE);
+
+            queue.enqueue(9, shared);
+            assertEquals(FrameCodec.encodedSize(frame), queue.getQueuedBytes());
+
+            queue.writeTo(channel);
+            assertEquals(FrameCodec.encode(frame), ByteBuffer.wrap(channel.getBytes()));
+        }
+
+        assertEquals(150, shared.remaining(), "The shared payload should be left untouched");
+        assertEquals(4, pool.getFreeChunks(), "Only the header chunk should come from the pool");
+    }
+
+    private static final class LimitedChannel implements GatheringByteChannel {
+        private final int bytesPerWrite;
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+        private LimitedChannel(int bytesPerWrite) {
+            this.bytesPerWrite = bytesPerWrite;
+        }
+
+        String getWritten() {
+            return written.toString(StandardCharsets.UTF_8);
+        }
+
+        byte[] getBytes() {
+            return written.toByteArray();
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) {
+            long total = 0;
+            for (int i = offset; i < offset + length && total < bytesPerWrite; i++) {
+                while (srcs[i].hasRemaining() && total < bytesPerWrite) {
+                    written.write(srcs[i].get());
+                    total++;
+                }
+            }
+            return total;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs) {
+            return write(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            return (int) write(new ByteBuffer[] {src});
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
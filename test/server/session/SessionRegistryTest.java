@@ -0,0 +1,90 @@
+package server.session;
+
+import model.User;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+public class SessionRegistryTest {
+
+    private static final long TTL = 1_000;
+
+    private final SessionRegistry registry = new SessionRegistry(TTL);
+
+    @Test
+    void testConstructionWithInvalidTimeToLive() {
+        assertThrows(IllegalArgumentException.class, () -> new SessionRegistry(0));
+    }
+
+    @Test
+    void testOnlyLoggedInContextsGetSessions() {
+        assertThrows(IllegalArgumentException.class, () -> registry.create(new ClientContext(), 0));
+        assertThrows(IllegalArgumentException.class, () -> registry.create(null, 0));
+    }
+
+    @Test
+    void testFindReturnsSessionOfToken() {
+        ClientContext context = loggedInContext();
+        Session session = registry.create(context, 0);
+
+        assertSame(context, registry.find(session.getToken(), 10).getContext());
+        assertNull(registry.find("unknown", 10));
+        assertNull(registry.find(null, 10));
+    }
+
+    @Test
+    void testTokensAreUnique() {
+        assertNotEquals(registry.create(loggedInContext(), 0).getToken(),
+                registry.create(loggedInContext(), 0).getToken());
+    }
+
+    @Test
+    void testSessionExpiresAfterTimeToLiveWithoutUse() {
+        Session session = registry.create(loggedInContext(), 0);
+
+        assertNull(registry.find(session.getToken(), TTL));
+        assertEquals(0, registry.size(), "Expired session should be removed on lookup");
+    }
+
+    @Test
+    void testUseSlidesTheExpiry() {
+        Session session = registry.create(loggedInContext(), 0);
+
+        registry.find(session.getToken(), TTL - 1);
+
+        assertSame(session, registry.find(session.getToken(), 2 * TTL - 2));
+    }
+
+    @Test
+    void testLoggedOutSessionIsNotFound() {
+        ClientContext context = loggedInContext();
+        Session session = registry.create(context, 0);
+
+        context.logout();
+
+        assertNull(registry.find(session.getToken(), 1));
+    }
+
+    @Test
+    void testInvalidateAndPurge() {
+        Session first = registry.create(loggedInContext(), 0);
+        registry.create(loggedInContext(), 0);
+
+        registry.invalidate(first.getToken());
+        assertEquals(1, registry.size());
+
+        registry.purgeExpired(TTL);
+        assertEquals(0, registry.size());
+    }
+
+    private static ClientContext loggedInContext() {
+        ClientContext context = new ClientContext();
+        context.login(mock(User.class));
+        return context;
+    }
+}
@@ -0,0 +1,89 @@
+package server.session;
+
+import command.ratelimit.RateLimiter;
+import command.type.CommandType;
+import exception.RateLimitExceededException;
+import model.User;
+import org.junit.jupiter.api.Test;
+import protocol.Frame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class SessionTableTest {
+
+    private final ClientContext defaultContext = new ClientContext();
+    private final SessionTable sessions = new SessionTable(defaultContext);
+
+    @Test
+    void testConstructionWithNullDefaultContext() {
+        assertThrows(IllegalArgumentException.class, () -> new SessionTable(null));
+    }
+
+    @Test
+    void testSessionsAreCreatedOnFirstUseAndKeptApart() {
+        assertSame(defaultContext, sessions.get(Frame.DEFAULT_SESSION_ID));
+        assertNull(sessions.find(7));
+
+        ClientContext seventh = sessions.get(7);
+
+        assertNotSame(defaultContext, seventh);
+        assertSame(seventh, sessions.get(7));
+        assertSame(seventh, sessions.find(7));
+        assertEquals(2, sessions.size());
+    }
+
+    @Test
+    void testNoSessionIsCreatedOverTheLimit() {
+        for (int sessionId = 1; sessionId < SessionTable.MAX_SESSIONS; sessionId++) {
+            assertNotNull(sessions.get(sessionId));
+        }
+
+        assertNull(sessions.get(SessionTable.MAX_SESSIONS));
+        assertNotNull(sessions.get(1), "Existing sessions should still be found");
+    }
+
+    @Test
+    void testPushNotifiersReachPresentAndFutureSessions() {
+        List<Integer> notified = new ArrayList<>();
+        sessions.setPushNotifiers((sessionId, watchList) -> () -> notified.add(sessionId));
+
+        assertTrue(sessions.getDefault().getWatchList().isPushSupported());
+        assertTrue(sessions.get(3).getWatchList().isPushSupported());
+    }
+
+    @Test
+    void testLoginStateIsPerSession() {
+        sessions.get(5).login(mock(User.class));
+
+        assertFalse(sessions.getDefault().isLoggedIn());
+        assertTrue(sessions.isAnyLoggedIn());
+
+        sessions.logoutAll();
+
+        assertFalse(sessions.isAnyLoggedIn());
+    }
+
+    @Test
+    void testSessionsShareTheConnectionRateLimit() {
+        RateLimiter limiter = new RateLimiter(0.001, 10, Map.of(CommandType.HELP, 5));
+
+        limiter.acquire(CommandType.HELP, sessions.get(1));
+        limiter.acquire(CommandType.HELP, sessions.get(2));
+
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire(CommandType.HELP, sessions.get(3)),
+                "A new session should not come with a fresh bucket");
+        assertSame(defaultContext.getRequestBucket(), sessions.get(3).getRequestBucket());
+    }
+}
@@ -0,0 +1,53 @@
+package server.subscription;
+
+import model.Asset;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SubscriptionHubTest {
+
+    private final SubscriptionHub hub = new SubscriptionHub();
+
+    @Test
+    void testChangesReachOnlyWatchersOfTheAsset() {
+        WatchList btcWatcher = new WatchList();
+        WatchList ethWatcher = new WatchList();
+        btcWatcher.watch("BTC", hub);
+        ethWatcher.watch("ETH", hub);
+
+        Asset btc = new Asset("BTC", "Bitcoin", 1, 43251.23);
+        hub.onPricesChanged(List.of(btc));
+
+        assertEquals(List.of(btc), btcWatcher.takeUpdates());
+        assertTrue(ethWatcher.takeUpdates().isEmpty());
+    }
+
+    @Test
+    void testChangesMatchAssetIdCaseInsensitively() {
+        WatchList watcher = new WatchList();
+        watcher.watch("BTC", hub);
+
+        hub.onPricesChanged(List.of(new Asset("btc", "Bitcoin", 1, 1.0)));
+
+        assertEquals(1, watcher.takeUpdates().size());
+    }
+
+    @Test
+    void testLastUnsubscribeRemovesAsset() {
+        WatchList first = new WatchList();
+        WatchList second = new WatchList();
+        first.watch("BTC", hub);
+        second.watch("BTC", hub);
+
+        assertEquals(2, hub.getSubscriberCount("BTC"));
+
+        first.unwatch("BTC");
+        second.unwatch("BTC");
+
+        assertEquals(0, hub.getSubscriberCount("BTC"));
+    }
+}
@@ -0,0 +1,92 @@
+package server.subscription;
+
+import model.Asset;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WatchListTest {
+
+    private final SubscriptionHub hub = new SubscriptionHub();
+    private final WatchList watchList = new WatchList();
+    private final AtomicInteger notifications = new AtomicInteger();
+
+    @Test
+    void testPushIsSupportedOnlyWithNotifier() {
+        assertFalse(watchList.isPushSupported());
+
+        watchList.setPushNotifier(notifications::incrementAndGet);
+
+        assertTrue(watchList.isPushSupported());
+    }
+
+    @Test
+    void testWatchAndUnwatchUpdateHubSubscriptions() {
+        assertTrue(watchList.watch("BTC", hub));
+        assertFalse(watchList.watch("BTC", hub));
+        assertEquals(1, hub.getSubscriberCount("BTC"));
+        assertEquals(Set.of("BTC"), watchList.getWatchedAssetIds());
+
+        assertTrue(watchList.unwatch("BTC"));
+        assertFalse(watchList.unwatch("BTC"));
+        assertEquals(0, hub.getSubscriberCount("BTC"));
+    }
+
+    @Test
+    void testUpdatesAreConflatedToLatestPrice() {
+        watchList.setPushNotifier(notifications::incrementAndGet);
+
+        watchList.offer(asset("BTC", 1.0));
+        watchList.offer(asset("BTC", 2.0));
+        watchList.offer(asset("ETH", 3.0));
+        watchList.offer(asset("BTC", 4.0));
+
+        List<Asset> updates = watchList.takeUpdates();
+
+        assertEquals(1, notifications.get(), "Notifier should be called once per flush round");
+        assertEquals(2, updates.size());
+        assertTrue(updates.contains(asset("BTC", 4.0)));
+        assertTrue(updates.contains(asset("ETH", 3.0)));
+        assertFalse(watchList.completeFlush());
+    }
+
+    @Test
+    void testCompleteFlushReportsUpdatesOfferedDuringFlush() {
+        watchList.setPushNotifier(notifications::incrementAndGet);
+
+        watchList.offer(asset("BTC", 1.0));
+        watchList.takeUpdates();
+        watchList.offer(asset("BTC", 2.0));
+
+        assertTrue(watchList.completeFlush());
+        assertEquals(List.of(asset("BTC", 2.0)), watchList.takeUpdates());
+        assertFalse(watchList.completeFlush());
+        assertEquals(1, notifications.get());
+
+        watchList.offer(asset("BTC", 3.0));
+        assertEquals(2, notifications.get(), "A new round should start after the previous one completed");
+    }
+
+    @Test
+    void testClearDropsSubscriptionsAndPendingUpdates() {
+        watchList.watch("BTC", hub);
+        watchList.watch("ETH", hub);
+        watchList.offer(asset("BTC", 1.0));
+
+        watchList.clear();
+
+        assertTrue(watchList.getWatchedAssetIds().isEmpty());
+        assertTrue(watchList.takeUpdates().isEmpty());
+        assertEquals(0, hub.getSubscriberCount("ETH"));
+    }
+
+    private static Asset asset(String id, double price) {
+        return new Asset(id, id, 1, price);
+    }
+}
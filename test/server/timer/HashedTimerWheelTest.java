@@ -0,0 +1,77 @@
+package server.timer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HashedTimerWheelTest {
+
+    private final HashedTimerWheel<String> wheel = new HashedTimerWheel<>(10, 8, 0);
+    private final List<String> expired = new ArrayList<>();
+
+    @Test
+    void testConstructionWithInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new HashedTimerWheel<>(0, 8, 0));
+        assertThrows(IllegalArgumentException.class, () -> new HashedTimerWheel<>(10, 6, 0));
+    }
+
+    @Test
+    void testTimeoutExpiresOnlyAfterItsDeadline() {
+        wheel.schedule("a", 35);
+
+        wheel.advance(29, expired::add);
+        assertTrue(expired.isEmpty(), "Timeout should not expire before its deadline tick");
+
+        wheel.advance(30, expired::add);
+        assertEquals(List.of("a"), expired);
+        assertEquals(0, wheel.getPendingTimeouts());
+    }
+
+    @Test
+    void testTimeoutBeyondOneRotationWaitsForItsRound() {
+        wheel.schedule("far", 250);
+
+        wheel.advance(170, expired::add);
+        assertTrue(expired.isEmpty(), "Timeout sharing a bucket with an earlier tick should wait for its round");
+
+        wheel.advance(250, expired::add);
+        assertEquals(List.of("far"), expired);
+    }
+
+    @Test
+    void testCancelledTimeoutDoesNotExpire() {
+        wheel.schedule("cancelled", 20).cancel();
+
+        wheel.advance(100, expired::add);
+
+        assertTrue(expired.isEmpty());
+        assertEquals(0, wheel.getPendingTimeouts());
+    }
+
+    @Test
+    void testLargeJumpExpiresEverythingDue() {
+        wheel.schedule("a", 15);
+        wheel.schedule("b", 500);
+        wheel.schedule("c", 10_000);
+
+        wheel.advance(1_000, expired::add);
+
+        assertEquals(List.of("a", "b"), expired.stream().sorted().toList());
+        assertEquals(1, wheel.getPendingTimeouts());
+    }
+
+    @Test
+    void testTimeoutCanBeRescheduledFromTheCallback() {
+        wheel.schedule("a", 10);
+
+        wheel.advance(10, target -> wheel.schedule(target + "!", 20));
+        wheel.advance(20, expired::add);
+
+        assertEquals(List.of("a!"), expired);
+    }
+}
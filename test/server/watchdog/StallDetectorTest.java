@@ -0,0 +1,103 @@
+package server.watchdog;
+
+import metrics.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StallDetectorTest {
+
+    private static final long THRESHOLD_MILLIS = 10;
+    private static final long THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(THRESHOLD_MILLIS);
+
+    @Test
+    void testBlockedLoopIsCaughtWithItsStack() throws Exception {
+        LoopProbe probe = new LoopProbe("worker-reactor-0", THRESHOLD_NANOS);
+        CountDownLatch blocking = new CountDownLatch(1);
+
+        Thread loop = Thread.ofPlatform().start(() -> {
+            probe.beginIteration();
+            blocking.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                probe.endIteration();
+            }
+        });
+
+        blocking.await();
+        Thread.sleep(2 * THRESHOLD_MILLIS);
+
+        LoopProbe.Stall stall = probe.detectStall(System.nanoTime());
+        loop.interrupt();
+        loop.join();
+
+        assertNotNull(stall);
+        assertTrue(stall.blockedNanos() >= THRESHOLD_NANOS);
+        assertTrue(Arrays.stream(stall.stackTrace()).anyMatch(frame -> frame.getMethodName().contains("sleep")),
+                "Stack of the blocked thread should be captured");
+    }
+
+    @Test
+    void testStallIsReportedOncePerIteration() {
+        LoopProbe probe = new LoopProbe("acceptor", THRESHOLD_NANOS);
+        probe.beginIteration();
+
+        long later = System.nanoTime() + 2 * THRESHOLD_NANOS;
+
+        assertNotNull(probe.detectStall(later));
+        assertNull(probe.detectStall(later));
+
+        probe.endIteration();
+        probe.beginIteration();
+
+        assertNull(probe.detectStall(System.nanoTime()), "A fresh iteration should not be a stall");
+    }
+
+    @Test
+    void testIdleLoopIsNotAStall() {
+        LoopProbe probe = new LoopProbe("acceptor", THRESHOLD_NANOS);
+        probe.beginIteration();
+        probe.endIteration();
+
+        assertNull(probe.detectStall(System.nanoTime() + 2 * THRESHOLD_NANOS));
+    }
+
+    @Test
+    void testCaughtStallsAreCounted() {
+        long before = MetricsRegistry.getInstance().getEventLoopStallsCaptured();
+
+        try (StallDetector detector = new StallDetector(THRESHOLD_MILLIS)) {
+            LoopProbe probe = detector.register("worker-reactor-1");
+            probe.beginIteration();
+
+            assertEquals(1, detector.check(System.nanoTime() + 2 * THRESHOLD_NANOS));
+        }
+
+        assertTrue(MetricsRegistry.getInstance().getEventLoopStallsCaptured() > before);
+    }
+
+    @Test
+    void testZeroThresholdTurnsTheDetectorOff() {
+        try (StallDetector detector = new StallDetector(0)) {
+            detector.register("acceptor").beginIteration();
+            detector.start();
+
+            assertEquals(0, detector.check(Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void testInvalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new StallDetector(-1));
+        assertThrows(IllegalArgumentException.class, () -> new StallDetector(1).register(" "));
+    }
+}